@@ -40,7 +40,10 @@ public class ImageBiomeProvider implements BiomeProvider {
     public Biome getBiome(int x, int y, int z, long seed) {
         x /= resolution;
         z /= resolution;
-        Color color = align.getColor(image, x, z);
+        return getBiome(align.getColor(image, x, z));
+    }
+    
+    private Biome getBiome(Color color) {
         return colorBiomeMap.get(colorBiomeMap.keySet()
                                               .stream()
                                               .reduce(colorBiomeMap.keySet().stream().findAny().orElseThrow(IllegalStateException::new),
@@ -51,26 +54,56 @@ public class ImageBiomeProvider implements BiomeProvider {
                                                       }));
     }
     
+    /**
+     * Scans the pixels under an area, matching each distinct colour to a biome once.
+     */
+    @Override
+    public void getBiomes(int x, int y, int z, int width, int depth, long seed, Biome[] out) {
+        Map<Integer, Biome> matched = new HashMap<>();
+        int lastRGB = 0;
+        Biome last = null;
+        for(int i = 0; i < width; i++) {
+            int px = (x + i) / resolution;
+            for(int j = 0; j < depth; j++) {
+                int rgb = align.getRGB(image, px, (z + j) / resolution);
+                if(last == null || rgb != lastRGB) {
+                    last = matched.computeIfAbsent(rgb, color -> getBiome(new Color(color)));
+                    lastRGB = rgb;
+                }
+                out[i * depth + j] = last;
+            }
+        }
+    }
+    
     @Override
     public Iterable<Biome> getBiomes() {
         return colorBiomeMap.values();
     }
     
+    @Override
+    public boolean isYInvariant() {
+        return true;
+    }
+    
     public enum Align {
         CENTER {
             @Override
-            public Color getColor(BufferedImage image, int x, int z) {
-                return new Color(image.getRGB(FastMath.floorMod(x - image.getWidth() / 2, image.getWidth()),
-                                              FastMath.floorMod(z - image.getHeight() / 2, image.getHeight())));
+            public int getRGB(BufferedImage image, int x, int z) {
+                return image.getRGB(FastMath.floorMod(x - image.getWidth() / 2, image.getWidth()),
+                                    FastMath.floorMod(z - image.getHeight() / 2, image.getHeight()));
             }
         },
         NONE {
             @Override
-            public Color getColor(BufferedImage image, int x, int z) {
-                return new Color(image.getRGB(FastMath.floorMod(x, image.getWidth()), FastMath.floorMod(z, image.getHeight())));
+            public int getRGB(BufferedImage image, int x, int z) {
+                return image.getRGB(FastMath.floorMod(x, image.getWidth()), FastMath.floorMod(z, image.getHeight()));
             }
         };
         
-        public abstract Color getColor(BufferedImage image, int x, int z);
+        public abstract int getRGB(BufferedImage image, int x, int z);
+        
+        public Color getColor(BufferedImage image, int x, int z) {
+            return new Color(getRGB(image, x, z));
+        }
     }
 }
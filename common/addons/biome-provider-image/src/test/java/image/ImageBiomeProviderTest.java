@@ -0,0 +1,83 @@
+package image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.Set;
+
+import com.dfsek.terra.addons.biome.image.ImageBiomeProvider;
+import com.dfsek.terra.addons.biome.image.ImageBiomeProvider.Align;
+import com.dfsek.terra.api.properties.Context;
+import com.dfsek.terra.api.world.biome.Biome;
+import com.dfsek.terra.api.world.biome.PlatformBiome;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+public class ImageBiomeProviderTest {
+    private static final Set<Biome> BIOMES = Set.of(new TestBiome("RED", 0xFF0000), new TestBiome("GREEN", 0x00FF00),
+                                                    new TestBiome("BLUE", 0x0000FF));
+    
+    /*
+     * Mostly exact biome colours, with some off colours that have to be matched to the nearest biome.
+     */
+    private static BufferedImage image() {
+        Random random = new Random(2403);
+        int[] colors = { 0xFF0000, 0x00FF00, 0x0000FF, 0xE01010, 0x20C040, 0x3030A0 };
+        BufferedImage image = new BufferedImage(23, 17, BufferedImage.TYPE_INT_RGB);
+        for(int x = 0; x < image.getWidth(); x++) {
+            for(int z = 0; z < image.getHeight(); z++) {
+                image.setRGB(x, z, colors[random.nextInt(colors.length)]);
+            }
+        }
+        return image;
+    }
+    
+    @Test
+    public void getBiomesMatchesGetBiome() {
+        BufferedImage image = image();
+        for(Align align : Align.values()) {
+            ImageBiomeProvider provider = new ImageBiomeProvider(BIOMES, image, 3, align);
+            int x = -50;
+            int z = -40;
+            int width = 100;
+            int depth = 90;
+            Biome[] out = new Biome[width * depth];
+            provider.getBiomes(x, 0, z, width, depth, 0, out);
+            for(int i = 0; i < width; i++) {
+                for(int j = 0; j < depth; j++) {
+                    assertSame(provider.getBiome(x + i, 0, z + j, 0), out[i * depth + j],
+                               align + " at " + (x + i) + ", " + (z + j));
+                }
+            }
+        }
+    }
+    
+    private record TestBiome(String id, int color) implements Biome {
+        @Override
+        public String getID() {
+            return id;
+        }
+        
+        @Override
+        public PlatformBiome getPlatformBiome() {
+            return null;
+        }
+        
+        @Override
+        public int getColor() {
+            return color;
+        }
+        
+        @Override
+        public Set<String> getTags() {
+            return Set.of();
+        }
+        
+        @Override
+        public Context getContext() {
+            return new Context();
+        }
+    }
+}
@@ -15,66 +15,117 @@ import com.dfsek.terra.addons.biome.pipeline.source.BiomeSource;
 import com.dfsek.terra.api.util.vector.Vector2;
 
 
+/**
+ * Square grid of biomes, stored in a flat array at {@code x * width + z}.
+ * <p>
+ * Stages are double-buffered: each stage reads from one array and writes into the other before they are swapped, so mutators
+ * always see the biomes as they were before the stage. The arrays may be larger than the grid, so that the same pair can be
+ * reused for every stage of a pipeline.
+ */
 public class BiomeHolderImpl implements BiomeHolder {
     private final Vector2.Mutable origin;
-    private final int width;
-    private final int offset;
-    private BiomeDelegate[][] biomes;
+    private final BiomeMutator.ViewPoint viewPoint = new BiomeMutator.ViewPoint(this, 0, 0);
+    private int width;
+    private int offset;
+    private BiomeDelegate[] biomes;
+    private BiomeDelegate[] buffer;
     
     public BiomeHolderImpl(int width, Vector2.Mutable origin) {
+        this(width, origin, new BiomeDelegate[(width + 4) * (width + 4)], null);
+    }
+    
+    /**
+     * Creates a holder working in borrowed arrays, which should be large enough for the final grid of the pipeline. The holder
+     * must be {@link #release() released} before the arrays are reused.
+     *
+     * @param biomes Array to fill the grid into
+     * @param buffer Array to write stages into, or null to allocate one when needed
+     */
+    public BiomeHolderImpl(int width, Vector2.Mutable origin, BiomeDelegate[] biomes, BiomeDelegate[] buffer) {
         width += 4;
+        if(biomes.length < width * width) throw new IllegalArgumentException("Array too small for width " + width + ": " + biomes.length);
         this.width = width;
-        biomes = new BiomeDelegate[width][width];
+        this.biomes = biomes;
+        this.buffer = buffer;
         this.origin = origin;
         this.offset = 2;
     }
     
-    private BiomeHolderImpl(BiomeDelegate[][] biomes, Vector2.Mutable origin, int width, int offset) {
-        this.biomes = biomes;
-        this.origin = origin;
-        this.width = width;
-        this.offset = 2 * offset;
+    /**
+     * Copies the grid out of any borrowed arrays, leaving the holder with an array of its own.
+     */
+    public void release() {
+        BiomeDelegate[] owned = new BiomeDelegate[width * width];
+        System.arraycopy(biomes, 0, owned, 0, owned.length);
+        biomes = owned;
+        buffer = null;
+    }
+    
+    /*
+     * Makes sure the buffer can hold a grid of the given width.
+     */
+    private BiomeDelegate[] buffer(int size) {
+        if(buffer == null || buffer.length < size * size) buffer = new BiomeDelegate[size * size];
+        return buffer;
+    }
+    
+    private void swap() {
+        BiomeDelegate[] old = biomes;
+        biomes = buffer;
+        buffer = old;
     }
     
     @Override
     public BiomeHolder expand(BiomeExpander expander, long seed) {
-        BiomeDelegate[][] old = biomes;
+        BiomeDelegate[] old = biomes;
         int newWidth = width * 2 - 1;
+        BiomeDelegate[] expanded = buffer(newWidth);
         
-        biomes = new BiomeDelegate[newWidth][newWidth];
-        
+        double originX = origin.getX();
+        double originZ = origin.getZ();
         for(int x = 0; x < width; x++) {
+            int row = x * width;
+            int expandedRow = x * 2 * newWidth;
             for(int z = 0; z < width; z++) {
-                biomes[x * 2][z * 2] = old[x][z];
+                BiomeDelegate biome = old[row + z];
+                expanded[expandedRow + z * 2] = biome;
                 if(z != width - 1)
-                    biomes[x * 2][z * 2 + 1] = expander.getBetween(x + origin.getX(), z + 1 + origin.getZ(), seed, old[x][z],
-                                                                   old[x][z + 1]);
+                    expanded[expandedRow + z * 2 + 1] = expander.getBetween(x + originX, z + 1 + originZ, seed, biome, old[row + z + 1]);
                 if(x != width - 1)
-                    biomes[x * 2 + 1][z * 2] = expander.getBetween(x + 1 + origin.getX(), z + origin.getZ(), seed, old[x][z],
-                                                                   old[x + 1][z]);
+                    expanded[expandedRow + newWidth + z * 2] = expander.getBetween(x + 1 + originX, z + originZ, seed, biome,
+                                                                                   old[row + width + z]);
                 if(x != width - 1 && z != width - 1)
-                    biomes[x * 2 + 1][z * 2 + 1] = expander.getBetween(x + 1 + origin.getX(), z + 1 + origin.getZ(), seed, old[x][z],
-                                                                       old[x + 1][z + 1], old[x][z + 1], old[x + 1][z]);
+                    expanded[expandedRow + newWidth + z * 2 + 1] = expander.getBetween(x + 1 + originX, z + 1 + originZ, seed, biome,
+                                                                                       old[row + width + z + 1], old[row + z + 1],
+                                                                                       old[row + width + z]);
             }
         }
-        return new BiomeHolderImpl(biomes, origin.setX(origin.getX() * 2 - 1).setZ(origin.getZ() * 2 - 1), newWidth, offset);
+        swap();
+        width = newWidth;
+        offset *= 2;
+        origin.setX(originX * 2 - 1).setZ(originZ * 2 - 1);
+        return this;
     }
     
     @Override
     public void mutate(BiomeMutator mutator, long seed) {
+        BiomeDelegate[] mutated = buffer(width);
+        double originX = origin.getX();
+        double originZ = origin.getZ();
         for(int x = 0; x < width; x++) {
             for(int z = 0; z < width; z++) {
-                BiomeMutator.ViewPoint viewPoint = new BiomeMutator.ViewPoint(this, x, z);
-                biomes[x][z] = mutator.mutate(viewPoint, x + origin.getX(), z + origin.getZ(), seed);
+                viewPoint.moveTo(x, z);
+                mutated[x * width + z] = mutator.mutate(viewPoint, x + originX, z + originZ, seed);
             }
         }
+        swap();
     }
     
     @Override
     public void fill(BiomeSource source, long seed) {
         for(int x = 0; x < width; x++) {
             for(int z = 0; z < width; z++) {
-                biomes[x][z] = source.getBiome(origin.getX() + x, origin.getZ() + z, seed);
+                biomes[x * width + z] = source.getBiome(origin.getX() + x, origin.getZ() + z, seed);
             }
         }
     }
@@ -89,6 +140,6 @@ public class BiomeHolderImpl implements BiomeHolder {
     @Override
     public BiomeDelegate getBiomeRaw(int x, int z) {
         if(x >= width || z >= width || x < 0 || z < 0) return null;
-        return biomes[x][z];
+        return biomes[x * width + z];
     }
 }
@@ -12,6 +12,7 @@ import java.util.Collections;
 import java.util.List;
 
 import com.dfsek.terra.addons.biome.pipeline.api.BiomeHolder;
+import com.dfsek.terra.addons.biome.pipeline.api.delegate.BiomeDelegate;
 import com.dfsek.terra.addons.biome.pipeline.api.stage.Stage;
 import com.dfsek.terra.addons.biome.pipeline.source.BiomeSource;
 import com.dfsek.terra.api.util.vector.Vector2;
@@ -22,12 +23,27 @@ public class BiomePipeline {
     private final List<Stage> stages;
     private final int size;
     private final int init;
+    /*
+     * Number of biomes in the largest grid a tile goes through, including its border.
+     */
+    private final int gridSize;
+    /*
+     * Per-thread pair of arrays that tiles are generated in, so that only the finished grid of a tile is allocated.
+     */
+    private final ThreadLocal<BiomeDelegate[][]> buffers;
     
     private BiomePipeline(BiomeSource source, List<Stage> stages, int size, int init) {
         this.source = source;
         this.stages = stages;
         this.size = size;
         this.init = init;
+        
+        int width = init + 4;
+        for(Stage stage : stages) {
+            if(stage.isExpansion()) width = width * 2 - 1;
+        }
+        this.gridSize = width * width;
+        this.buffers = ThreadLocal.withInitial(() -> new BiomeDelegate[][]{ new BiomeDelegate[gridSize], new BiomeDelegate[gridSize] });
     }
     
     /**
@@ -39,9 +55,12 @@ public class BiomePipeline {
      * @return BiomeHolder containing biomes.
      */
     public BiomeHolder getBiomes(int x, int z, long seed) {
-        BiomeHolder holder = new BiomeHolderImpl(init, Vector2.of(x * (init - 1), z * (init - 1)).mutable());
-        holder.fill(source, seed);
+        BiomeDelegate[][] buffers = this.buffers.get();
+        BiomeHolderImpl grid = new BiomeHolderImpl(init, Vector2.of(x * (init - 1), z * (init - 1)).mutable(), buffers[0], buffers[1]);
+        grid.fill(source, seed);
+        BiomeHolder holder = grid;
         for(Stage stage : stages) holder = stage.apply(holder, seed);
+        grid.release();
         return holder;
     }
     
@@ -60,7 +60,7 @@ public class BiomePipelineAddon implements AddonInitializer {
                 .then(event -> {
                     CheckedRegistry<Supplier<ObjectTemplate<BiomeProvider>>> providerRegistry = event.getPack().getOrCreateRegistry(
                             PROVIDER_REGISTRY_KEY);
-                    providerRegistry.register(addon.key("PIPELINE"), BiomePipelineTemplate::new);
+                    providerRegistry.register(addon.key("PIPELINE"), () -> new BiomePipelineTemplate(platform));
                 })
                 .then(event -> {
                     CheckedRegistry<Supplier<ObjectTemplate<BiomeSource>>> sourceRegistry = event.getPack().getOrCreateRegistry(
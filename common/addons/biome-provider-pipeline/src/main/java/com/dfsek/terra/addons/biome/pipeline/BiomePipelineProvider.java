@@ -9,24 +9,47 @@ package com.dfsek.terra.addons.biome.pipeline;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import net.jafama.FastMath;
 
+import java.time.Duration;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.stream.StreamSupport;
 
 import com.dfsek.terra.addons.biome.pipeline.api.BiomeHolder;
 import com.dfsek.terra.addons.biome.pipeline.api.delegate.BiomeDelegate;
 import com.dfsek.terra.addons.biome.pipeline.api.stage.Stage;
+import com.dfsek.terra.api.config.PluginConfig;
 import com.dfsek.terra.api.noise.NoiseSampler;
 import com.dfsek.terra.api.registry.key.StringIdentifiable;
 import com.dfsek.terra.api.world.biome.Biome;
 import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
 
 
+/**
+ * Provides biomes from a pipeline, which generates them in square tiles.
+ * <p>
+ * Tiles are kept in a cache configured through the {@link PluginConfig}. Each thread also remembers the last tile it used, as
+ * lookups tend to come in runs within the same tile. With prefetching enabled, the tiles around a tile that had to be built for a
+ * lookup are built in the background, on a small pool shared by all providers; prefetches that don't fit in its queue are dropped.
+ */
 public class BiomePipelineProvider implements BiomeProvider {
+    private static final ThreadPoolExecutor PREFETCH = prefetchExecutor();
+    
     private final LoadingCache<SeededVector, BiomeHolder> holderCache;
+    private final ThreadLocal<LastTile> lastTile;
+    
+    private final LongAdder lastTileHits = new LongAdder();
+    private final boolean prefetch;
+    
     private final BiomePipeline pipeline;
     private final int resolution;
     private final NoiseSampler mutator;
@@ -34,14 +57,18 @@ public class BiomePipelineProvider implements BiomeProvider {
     
     private final Set<Biome> biomes;
     
-    public BiomePipelineProvider(BiomePipeline pipeline, int resolution, NoiseSampler mutator, double noiseAmp) {
+    public BiomePipelineProvider(BiomePipeline pipeline, int resolution, NoiseSampler mutator, double noiseAmp, PluginConfig config) {
         this.resolution = resolution;
         this.mutator = mutator;
         this.noiseAmp = noiseAmp;
-        holderCache = Caffeine.newBuilder()
-                              .maximumSize(1024)
-                              .build(key -> pipeline.getBiomes(key.x, key.z, key.seed));
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                                                   .maximumSize(config.getPipelineCache())
+                                                   .recordStats();
+        if(config.getPipelineCacheExpiry() > 0) builder.expireAfterAccess(Duration.ofSeconds(config.getPipelineCacheExpiry()));
+        holderCache = builder.build(key -> pipeline.getBiomes(key.x, key.z, key.seed));
+        this.prefetch = config.isPipelinePrefetch();
         this.pipeline = pipeline;
+        this.lastTile = ThreadLocal.withInitial(() -> new LastTile(pipeline));
         
         Set<BiomeDelegate> biomeSet = new HashSet<>();
         pipeline.getSource().getBiomes().forEach(biomeSet::add);
@@ -83,8 +110,139 @@ public class BiomePipelineProvider implements BiomeProvider {
         
         int fdX = FastMath.floorDiv(x, pipeline.getSize());
         int fdZ = FastMath.floorDiv(z, pipeline.getSize());
-        return holderCache.get(new SeededVector(fdX, fdZ, seed)).getBiome(x - fdX * pipeline.getSize(),
-                                                                                   z - fdZ * pipeline.getSize()).getBiome();
+        return getHolder(fdX, fdZ, seed).getBiome(x - fdX * pipeline.getSize(),
+                                                  z - fdZ * pipeline.getSize()).getBiome();
+    }
+    
+    private BiomeHolder getHolder(int tileX, int tileZ, long seed) {
+        LastTile tile = lastTile.get();
+        if(tile.holder != null && tile.x == tileX && tile.z == tileZ && tile.seed == seed) {
+            lastTileHits.increment();
+            return tile.holder;
+        }
+        
+        tile.x = tileX;
+        tile.z = tileZ;
+        tile.seed = seed;
+        tile.holder = null; // until the lookup succeeds
+        tile.built = false;
+        BiomeHolder holder = holderCache.get(new SeededVector(tileX, tileZ, seed), tile);
+        tile.holder = holder;
+        if(tile.built && prefetch) prefetch(tileX, tileZ, seed);
+        return holder;
+    }
+    
+    private void prefetch(int tileX, int tileZ, long seed) {
+        for(int x = tileX - 1; x <= tileX + 1; x++) {
+            for(int z = tileZ - 1; z <= tileZ + 1; z++) {
+                if(x == tileX && z == tileZ) continue;
+                SeededVector neighbour = new SeededVector(x, z, seed);
+                if(holderCache.getIfPresent(neighbour) == null) {
+                    PREFETCH.execute(() -> holderCache.get(neighbour));
+                }
+            }
+        }
+    }
+    
+    private static ThreadPoolExecutor prefetchExecutor() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(64),
+                                                             runnable -> {
+                                                                 Thread thread = new Thread(runnable,
+                                                                                            "Terra-Pipeline-Prefetch-" +
+                                                                                            count.incrementAndGet());
+                                                                 thread.setDaemon(true);
+                                                                 return thread;
+                                                             }, new ThreadPoolExecutor.DiscardPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    /**
+     * @return The number of tile lookups answered without building the tile.
+     */
+    public long getHits() {
+        return holderCache.stats().hitCount() + lastTileHits.sum();
+    }
+    
+    /**
+     * @return The number of tiles built, including prefetched ones.
+     */
+    public long getMisses() {
+        return holderCache.stats().loadCount();
+    }
+    
+    public long getEvictions() {
+        return holderCache.stats().evictionCount();
+    }
+    
+    /**
+     * @return The average time taken to build a tile, in nanoseconds.
+     */
+    public double getAverageLoadTime() {
+        return holderCache.stats().averageLoadPenalty();
+    }
+    
+    @Override
+    public String toString() {
+        CacheStats stats = holderCache.stats();
+        return "BiomePipelineProvider{hits=" + (stats.hitCount() + lastTileHits.sum()) + ", misses=" + stats.loadCount() +
+               ", evictions=" + stats.evictionCount() + ", averageLoadTime=" + stats.averageLoadPenalty() + "}";
+    }
+    
+    /**
+     * Looks biomes up tile by tile: mutator noise is evaluated in batches, and consecutive points in the same pipeline tile reuse
+     * its holder instead of going through the cache.
+     */
+    @Override
+    public void getBiomes(int x, int y, int z, int width, int depth, long seed, Biome[] out) {
+        int count = width * depth;
+        int[] xs = new int[count];
+        int[] zs = new int[count];
+        for(int i = 0; i < width; i++) {
+            for(int j = 0; j < depth; j++) {
+                xs[i * depth + j] = x + i;
+                zs[i * depth + j] = z + j;
+            }
+        }
+        
+        if(noiseAmp != 0) {
+            // Same order as getBiome: z is distorted at the already distorted x.
+            double[] sampleX = new double[count];
+            double[] sampleZ = new double[count];
+            double[] noise = new double[count];
+            for(int i = 0; i < count; i++) {
+                sampleX[i] = xs[i];
+                sampleZ[i] = zs[i];
+            }
+            mutator.noise(seed + 1, sampleX, sampleZ, noise);
+            for(int i = 0; i < count; i++) {
+                xs[i] = (int) (xs[i] + noise[i] * noiseAmp);
+                sampleX[i] = xs[i];
+            }
+            mutator.noise(seed + 2, sampleX, sampleZ, noise);
+            for(int i = 0; i < count; i++) {
+                zs[i] = (int) (zs[i] + noise[i] * noiseAmp);
+            }
+        }
+        
+        int size = pipeline.getSize();
+        BiomeHolder holder = null;
+        int tileX = 0;
+        int tileZ = 0;
+        for(int i = 0; i < count; i++) {
+            int bx = FastMath.floorDiv(xs[i], resolution);
+            int bz = FastMath.floorDiv(zs[i], resolution);
+            int fdX = FastMath.floorDiv(bx, size);
+            int fdZ = FastMath.floorDiv(bz, size);
+            if(holder == null || fdX != tileX || fdZ != tileZ) {
+                holder = getHolder(fdX, fdZ, seed);
+                tileX = fdX;
+                tileZ = fdZ;
+            }
+            out[i] = holder.getBiome(bx - fdX * size, bz - fdZ * size).getBiome();
+        }
     }
     
     @Override
@@ -92,6 +250,34 @@ public class BiomePipelineProvider implements BiomeProvider {
         return biomes;
     }
     
+    @Override
+    public boolean isYInvariant() {
+        return true;
+    }
+    
     private record SeededVector(int x, int z, long seed) {
     }
+    
+    /*
+     * The last tile a thread looked up, which also builds tiles on cache misses so that a lookup can tell whether it had to. It
+     * must not reference the provider, or the provider's thread local could never be cleared from threads that outlive it.
+     */
+    private static final class LastTile implements Function<SeededVector, BiomeHolder> {
+        private final BiomePipeline pipeline;
+        private int x;
+        private int z;
+        private long seed;
+        private BiomeHolder holder;
+        private boolean built;
+        
+        private LastTile(BiomePipeline pipeline) {
+            this.pipeline = pipeline;
+        }
+        
+        @Override
+        public BiomeHolder apply(SeededVector key) {
+            built = true;
+            return pipeline.getBiomes(key.x, key.z, key.seed);
+        }
+    }
 }
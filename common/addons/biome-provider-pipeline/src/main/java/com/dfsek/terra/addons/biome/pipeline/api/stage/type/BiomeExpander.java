@@ -12,4 +12,21 @@ import com.dfsek.terra.addons.biome.pipeline.api.delegate.BiomeDelegate;
 
 public interface BiomeExpander {
     BiomeDelegate getBetween(double x, double z, long seed, BiomeDelegate... others);
+    
+    /**
+     * Chooses between the two biomes on either side of a new cell. Equivalent to the varargs overload; implementations should
+     * override it to avoid allocating an array per cell.
+     */
+    default BiomeDelegate getBetween(double x, double z, long seed, BiomeDelegate a, BiomeDelegate b) {
+        return getBetween(x, z, seed, new BiomeDelegate[]{ a, b });
+    }
+    
+    /**
+     * Chooses between the four biomes around a new cell. Equivalent to the varargs overload; implementations should override it
+     * to avoid allocating an array per cell.
+     */
+    default BiomeDelegate getBetween(double x, double z, long seed, BiomeDelegate a, BiomeDelegate b, BiomeDelegate c,
+                                     BiomeDelegate d) {
+        return getBetween(x, z, seed, new BiomeDelegate[]{ a, b, c, d });
+    }
 }
@@ -18,10 +18,14 @@ public interface BiomeMutator {
         return biomes;
     }
     
+    /**
+     * View of the biomes around the point being mutated. View points may be moved and reused between points, so mutators must
+     * not keep them.
+     */
     class ViewPoint {
         private final BiomeHolder biomes;
-        private final int offX;
-        private final int offZ;
+        private int offX;
+        private int offZ;
         
         public ViewPoint(BiomeHolder biomes, int offX, int offZ) {
             this.biomes = biomes;
@@ -29,6 +33,10 @@ public interface BiomeMutator {
             this.offZ = offZ;
         }
         
+        public void moveTo(int offX, int offZ) {
+            this.offX = offX;
+            this.offZ = offZ;
+        }
         
         public BiomeDelegate getBiome(int x, int z) {
             return biomes.getBiomeRaw(x + offX, z + offZ);
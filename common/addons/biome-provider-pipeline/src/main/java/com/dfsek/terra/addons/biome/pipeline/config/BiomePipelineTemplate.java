@@ -17,6 +17,7 @@ import com.dfsek.terra.addons.biome.pipeline.BiomePipeline;
 import com.dfsek.terra.addons.biome.pipeline.BiomePipelineProvider;
 import com.dfsek.terra.addons.biome.pipeline.api.stage.Stage;
 import com.dfsek.terra.addons.biome.pipeline.source.BiomeSource;
+import com.dfsek.terra.api.Platform;
 import com.dfsek.terra.api.config.meta.Meta;
 import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
 
@@ -44,11 +45,17 @@ public class BiomePipelineTemplate extends BiomeProviderTemplate {
     @Description("A list of pipeline stages to apply to the result of #source")
     private @Meta List<@Meta Stage> stages;
     
+    private final Platform platform;
+    
+    public BiomePipelineTemplate(Platform platform) {
+        this.platform = platform;
+    }
+    
     @Override
     public BiomeProvider get() {
         BiomePipeline.BiomePipelineBuilder biomePipelineBuilder = new BiomePipeline.BiomePipelineBuilder(initialSize);
         stages.forEach(biomePipelineBuilder::addStage);
         BiomePipeline pipeline = biomePipelineBuilder.build(source);
-        return new BiomePipelineProvider(pipeline, resolution, blend, blendAmp);
+        return new BiomePipelineProvider(pipeline, resolution, blend, blendAmp, platform.getTerraConfig());
     }
 }
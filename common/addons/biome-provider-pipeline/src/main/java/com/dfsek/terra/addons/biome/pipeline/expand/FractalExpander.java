@@ -24,4 +24,20 @@ public class FractalExpander implements BiomeExpander {
     public BiomeDelegate getBetween(double x, double z, long seed, BiomeDelegate... others) {
         return others[MathUtil.normalizeIndex(sampler.noise(seed, x, z), others.length)];
     }
+    
+    @Override
+    public BiomeDelegate getBetween(double x, double z, long seed, BiomeDelegate a, BiomeDelegate b) {
+        return MathUtil.normalizeIndex(sampler.noise(seed, x, z), 2) == 0 ? a : b;
+    }
+    
+    @Override
+    public BiomeDelegate getBetween(double x, double z, long seed, BiomeDelegate a, BiomeDelegate b, BiomeDelegate c,
+                                    BiomeDelegate d) {
+        return switch(MathUtil.normalizeIndex(sampler.noise(seed, x, z), 4)) {
+            case 0 -> a;
+            case 1 -> b;
+            case 2 -> c;
+            default -> d;
+        };
+    }
 }
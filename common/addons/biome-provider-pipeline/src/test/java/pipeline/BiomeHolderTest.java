@@ -0,0 +1,173 @@
+package pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.dfsek.terra.addons.biome.pipeline.BiomeHolderImpl;
+import com.dfsek.terra.addons.biome.pipeline.BiomePipeline;
+import com.dfsek.terra.addons.biome.pipeline.api.BiomeHolder;
+import com.dfsek.terra.addons.biome.pipeline.api.delegate.BiomeDelegate;
+import com.dfsek.terra.addons.biome.pipeline.api.stage.type.BiomeExpander;
+import com.dfsek.terra.addons.biome.pipeline.expand.FractalExpander;
+import com.dfsek.terra.addons.biome.pipeline.source.BiomeSource;
+import com.dfsek.terra.addons.biome.pipeline.stages.ExpanderStage;
+import com.dfsek.terra.api.noise.NoiseSampler;
+import com.dfsek.terra.api.util.vector.Vector2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+public class BiomeHolderTest {
+    private static final long SEED = 2403;
+    private static final int INIT = 8;
+    private static final int EXPANSIONS = 3;
+    
+    private static final List<BiomeDelegate> BIOMES = List.of(BiomeDelegate.ephemeral("A"), BiomeDelegate.ephemeral("B"),
+                                                              BiomeDelegate.ephemeral("C"), BiomeDelegate.ephemeral("D"),
+                                                              BiomeDelegate.ephemeral("E"));
+    
+    /*
+     * Deterministic white noise in [-1, 1).
+     */
+    private static final NoiseSampler WHITE = new NoiseSampler() {
+        @Override
+        public double noise(long seed, double x, double y) {
+            long hash = seed * 0x9E3779B97F4A7C15L + Double.doubleToLongBits(x) * 0xC2B2AE3D27D4EB4FL + Double.doubleToLongBits(y);
+            hash ^= hash >>> 31;
+            hash *= 0xBF58476D1CE4E5B9L;
+            hash ^= hash >>> 29;
+            return (hash >>> 11) * 0x1.0p-52 - 1;
+        }
+        
+        @Override
+        public double noise(long seed, double x, double y, double z) {
+            return noise(seed, x, y + z * 31);
+        }
+    };
+    
+    private static final BiomeSource SOURCE = new BiomeSource() {
+        @Override
+        public BiomeDelegate getBiome(double x, double z, long seed) {
+            return BIOMES.get((int) ((WHITE.noise(seed + 7, x, z) + 1) / 2 * BIOMES.size()));
+        }
+        
+        @Override
+        public Iterable<BiomeDelegate> getBiomes() {
+            return BIOMES;
+        }
+    };
+    
+    /*
+     * The expansion of the two-dimensional grid the flat implementation replaced, calling the varargs getBetween as it did.
+     */
+    private static BiomeDelegate[][] legacyExpand(BiomeDelegate[][] old, Vector2.Mutable origin, BiomeExpander expander, long seed) {
+        int width = old.length;
+        int newWidth = width * 2 - 1;
+        BiomeDelegate[][] biomes = new BiomeDelegate[newWidth][newWidth];
+        for(int x = 0; x < width; x++) {
+            for(int z = 0; z < width; z++) {
+                biomes[x * 2][z * 2] = old[x][z];
+                if(z != width - 1)
+                    biomes[x * 2][z * 2 + 1] = expander.getBetween(x + origin.getX(), z + 1 + origin.getZ(), seed,
+                                                                   new BiomeDelegate[]{ old[x][z], old[x][z + 1] });
+                if(x != width - 1)
+                    biomes[x * 2 + 1][z * 2] = expander.getBetween(x + 1 + origin.getX(), z + origin.getZ(), seed,
+                                                                   new BiomeDelegate[]{ old[x][z], old[x + 1][z] });
+                if(x != width - 1 && z != width - 1)
+                    biomes[x * 2 + 1][z * 2 + 1] = expander.getBetween(x + 1 + origin.getX(), z + 1 + origin.getZ(), seed,
+                                                                       new BiomeDelegate[]{ old[x][z], old[x + 1][z + 1],
+                                                                                            old[x][z + 1], old[x + 1][z] });
+            }
+        }
+        origin.setX(origin.getX() * 2 - 1).setZ(origin.getZ() * 2 - 1);
+        return biomes;
+    }
+    
+    private static BiomeDelegate[][] legacyTile(int tileX, int tileZ, BiomeExpander expander) {
+        int width = INIT + 4;
+        Vector2.Mutable origin = Vector2.of(tileX * (INIT - 1), tileZ * (INIT - 1)).mutable();
+        BiomeDelegate[][] biomes = new BiomeDelegate[width][width];
+        for(int x = 0; x < width; x++) {
+            for(int z = 0; z < width; z++) {
+                biomes[x][z] = SOURCE.getBiome(origin.getX() + x, origin.getZ() + z, SEED);
+            }
+        }
+        for(int i = 0; i < EXPANSIONS; i++) {
+            biomes = legacyExpand(biomes, origin, expander, SEED);
+        }
+        return biomes;
+    }
+    
+    @Test
+    public void expansionMatchesLegacyGrid() {
+        BiomeExpander expander = new FractalExpander(WHITE);
+        BiomePipeline.BiomePipelineBuilder builder = new BiomePipeline.BiomePipelineBuilder(INIT);
+        for(int i = 0; i < EXPANSIONS; i++) builder.addStage(new ExpanderStage(expander));
+        BiomePipeline pipeline = builder.build(SOURCE);
+        
+        int offset = 2 << EXPANSIONS;
+        for(int tileX = -1; tileX <= 1; tileX++) {
+            for(int tileZ = -1; tileZ <= 1; tileZ++) {
+                BiomeDelegate[][] legacy = legacyTile(tileX, tileZ, expander);
+                BiomeHolder holder = pipeline.getBiomes(tileX, tileZ, SEED);
+                for(int x = 0; x < legacy.length; x++) {
+                    for(int z = 0; z < legacy.length; z++) {
+                        assertSame(legacy[x][z], holder.getBiomeRaw(x, z), "tile " + tileX + ", " + tileZ + " at " + x + ", " + z);
+                    }
+                }
+                assertSame(legacy[offset][offset], holder.getBiome(0, 0));
+                assertNull(holder.getBiomeRaw(legacy.length, 0));
+            }
+        }
+    }
+    
+    /*
+     * Every cell takes the biome of its neighbour at -1 in x. Mutators read the grid as it was before the stage, so this shifts
+     * the grid by one cell instead of smearing the first row across it.
+     */
+    @Test
+    public void mutatorsReadGridBeforeStage() {
+        BiomeHolderImpl holder = new BiomeHolderImpl(INIT, Vector2.of(0, 0).mutable());
+        holder.fill(SOURCE, SEED);
+        int width = INIT + 4;
+        BiomeDelegate[][] before = new BiomeDelegate[width][width];
+        for(int x = 0; x < width; x++) {
+            for(int z = 0; z < width; z++) {
+                before[x][z] = holder.getBiomeRaw(x, z);
+            }
+        }
+        
+        holder.mutate((viewPoint, x, z, seed) -> viewPoint.getBiome(-1, 0), SEED);
+        for(int x = 0; x < width; x++) {
+            for(int z = 0; z < width; z++) {
+                assertSame(x == 0 ? null : before[x - 1][z], holder.getBiomeRaw(x, z), "at " + x + ", " + z);
+            }
+        }
+    }
+    
+    @Test
+    public void releaseCopiesOutOfBorrowedArrays() {
+        int width = INIT + 4;
+        BiomeDelegate[] biomes = new BiomeDelegate[width * width];
+        BiomeDelegate[] buffer = new BiomeDelegate[width * width];
+        BiomeHolderImpl holder = new BiomeHolderImpl(INIT, Vector2.of(0, 0).mutable(), biomes, buffer);
+        holder.fill(SOURCE, SEED);
+        holder.mutate((viewPoint, x, z, seed) -> viewPoint.getBiome(0, 0), SEED); // leaves the grid in the other array
+        BiomeDelegate[] grid = new BiomeDelegate[width * width];
+        for(int i = 0; i < grid.length; i++) {
+            grid[i] = holder.getBiomeRaw(i / width, i % width);
+        }
+        
+        holder.release();
+        Arrays.fill(biomes, null);
+        Arrays.fill(buffer, null);
+        for(int i = 0; i < grid.length; i++) {
+            assertSame(grid[i], holder.getBiomeRaw(i / width, i % width));
+        }
+        assertEquals(width * width, Arrays.stream(grid).filter(BIOMES::contains).count());
+    }
+}
@@ -0,0 +1,282 @@
+package pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dfsek.terra.addons.biome.pipeline.BiomePipeline;
+import com.dfsek.terra.addons.biome.pipeline.BiomePipelineProvider;
+import com.dfsek.terra.addons.biome.pipeline.api.delegate.BiomeDelegate;
+import com.dfsek.terra.addons.biome.pipeline.expand.FractalExpander;
+import com.dfsek.terra.addons.biome.pipeline.source.BiomeSource;
+import com.dfsek.terra.addons.biome.pipeline.stages.ExpanderStage;
+import com.dfsek.terra.api.Platform;
+import com.dfsek.terra.api.config.PluginConfig;
+import com.dfsek.terra.api.noise.NoiseSampler;
+import com.dfsek.terra.api.properties.Context;
+import com.dfsek.terra.api.world.biome.Biome;
+import com.dfsek.terra.api.world.biome.PlatformBiome;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+public class BiomePipelineProviderTest {
+    private static final int INIT = 4; // tiles are 4 biomes wide, and built from a 8x8 grid including the border
+    private static final int GRID = (INIT + 4) * (INIT + 4);
+    
+    private static BiomePipelineProvider provider(CountingSource source, boolean prefetch) {
+        BiomePipeline pipeline = new BiomePipeline.BiomePipelineBuilder(INIT).build(source);
+        return new BiomePipelineProvider(pipeline, 1, NoiseSampler.zero(), 0, new Config(prefetch));
+    }
+    
+    @Test
+    public void hitsAndMisses() {
+        CountingSource source = new CountingSource(new TestBiome("A"));
+        BiomePipelineProvider provider = provider(source, false);
+        
+        provider.getBiome(0, 0, 0, 1);
+        assertEquals(0, provider.getHits());
+        assertEquals(1, provider.getMisses());
+        
+        provider.getBiome(3, 0, 2, 1); // same tile, remembered by the thread
+        assertEquals(1, provider.getHits());
+        assertEquals(1, provider.getMisses());
+        
+        provider.getBiome(10, 0, 10, 1); // tile 2, 2
+        assertEquals(1, provider.getHits());
+        assertEquals(2, provider.getMisses());
+        
+        provider.getBiome(0, 0, 0, 1); // back in the first tile, from the cache
+        assertEquals(2, provider.getHits());
+        assertEquals(2, provider.getMisses());
+        
+        provider.getBiome(0, 0, 0, 2); // another seed is another tile
+        assertEquals(2, provider.getHits());
+        assertEquals(3, provider.getMisses());
+        
+        assertEquals(3 * GRID, source.lookups.get()); // each tile was built exactly once
+    }
+    
+    @Test
+    public void providersDoNotShareTiles() {
+        Biome a = new TestBiome("A");
+        Biome b = new TestBiome("B");
+        BiomePipelineProvider first = provider(new CountingSource(a), false);
+        BiomePipelineProvider second = provider(new CountingSource(b), false);
+        for(int i = 0; i < 4; i++) {
+            assertSame(a, first.getBiome(1, 0, 1, 1));
+            assertSame(b, second.getBiome(1, 0, 1, 1));
+        }
+        assertEquals(1, first.getMisses());
+        assertEquals(1, second.getMisses());
+    }
+    
+    /*
+     * The last tile a thread used must not keep its provider, and with it the provider's cache, reachable.
+     */
+    @Test
+    public void lastTileDoesNotRetainProvider() throws InterruptedException {
+        BiomePipelineProvider provider = provider(new CountingSource(new TestBiome("A")), false);
+        provider.getBiome(0, 0, 0, 1);
+        WeakReference<BiomePipelineProvider> reference = new WeakReference<>(provider);
+        provider = null;
+        for(int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+    }
+    
+    @Test
+    public void prefetchBuildsNeighbours() throws InterruptedException {
+        CountingSource source = new CountingSource(new TestBiome("A"));
+        BiomePipelineProvider provider = provider(source, true);
+        
+        provider.getBiome(0, 0, 0, 1);
+        awaitMisses(provider, 9); // the tile and its eight neighbours
+        assertEquals(9 * GRID, source.lookups.get());
+        
+        long hits = provider.getHits();
+        provider.getBiome(-1, 0, 4, 1); // tile -1, 1
+        assertEquals(hits + 1, provider.getHits());
+        assertEquals(9, provider.getMisses());
+        
+        // Lookups answered from the cache don't prefetch.
+        Thread.sleep(100);
+        assertEquals(9, provider.getMisses());
+    }
+    
+    private static void awaitMisses(BiomePipelineProvider provider, long misses) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while(provider.getMisses() < misses && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(misses, provider.getMisses());
+    }
+    
+    /*
+     * getBiomes distorts coordinates in batches, in the same order as getBiome and with the same truncation to int, which this
+     * checks across tile borders and negative coordinates.
+     */
+    @Test
+    public void getBiomesMatchesGetBiome() {
+        List<BiomeDelegate> biomes = List.of(BiomeDelegate.from(new TestBiome("A")), BiomeDelegate.from(new TestBiome("B")),
+                                             BiomeDelegate.from(new TestBiome("C")));
+        BiomeSource source = new BiomeSource() {
+            @Override
+            public BiomeDelegate getBiome(double x, double z, long seed) {
+                return biomes.get(Math.floorMod((long) (x * 31 + z * 17 + seed), biomes.size()));
+            }
+            
+            @Override
+            public Iterable<BiomeDelegate> getBiomes() {
+                return biomes;
+            }
+        };
+        NoiseSampler wave = new NoiseSampler() {
+            @Override
+            public double noise(long seed, double x, double y) {
+                return Math.sin(x * 0.13 + seed) * Math.cos(y * 0.07);
+            }
+            
+            @Override
+            public double noise(long seed, double x, double y, double z) {
+                return noise(seed, x, z);
+            }
+        };
+        BiomePipeline pipeline = new BiomePipeline.BiomePipelineBuilder(INIT)
+                .addStage(new ExpanderStage(new FractalExpander(wave)))
+                .build(source);
+        BiomePipelineProvider provider = new BiomePipelineProvider(pipeline, 2, wave, 12.5, new Config(false));
+        
+        int x = -37;
+        int z = -21;
+        int width = 70;
+        int depth = 55;
+        Biome[] out = new Biome[width * depth];
+        provider.getBiomes(x, 0, z, width, depth, 5, out);
+        for(int i = 0; i < width; i++) {
+            for(int j = 0; j < depth; j++) {
+                assertSame(provider.getBiome(x + i, 0, z + j, 5), out[i * depth + j], "at " + (x + i) + ", " + (z + j));
+            }
+        }
+    }
+    
+    private static final class CountingSource implements BiomeSource {
+        private final BiomeDelegate biome;
+        private final AtomicInteger lookups = new AtomicInteger();
+        
+        private CountingSource(Biome biome) {
+            this.biome = BiomeDelegate.from(biome);
+        }
+        
+        @Override
+        public BiomeDelegate getBiome(double x, double z, long seed) {
+            lookups.incrementAndGet();
+            return biome;
+        }
+        
+        @Override
+        public Iterable<BiomeDelegate> getBiomes() {
+            return Set.of(biome);
+        }
+    }
+    
+    private record TestBiome(String id) implements Biome {
+        @Override
+        public String getID() {
+            return id;
+        }
+        
+        @Override
+        public PlatformBiome getPlatformBiome() {
+            return null;
+        }
+        
+        @Override
+        public int getColor() {
+            return 0;
+        }
+        
+        @Override
+        public Set<String> getTags() {
+            return Set.of();
+        }
+        
+        @Override
+        public Context getContext() {
+            return new Context();
+        }
+    }
+    
+    private record Config(boolean isPipelinePrefetch) implements PluginConfig {
+        @Override
+        public void load(Platform platform) {
+        }
+        
+        @Override
+        public boolean dumpDefaultConfig() {
+            return false;
+        }
+        
+        @Override
+        public boolean isDebugCommands() {
+            return false;
+        }
+        
+        @Override
+        public boolean isDebugProfiler() {
+            return false;
+        }
+        
+        @Override
+        public boolean isDebugScript() {
+            return false;
+        }
+        
+        @Override
+        public int getBiomeSearchResolution() {
+            return 4;
+        }
+        
+        @Override
+        public int getStructureCache() {
+            return 128;
+        }
+        
+        @Override
+        public int getSamplerCache() {
+            return 128;
+        }
+        
+        @Override
+        public int getMaxRecursion() {
+            return 1000;
+        }
+        
+        @Override
+        public int getProviderCache() {
+            return 128;
+        }
+        
+        @Override
+        public int getPipelineCache() {
+            return 128;
+        }
+        
+        @Override
+        public int getPipelineCacheExpiry() {
+            return 0;
+        }
+        
+        @Override
+        public boolean isVectorizeNoise() {
+            return false;
+        }
+    }
+}
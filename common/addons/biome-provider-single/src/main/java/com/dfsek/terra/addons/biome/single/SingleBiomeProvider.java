@@ -7,6 +7,7 @@
 
 package com.dfsek.terra.addons.biome.single;
 
+import java.util.Arrays;
 import java.util.Collections;
 
 import com.dfsek.terra.api.world.biome.Biome;
@@ -25,8 +26,18 @@ public class SingleBiomeProvider implements BiomeProvider {
         return biome;
     }
     
+    @Override
+    public void getBiomes(int x, int y, int z, int width, int depth, long seed, Biome[] out) {
+        Arrays.fill(out, 0, width * depth, biome);
+    }
+    
     @Override
     public Iterable<Biome> getBiomes() {
         return Collections.singleton(biome);
     }
+    
+    @Override
+    public boolean isYInvariant() {
+        return true;
+    }
 }
@@ -9,6 +9,8 @@ package com.dfsek.terra.addons.chunkgenerator;
 
 import com.dfsek.terra.addons.chunkgenerator.config.NoiseChunkGeneratorPackConfigTemplate;
 import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseConfigTemplate;
+import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseInterner;
+import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseProperties;
 import com.dfsek.terra.addons.chunkgenerator.config.palette.BiomePaletteTemplate;
 import com.dfsek.terra.addons.chunkgenerator.config.palette.SlantLayer;
 import com.dfsek.terra.addons.chunkgenerator.generation.NoiseChunkGenerator3D;
@@ -41,10 +43,13 @@ public class NoiseChunkGenerator3DAddon implements AddonInitializer {
                     event.getPack()
                          .getOrCreateRegistry(ChunkGeneratorProvider.class)
                          .register(addon.key("NOISE_3D"),
-                                   pack -> new NoiseChunkGenerator3D(platform, config.getElevationBlend(), config.getHorizontalRes(),
-                                                                     config.getVerticalRes()));
+                                   pack -> new NoiseChunkGenerator3D(platform, config.getElevationBlend(),
+                                                                     config.getTerrainHorizontalRes(), config.getTerrainVerticalRes(),
+                                                                     config.getHorizontalRes(), config.getVerticalRes(),
+                                                                     pack.getContext().get(BiomeNoiseInterner.class)));
                     event.getPack()
                          .applyLoader(SlantLayer.class, SlantLayer::new);
+                    event.getPack().getContext().put(new BiomeNoiseInterner());
                 })
                 .failThrough();
         
@@ -54,7 +59,9 @@ public class NoiseChunkGenerator3DAddon implements AddonInitializer {
                 .then(event -> {
                     if(event.is(Biome.class)) {
                         event.getLoadedObject(Biome.class).getContext().put(event.load(new BiomePaletteTemplate(platform)).get());
-                        event.getLoadedObject(Biome.class).getContext().put(event.load(new BiomeNoiseConfigTemplate()).get());
+                        BiomeNoiseInterner interner = event.getPack().getContext().get(BiomeNoiseInterner.class);
+                        BiomeNoiseProperties noiseProperties = interner.intern(event.load(new BiomeNoiseConfigTemplate()).get());
+                        event.getLoadedObject(Biome.class).getContext().put(noiseProperties);
                     }
                 })
                 .failThrough();
@@ -1,17 +1,26 @@
 package com.dfsek.terra.addons.chunkgenerator.config;
 
-import com.dfsek.tectonic.api.config.template.ConfigTemplate;
+import com.dfsek.tectonic.api.config.template.ValidatedConfigTemplate;
 import com.dfsek.tectonic.api.config.template.annotations.Default;
 import com.dfsek.tectonic.api.config.template.annotations.Value;
+import com.dfsek.tectonic.api.exception.ValidationException;
 
 import com.dfsek.terra.api.config.meta.Meta;
 
 
-public class NoiseChunkGeneratorPackConfigTemplate implements ConfigTemplate {
+public class NoiseChunkGeneratorPackConfigTemplate implements ValidatedConfigTemplate {
     @Value("blend.terrain.elevation")
     @Default
     private @Meta int elevationBlend = 4;
     
+    @Value("terrain.resolution.horizontal")
+    @Default
+    private @Meta int terrainHorizontalRes = 4;
+    
+    @Value("terrain.resolution.vertical")
+    @Default
+    private @Meta int terrainVerticalRes = 4;
+    
     @Value("carving.resolution.horizontal")
     @Default
     private @Meta int horizontalRes = 4;
@@ -24,6 +33,14 @@ public class NoiseChunkGeneratorPackConfigTemplate implements ConfigTemplate {
         return elevationBlend;
     }
     
+    public int getTerrainHorizontalRes() {
+        return terrainHorizontalRes;
+    }
+    
+    public int getTerrainVerticalRes() {
+        return terrainVerticalRes;
+    }
+    
     public int getHorizontalRes() {
         return horizontalRes;
     }
@@ -31,4 +48,12 @@ public class NoiseChunkGeneratorPackConfigTemplate implements ConfigTemplate {
     public int getVerticalRes() {
         return verticalRes;
     }
+    
+    @Override
+    public boolean validate() throws ValidationException {
+        if(terrainHorizontalRes < 1 || terrainHorizontalRes > 16 || Integer.bitCount(terrainHorizontalRes) != 1)
+            throw new ValidationException("Horizontal terrain resolution must be a power of 2 between 1 and 16: " + terrainHorizontalRes);
+        if(terrainVerticalRes < 1) throw new ValidationException("Vertical terrain resolution must be positive: " + terrainVerticalRes);
+        return true;
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.chunkgenerator.config.noise;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.dfsek.terra.api.noise.NoiseSampler;
+import com.dfsek.terra.api.properties.Properties;
+
+
+/**
+ * Canonicalises the noise properties of a pack's biomes, so that structurally equal samplers and properties loaded by
+ * different biomes share a single instance.
+ * <p>
+ * Generation relies on this to compare samplers by reference.
+ */
+public class BiomeNoiseInterner implements Properties {
+    // Number of seeds whose bound samplers are kept; a pack is rarely used by more worlds at once than this.
+    private static final int BOUND_SEEDS = 8;
+    
+    private final Map<NoiseSampler, NoiseSampler> samplers = new ConcurrentHashMap<>();
+    private final Map<BiomeNoiseProperties, BiomeNoiseProperties> properties = new ConcurrentHashMap<>();
+    
+    /*
+     * Bound samplers of the most recently used seeds, least recently used first. The last seed looked up is also kept outside of
+     * the lock, as consecutive lookups are almost always for the same world.
+     */
+    private final Map<Long, Map<NoiseSampler, NoiseSampler>> bound = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Map<NoiseSampler, NoiseSampler>> eldest) {
+            return size() > BOUND_SEEDS;
+        }
+    };
+    private volatile Bound last;
+    
+    public BiomeNoiseProperties intern(BiomeNoiseProperties noiseProperties) {
+        BiomeNoiseProperties canonical = new BiomeNoiseProperties(intern(noiseProperties.base()),
+                                                                  intern(noiseProperties.elevation()),
+                                                                  intern(noiseProperties.carving()),
+                                                                  noiseProperties.blendDistance(),
+                                                                  noiseProperties.blendStep(),
+                                                                  noiseProperties.blendWeight(),
+                                                                  noiseProperties.elevationWeight());
+        BiomeNoiseProperties existing = properties.putIfAbsent(canonical, canonical);
+        return existing == null ? canonical : existing;
+    }
+    
+    public NoiseSampler intern(NoiseSampler sampler) {
+        NoiseSampler existing = samplers.putIfAbsent(sampler, sampler);
+        return existing == null ? sampler : existing;
+    }
+    
+    /**
+     * Get the furthest distance, in blocks, that any interned biome blends its base sampler over.
+     */
+    public int getBlendReach() {
+        int reach = 0;
+        for(BiomeNoiseProperties noiseProperties : properties.keySet()) {
+            reach = Math.max(reach, noiseProperties.blendDistance() * noiseProperties.blendStep());
+        }
+        return reach;
+    }
+    
+    /**
+     * Get every interned sampler bound to a world seed, keyed by identity of the interned sampler.
+     * <p>
+     * Must only be called once the pack has loaded, since samplers interned afterwards are not bound. Callers should fall back
+     * to the unbound sampler for any sampler missing from the map. Only the samplers of the last few seeds are kept, so the map
+     * of a seed that hasn't been used in a while may be bound again.
+     */
+    public Map<NoiseSampler, NoiseSampler> bind(long seed) {
+        Bound recent = last;
+        if(recent != null && recent.seed == seed) return recent.samplers;
+        
+        Map<NoiseSampler, NoiseSampler> map;
+        synchronized(bound) {
+            map = bound.computeIfAbsent(seed, s -> {
+                Map<NoiseSampler, NoiseSampler> bind = new IdentityHashMap<>();
+                samplers.values().forEach(sampler -> bind.put(sampler, sampler.bind(s)));
+                return Collections.unmodifiableMap(bind);
+            });
+        }
+        last = new Bound(seed, map);
+        return map;
+    }
+    
+    private record Bound(long seed, Map<NoiseSampler, NoiseSampler> samplers) {
+    }
+}
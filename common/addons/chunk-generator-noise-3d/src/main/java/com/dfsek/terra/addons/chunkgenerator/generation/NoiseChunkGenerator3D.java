@@ -11,8 +11,14 @@ package com.dfsek.terra.addons.chunkgenerator.generation;
 import net.jafama.FastMath;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseInterner;
 import com.dfsek.terra.addons.chunkgenerator.config.palette.PaletteInfo;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.BiomeGrid;
 import com.dfsek.terra.addons.chunkgenerator.generation.math.PaletteUtil;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.SurfaceCache;
 import com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation.LazilyEvaluatedInterpolator;
 import com.dfsek.terra.addons.chunkgenerator.generation.math.samplers.Sampler3D;
 import com.dfsek.terra.addons.chunkgenerator.generation.math.samplers.SamplerProvider;
@@ -27,22 +33,38 @@ import com.dfsek.terra.api.world.info.WorldProperties;
 
 
 public class NoiseChunkGenerator3D implements ChunkGenerator {
+    /**
+     * Margin by which interpolation cell bounds must clear 0 to decide a block without sampling, absorbing rounding error.
+     */
+    private static final double BOUND_MARGIN = 1.0E-6;
+    
     private final Platform platform;
     
     private final SamplerProvider samplerCache;
     
+    private final SurfaceCache surfaces;
+    
     private final BlockState air;
     
     private final int carverHorizontalResolution;
     private final int carverVerticalResolution;
     
-    public NoiseChunkGenerator3D(Platform platform, int elevationBlend, int carverHorizontalResolution,
-                                 int carverVerticalResolution) {
+    private final int terrainVerticalResolution;
+    
+    private final BiomeNoiseInterner interner;
+    
+    public NoiseChunkGenerator3D(Platform platform, int elevationBlend, int terrainHorizontalResolution,
+                                 int terrainVerticalResolution, int carverHorizontalResolution, int carverVerticalResolution,
+                                 BiomeNoiseInterner interner) {
         this.platform = platform;
         this.air = platform.getWorldHandle().air();
         this.carverHorizontalResolution = carverHorizontalResolution;
         this.carverVerticalResolution = carverVerticalResolution;
-        this.samplerCache = new SamplerProvider(platform, elevationBlend);
+        this.terrainVerticalResolution = terrainVerticalResolution;
+        this.interner = interner;
+        this.samplerCache = new SamplerProvider(platform, elevationBlend, terrainHorizontalResolution, terrainVerticalResolution,
+                                                interner);
+        this.surfaces = new SurfaceCache(platform.getTerraConfig().getSamplerCache());
     }
     
     @Override
@@ -54,18 +76,26 @@ public class NoiseChunkGenerator3D implements ChunkGenerator {
         int xOrig = (chunkX << 4);
         int zOrig = (chunkZ << 4);
         
-        Sampler3D sampler = samplerCache.getChunk(chunkX, chunkZ, world, biomeProvider);
-        
         long seed = world.getSeed();
         
-        LazilyEvaluatedInterpolator carver = new LazilyEvaluatedInterpolator(biomeProvider,
+        // Lattice columns of the carver reach up to one carver cell past the chunk.
+        BiomeGrid biomes = new BiomeGrid(biomeProvider, seed, chunkX, chunkZ,
+                                         FastMath.max(samplerCache.getPadding(), carverHorizontalResolution));
+        
+        Sampler3D sampler = samplerCache.getChunk(chunkX, chunkZ, world, biomes);
+        
+        LazilyEvaluatedInterpolator carver = new LazilyEvaluatedInterpolator(biomes,
                                                                              chunkX,
                                                                              chunkZ,
                                                                              world.getMaxHeight(),
                                                                              world.getMinHeight(),
                                                                              carverHorizontalResolution,
                                                                              carverVerticalResolution,
-                                                                             seed);
+                                                                             seed,
+                                                                             interner.bind(seed));
+        
+        int[] heights = surfaces.getChunk(seed, world.getMinHeight(), world.getMaxHeight(), chunkX, chunkZ);
+        double[] gradient = new double[3];
         for(int x = 0; x < 16; x++) {
             for(int z = 0; z < 16; z++) {
                 int paletteLevel = 0;
@@ -73,35 +103,178 @@ public class NoiseChunkGenerator3D implements ChunkGenerator {
                 int cx = xOrig + x;
                 int cz = zOrig + z;
                 
-                Biome biome = biomeProvider.getBiome(cx, 0, cz, seed);
-                
-                PaletteInfo paletteInfo = biome.getContext().get(PaletteInfo.class);
+                PaletteInfo paletteInfo = biomes.getPaletteInfo(x, z);
                 
                 int sea = paletteInfo.seaLevel();
                 Palette seaPalette = paletteInfo.ocean();
                 
-                BlockState data;
+                boolean mayCarve = carver.mayCarve(x, z);
+                
+                int highest = world.getMinHeight() - 1;
+                
+                // Consecutive blocks of the same state are written as one run.
+                BlockState run = null;
+                int runTop = 0;
                 for(int y = world.getMaxHeight() - 1; y >= world.getMinHeight(); y--) {
-                    if(sampler.sample(x, y, z) > 0) {
-                        if(carver.sample(x, y, z) <= 0) {
-                            data = PaletteUtil.getPalette(x, y, z, sampler, paletteInfo, paletteLevel).get(paletteLevel, cx, y, cz,
-                                                                                                           seed);
-                            chunk.setBlock(x, y, z, data);
+                    BlockState data = null;
+                    if(isSolid(sampler, x, y, z)) {
+                        if(y > highest) highest = y;
+                        if(!mayCarve || carver.sample(x, y, z) <= 0) {
+                            data = PaletteUtil.getPalette(x, y, z, sampler, paletteInfo, paletteLevel, gradient)
+                                              .get(paletteLevel, cx, y, cz, seed);
                         }
                         
                         paletteLevel++;
                     } else if(y <= sea) {
-                        chunk.setBlock(x, y, z, seaPalette.get(sea - y, x + xOrig, y, z + zOrig, seed));
+                        data = seaPalette.get(sea - y, x + xOrig, y, z + zOrig, seed);
                         paletteLevel = 0;
                     } else {
                         paletteLevel = 0;
                     }
+                    
+                    if(data != run) {
+                        if(run != null) chunk.setBlocks(x, z, y + 1, runTop, run);
+                        run = data;
+                        runTop = y + 1;
+                    }
                 }
+                if(run != null) chunk.setBlocks(x, z, world.getMinHeight(), runTop, run);
+                heights[(x << 4) | z] = highest;
             }
         }
         platform.getProfiler().pop("chunk_base_3d");
     }
     
+    private static boolean isSolid(Sampler3D sampler, int x, int y, int z) {
+        // Most cells deep underground or in open sky are decided by their bounds alone, without interpolating.
+        if(sampler.getMinimum(x, y, z) > BOUND_MARGIN) return true;
+        if(sampler.getMaximum(x, y, z) < -BOUND_MARGIN) return false;
+        return sampler.sample(x, y, z) > 0;
+    }
+    
+    /*
+     * Finds the highest solid block of a column, skipping interpolation cells that are entirely open without sampling them.
+     */
+    private int findHighestSolid(Sampler3D sampler, int x, int z, int minHeight, int maxHeight) {
+        int y = maxHeight - 1;
+        while(y >= minHeight) {
+            if(sampler.getMaximum(x, y, z) < -BOUND_MARGIN) {
+                // continue below the cell
+                y = minHeight + (y - minHeight) / terrainVerticalResolution * terrainVerticalResolution - 1;
+            } else if(isSolid(sampler, x, y, z)) {
+                return y;
+            } else {
+                y--;
+            }
+        }
+        return minHeight - 1;
+    }
+    
+    /*
+     * Gets the highest solid block of a column from the surface cache, searching the column if it isn't known yet.
+     */
+    private int getHighestSolid(Sampler3D sampler, long seed, int minHeight, int maxHeight, int x, int z) {
+        int fdX = FastMath.floorMod(x, 16);
+        int fdZ = FastMath.floorMod(z, 16);
+        int[] heights = surfaces.getChunk(seed, minHeight, maxHeight, FastMath.floorDiv(x, 16), FastMath.floorDiv(z, 16));
+        int index = (fdX << 4) | fdZ;
+        int highest = heights[index];
+        if(highest == SurfaceCache.UNKNOWN) {
+            highest = findHighestSolid(sampler, fdX, fdZ, minHeight, maxHeight);
+            heights[index] = highest;
+        }
+        return highest;
+    }
+    
+    /**
+     * Gets the height of a column by finding the surface of the terrain, remembered per column, and walking down from it.
+     * Palette levels are counted along the way, so the column is evaluated at most once. Like
+     * {@link #getBlock(WorldProperties, int, int, int, BiomeProvider)}, carving is not taken into account.
+     */
+    @Override
+    public int getHeight(WorldProperties world, int x, int z, BiomeProvider biomeProvider, Predicate<BlockState> predicate) {
+        int minHeight = world.getMinHeight();
+        int maxHeight = world.getMaxHeight();
+        if(predicate.test(air)) return maxHeight;
+        
+        long seed = world.getSeed();
+        Sampler3D sampler = samplerCache.get(x, z, world, biomeProvider);
+        
+        int fdX = FastMath.floorMod(x, 16);
+        int fdZ = FastMath.floorMod(z, 16);
+        
+        int highest = getHighestSolid(sampler, seed, minHeight, maxHeight, x, z);
+        
+        // Biomes are read per column, as in chunk generation.
+        PaletteInfo paletteInfo = biomeProvider.getBiome(x, 0, z, seed).getContext().get(PaletteInfo.class);
+        int sea = paletteInfo.seaLevel();
+        
+        double[] gradient = new double[3];
+        int paletteLevel = 0;
+        for(int y = FastMath.min(FastMath.max(highest, sea), maxHeight - 1); y >= minHeight; y--) {
+            BlockState data;
+            if(y <= highest && isSolid(sampler, fdX, y, fdZ)) {
+                data = PaletteUtil.getPalette(fdX, y, fdZ, sampler, paletteInfo, paletteLevel, gradient)
+                                  .get(paletteLevel, x, y, z, seed);
+                paletteLevel++;
+            } else if(y <= sea) {
+                data = paletteInfo.ocean().get(sea - y, x, y, z, seed);
+                paletteLevel = 0;
+            } else {
+                paletteLevel = 0;
+                continue; // air, which doesn't match
+            }
+            if(predicate.test(data)) return y + 1;
+        }
+        return minHeight;
+    }
+    
+    /**
+     * Computes a column in one pass down from the surface of the terrain, counting palette levels along the way. Like
+     * {@link #getBlock(WorldProperties, int, int, int, BiomeProvider)}, carving is not taken into account.
+     */
+    @Override
+    public void getColumn(WorldProperties world, int x, int z, BiomeProvider biomeProvider, BlockState[] column) {
+        int minHeight = world.getMinHeight();
+        int maxHeight = world.getMaxHeight();
+        long seed = world.getSeed();
+        Sampler3D sampler = samplerCache.get(x, z, world, biomeProvider);
+        
+        int fdX = FastMath.floorMod(x, 16);
+        int fdZ = FastMath.floorMod(z, 16);
+        
+        int highest = getHighestSolid(sampler, seed, minHeight, maxHeight, x, z);
+        
+        PaletteInfo paletteInfo = biomeProvider.getBiome(x, 0, z, seed).getContext().get(PaletteInfo.class);
+        int sea = paletteInfo.seaLevel();
+        
+        int top = FastMath.min(FastMath.max(highest, sea), maxHeight - 1);
+        Arrays.fill(column, top + 1 - minHeight, maxHeight - minHeight, air);
+        
+        double[] gradient = new double[3];
+        int paletteLevel = 0;
+        for(int y = top; y >= minHeight; y--) {
+            BlockState data;
+            if(y <= highest && isSolid(sampler, fdX, y, fdZ)) {
+                data = PaletteUtil.getPalette(fdX, y, fdZ, sampler, paletteInfo, paletteLevel, gradient)
+                                  .get(paletteLevel, x, y, z, seed);
+                paletteLevel++;
+            } else if(y <= sea) {
+                data = paletteInfo.ocean().get(sea - y, x, y, z, seed);
+                paletteLevel = 0;
+            } else {
+                data = air;
+                paletteLevel = 0;
+            }
+            column[y - minHeight] = data;
+        }
+    }
+    
+    /**
+     * Gets a single block. The palette level of a solid block is the number of solid blocks directly above it, which is counted
+     * upwards from the block and never past the remembered surface of the column, skipping interpolation cells that are
+     * entirely solid.
+     */
     @Override
     public BlockState getBlock(WorldProperties world, int x, int y, int z, BiomeProvider biomeProvider) {
         Biome biome = biomeProvider.getBiome(x, y, z, world.getSeed());
@@ -112,15 +285,26 @@ public class NoiseChunkGenerator3D implements ChunkGenerator {
         int fdX = FastMath.floorMod(x, 16);
         int fdZ = FastMath.floorMod(z, 16);
         
-        Palette palette = PaletteUtil.getPalette(fdX, y, fdZ, sampler, paletteInfo, 0);
-        double noise = sampler.sample(fdX, y, fdZ);
-        if(noise > 0) {
+        if(isSolid(sampler, fdX, y, fdZ)) {
+            int minHeight = world.getMinHeight();
+            int highest = getHighestSolid(sampler, world.getSeed(), minHeight, world.getMaxHeight(), x, z);
             int level = 0;
-            for(int yi = world.getMaxHeight() - 1; yi > y; yi--) {
-                if(sampler.sample(fdX, yi, fdZ) > 0) level++;
-                else level = 0;
+            int yi = y + 1;
+            while(yi <= highest) {
+                if(sampler.getMinimum(fdX, yi, fdZ) > BOUND_MARGIN) {
+                    int cellTop = minHeight + ((yi - minHeight) / terrainVerticalResolution + 1) * terrainVerticalResolution - 1;
+                    int top = FastMath.min(cellTop, highest);
+                    level += top - yi + 1;
+                    yi = top + 1;
+                } else if(sampler.sample(fdX, yi, fdZ) > 0) {
+                    level++;
+                    yi++;
+                } else {
+                    break;
+                }
             }
-            return palette.get(level, x, y, z, world.getSeed());
+            return PaletteUtil.getPalette(fdX, y, fdZ, sampler, paletteInfo, level, new double[3])
+                              .get(level, x, y, z, world.getSeed());
         } else if(y <= paletteInfo.seaLevel()) {
             return paletteInfo.ocean().get(paletteInfo.seaLevel() - y, x, y, z, world.getSeed());
         } else return air;
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.chunkgenerator.generation.math;
+
+import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseProperties;
+import com.dfsek.terra.addons.chunkgenerator.config.palette.PaletteInfo;
+import com.dfsek.terra.api.world.biome.Biome;
+import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
+
+
+/**
+ * The biomes of a chunk and a padded border around it, shared by everything that generates the chunk.
+ * <p>
+ * Columns are looked up from the biome provider the first time they are read and kept in flat arrays along with their
+ * properties, so each column is queried at most once per chunk. Coordinates are relative to the chunk origin; columns outside
+ * of the padding are still answered, but aren't kept.
+ */
+public class BiomeGrid {
+    private final BiomeProvider provider;
+    private final long seed;
+    private final int xOrigin;
+    private final int zOrigin;
+    private final int padding;
+    private final int width;
+    
+    private final Biome[] biomes;
+    private final BiomeNoiseProperties[] noiseProperties;
+    private final PaletteInfo[] paletteInfo;
+    
+    /**
+     * @param padding Number of columns to keep on every side of the chunk
+     */
+    public BiomeGrid(BiomeProvider provider, long seed, int chunkX, int chunkZ, int padding) {
+        this.provider = provider;
+        this.seed = seed;
+        this.xOrigin = chunkX << 4;
+        this.zOrigin = chunkZ << 4;
+        this.padding = padding;
+        this.width = 17 + 2 * padding; // up to and including the first column of the next chunk
+        
+        int size = width * width;
+        this.biomes = new Biome[size];
+        this.noiseProperties = new BiomeNoiseProperties[size];
+        this.paletteInfo = new PaletteInfo[size];
+    }
+    
+    /**
+     * Looks up every column of an area that will be read, at once. Parts of the area outside of the padding are ignored.
+     */
+    public void prefetch(int x, int z, int sizeX, int sizeZ) {
+        int x0 = Math.max(x, -padding);
+        int z0 = Math.max(z, -padding);
+        int x1 = Math.min(x + sizeX, width - padding);
+        int z1 = Math.min(z + sizeZ, width - padding);
+        if(x1 <= x0 || z1 <= z0) return;
+        
+        int areaDepth = z1 - z0;
+        Biome[] area = new Biome[(x1 - x0) * areaDepth];
+        provider.getBiomes(xOrigin + x0, 0, zOrigin + z0, x1 - x0, areaDepth, seed, area);
+        for(int xi = x0; xi < x1; xi++) {
+            for(int zi = z0; zi < z1; zi++) {
+                int index = index(xi, zi);
+                if(biomes[index] == null) biomes[index] = area[(xi - x0) * areaDepth + zi - z0];
+            }
+        }
+    }
+    
+    public Biome getBiome(int x, int z) {
+        int index = index(x, z);
+        if(index < 0) return provider.getBiome(xOrigin + x, 0, zOrigin + z, seed);
+        Biome biome = biomes[index];
+        if(biome == null) {
+            biome = provider.getBiome(xOrigin + x, 0, zOrigin + z, seed);
+            biomes[index] = biome;
+        }
+        return biome;
+    }
+    
+    public BiomeNoiseProperties getNoiseProperties(int x, int z) {
+        int index = index(x, z);
+        if(index < 0) return getBiome(x, z).getContext().get(BiomeNoiseProperties.class);
+        BiomeNoiseProperties properties = noiseProperties[index];
+        if(properties == null) {
+            properties = getBiome(x, z).getContext().get(BiomeNoiseProperties.class);
+            noiseProperties[index] = properties;
+        }
+        return properties;
+    }
+    
+    public PaletteInfo getPaletteInfo(int x, int z) {
+        int index = index(x, z);
+        if(index < 0) return getBiome(x, z).getContext().get(PaletteInfo.class);
+        PaletteInfo info = paletteInfo[index];
+        if(info == null) {
+            info = getBiome(x, z).getContext().get(PaletteInfo.class);
+            paletteInfo[index] = info;
+        }
+        return info;
+    }
+    
+    /*
+     * Index of a column in the arrays, or -1 if it lies outside of the padding.
+     */
+    private int index(int x, int z) {
+        int xi = x + padding;
+        int zi = z + padding;
+        if(xi < 0 || zi < 0 || xi >= width || zi >= width) return -1;
+        return xi * width + zi;
+    }
+}
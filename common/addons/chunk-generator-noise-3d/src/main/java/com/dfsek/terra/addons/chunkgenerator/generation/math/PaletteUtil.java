@@ -15,14 +15,12 @@ import com.dfsek.terra.api.world.chunk.generation.util.Palette;
 
 public final class PaletteUtil {
     /**
-     * Derivative constant.
+     * @param gradient Scratch array of length at least 3, owned by the caller so that it can be reused across blocks.
      */
-    private static final double DERIVATIVE_DIST = 0.55;
-    
-    public static Palette getPalette(int x, int y, int z, Sampler3D sampler, PaletteInfo paletteInfo, int depth) {
+    public static Palette getPalette(int x, int y, int z, Sampler3D sampler, PaletteInfo paletteInfo, int depth, double[] gradient) {
         SlantHolder slant = paletteInfo.slantHolder();
         if(!slant.isEmpty() && depth <= paletteInfo.maxSlantDepth()) {
-            double slope = derivative(sampler, x, y, z);
+            double slope = derivative(sampler, x, y, z, gradient);
             if(slope > slant.getMinSlope()) {
                 return slant.getPalette(slope).getPalette(y);
             }
@@ -31,16 +29,13 @@ public final class PaletteUtil {
         return paletteInfo.paletteHolder().getPalette(y);
     }
     
-    public static double derivative(Sampler3D sampler, double x, double y, double z) {
-        double baseSample = sampler.sample(x, y, z);
-        
-        double xVal1 = (sampler.sample(x + DERIVATIVE_DIST, y, z) - baseSample) / DERIVATIVE_DIST;
-        double xVal2 = (sampler.sample(x - DERIVATIVE_DIST, y, z) - baseSample) / DERIVATIVE_DIST;
-        double zVal1 = (sampler.sample(x, y, z + DERIVATIVE_DIST) - baseSample) / DERIVATIVE_DIST;
-        double zVal2 = (sampler.sample(x, y, z - DERIVATIVE_DIST) - baseSample) / DERIVATIVE_DIST;
-        double yVal1 = (sampler.sample(x, y + DERIVATIVE_DIST, z) - baseSample) / DERIVATIVE_DIST;
-        double yVal2 = (sampler.sample(x, y - DERIVATIVE_DIST, z) - baseSample) / DERIVATIVE_DIST;
+    /**
+     * @param gradient Scratch array of length at least 3 to compute the gradient of the sampler in.
+     */
+    public static double derivative(Sampler3D sampler, int x, int y, int z, double[] gradient) {
+        sampler.gradient(x, y, z, gradient);
         
-        return Math.sqrt(((xVal2 - xVal1) * (xVal2 - xVal1)) + ((zVal2 - zVal1) * (zVal2 - zVal1)) + ((yVal2 - yVal1) * (yVal2 - yVal1)));
+        // Scaled to match the slopes produced by the finite-difference estimate this replaced.
+        return 2 * Math.sqrt(gradient[0] * gradient[0] + gradient[1] * gradient[1] + gradient[2] * gradient[2]);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.chunkgenerator.generation.math;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+
+/**
+ * Bounded, concurrent cache of the highest solid block of each column of terrain, kept per chunk and keyed by world.
+ * <p>
+ * Heights are written both when chunks are generated and when columns are searched for height queries. A column always has
+ * the same height in the same world, so racing writes of a column are harmless.
+ */
+public class SurfaceCache {
+    /**
+     * Height of columns that haven't been recorded yet.
+     */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private final Cache<Key, int[]> cache;
+
+    public SurfaceCache(long maximumSize) {
+        this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Gets the heights of the columns of a chunk, indexed by {@code (x << 4) | z}. Columns that haven't been recorded yet are
+     * {@link #UNKNOWN}; the highest solid block of a column without any is one below the minimum height.
+     */
+    public int[] getChunk(long seed, int minHeight, int maxHeight, int chunkX, int chunkZ) {
+        try {
+            return cache.get(new Key(seed, minHeight, maxHeight, chunkX, chunkZ), () -> {
+                int[] heights = new int[256];
+                Arrays.fill(heights, UNKNOWN);
+                return heights;
+            });
+        } catch(ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private record Key(long seed, int minHeight, int maxHeight, int chunkX, int chunkZ) {
+    }
+}
@@ -9,12 +9,16 @@ package com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation;
 
 import net.jafama.FastMath;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseProperties;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.BiomeGrid;
+import com.dfsek.terra.api.noise.NoiseSampler;
 import com.dfsek.terra.api.util.mutable.MutableInteger;
-import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
+
+import static com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation.Interpolator.lerp;
 
 
 /**
@@ -22,100 +26,141 @@ import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
  * Contains method to get interpolated noise at a coordinate within the chunk.
  */
 public class ChunkInterpolator {
-    private final Interpolator3[][][] interpGrid;
+    /*
+     * width x width columns of lattice points, horizontalRes blocks apart horizontally and verticalRes blocks apart vertically,
+     * stored column-major so that each column is contiguous: the point at lattice coordinates (x, y, z) lives at
+     * (x * width + z) * columnLength + y.
+     */
+    private final double[] lattice;
+    private final int columnLength;
+    private final int width;
+    private final int horizontalRes;
+    private final int verticalRes;
     private final long seed;
+    private final Map<NoiseSampler, NoiseSampler> bound;
     
     private final int min;
     private final int max;
     
+    // Coordinates of a lattice column and the noise of one generator along it, reused for every column.
+    private final double[] columnX;
+    private final double[] columnY;
+    private final double[] columnZ;
+    private final double[] columnNoise;
+    
     /**
      * Instantiates a 3D ChunkInterpolator3D at a pair of chunk coordinates.
      *
      * @param chunkX   X coordinate of the chunk.
      * @param chunkZ   Z coordinate of the chunk.
-     * @param provider Biome Provider to use for biome fetching.
+     * @param biomes   Biomes of the chunk.
      * @param min
      * @param max
+     * @param horizontalRes Horizontal distance between lattice points, a power of 2 no greater than 16.
+     * @param verticalRes   Vertical distance between lattice points.
+     * @param bound    Samplers bound to the seed, keyed by the sampler they were bound from.
+     * @param columns  Cache of the lattice columns shared with neighbouring chunks.
      */
-    public ChunkInterpolator(long seed, int chunkX, int chunkZ, BiomeProvider provider, int min, int max) {
+    public ChunkInterpolator(long seed, int chunkX, int chunkZ, BiomeGrid biomes, int min, int max, int horizontalRes,
+                             int verticalRes, Map<NoiseSampler, NoiseSampler> bound, LatticeColumnCache columns) {
         this.min = min;
         this.max = max;
         this.seed = seed;
+        this.bound = bound;
+        this.horizontalRes = horizontalRes;
+        this.verticalRes = verticalRes;
         
         int xOrigin = chunkX << 4;
         int zOrigin = chunkZ << 4;
         
-        int range = this.max - this.min + 1;
+        int cells = 16 / horizontalRes;
+        width = cells + 1;
         
-        int size = range >> 2;
+        int size = (this.max - this.min + verticalRes - 1) / verticalRes;
         
-        interpGrid = new Interpolator3[4][size][4];
+        columnLength = size + 1;
+        lattice = new double[width * width * columnLength];
         
-        double[][][] noiseStorage = new double[5][5][size + 1];
+        columnX = new double[columnLength];
+        columnY = new double[columnLength];
+        columnZ = new double[columnLength];
+        columnNoise = new double[columnLength];
+        for(int y = 0; y < columnLength; y++) {
+            columnY[y] = y * verticalRes + this.min;
+        }
         
-        for(int x = 0; x < 5; x++) {
-            for(int z = 0; z < 5; z++) {
-                BiomeNoiseProperties generationSettings = provider.getBiome(xOrigin + (x << 2), 0, zOrigin + (z << 2), seed)
-                                                                  .getContext()
-                                                                  .get(BiomeNoiseProperties.class);
-                Map<BiomeNoiseProperties, MutableInteger> genMap = new HashMap<>();
-                
-                int step = generationSettings.blendStep();
-                int blend = generationSettings.blendDistance();
-                
-                for(int xi = -blend; xi <= blend; xi++) {
-                    for(int zi = -blend; zi <= blend; zi++) {
-                        genMap.computeIfAbsent(
-                                provider.getBiome(xOrigin + (x << 2) + (xi * step), 0, zOrigin + (z << 2) + (zi * step), seed)
-                                        .getContext()
-                                        .get(BiomeNoiseProperties.class),
-                                g -> new MutableInteger(0)).increment(); // Increment by 1
-                    }
-                }
-                
-                for(int y = 0; y < size + 1; y++) {
-                    noiseStorage[x][z][y] = computeNoise(genMap, (x << 2) + xOrigin, (y << 2) + this.min, (z << 2) + zOrigin);
+        double[] column = new double[columnLength];
+        
+        for(int x = 0; x < width; x++) {
+            for(int z = 0; z < width; z++) {
+                int offset = (x * width + z) * columnLength;
+                int lx = x * horizontalRes;
+                int lz = z * horizontalRes;
+                if(x == 0 || x == cells || z == 0 || z == cells) { // edge columns are shared with the neighbouring chunks
+                    double[] shared = columns.get(seed, min, max, lx + xOrigin, lz + zOrigin, () -> {
+                        double[] computed = new double[columnLength];
+                        computeColumn(biomes, lx, lz, lx + xOrigin, lz + zOrigin, computed);
+                        return computed;
+                    });
+                    System.arraycopy(shared, 0, lattice, offset, columnLength);
+                } else {
+                    computeColumn(biomes, lx, lz, lx + xOrigin, lz + zOrigin, column);
+                    System.arraycopy(column, 0, lattice, offset, columnLength);
                 }
             }
         }
+    }
+    
+    private void computeColumn(BiomeGrid biomes, int x, int z, int worldX, int worldZ, double[] column) {
+        BiomeNoiseProperties generationSettings = biomes.getNoiseProperties(x, z);
+        // Samplers are interned at pack load, so biomes sharing a terrain sampler are blended as one generator.
+        Map<NoiseSampler, MutableInteger> genMap = new IdentityHashMap<>();
+        double div = 0;
         
-        for(int x = 0; x < 4; x++) {
-            for(int z = 0; z < 4; z++) {
-                for(int y = 0; y < size; y++) {
-                    interpGrid[x][y][z] = new Interpolator3(
-                            noiseStorage[x][z][y],
-                            noiseStorage[x + 1][z][y],
-                            noiseStorage[x][z][y + 1],
-                            noiseStorage[x + 1][z][y + 1],
-                            noiseStorage[x][z + 1][y],
-                            noiseStorage[x + 1][z + 1][y],
-                            noiseStorage[x][z + 1][y + 1],
-                            noiseStorage[x + 1][z + 1][y + 1]);
-                }
+        int step = generationSettings.blendStep();
+        int blend = generationSettings.blendDistance();
+        
+        for(int xi = -blend; xi <= blend; xi++) {
+            for(int zi = -blend; zi <= blend; zi++) {
+                BiomeNoiseProperties properties = biomes.getNoiseProperties(x + (xi * step), z + (zi * step));
+                genMap.computeIfAbsent(properties.base(), g -> new MutableInteger(0)).increment(); // Increment by 1
+                div += properties.blendWeight();
             }
         }
+        
+        computeNoise(genMap, div, worldX, worldZ, column);
     }
     
     private static int reRange(int value, int high) {
         return FastMath.max(FastMath.min(value, high), 0);
     }
     
-    public double computeNoise(BiomeNoiseProperties generationSettings, double x, double y, double z) {
-        return generationSettings.base().noise(seed, x, y, z);
-    }
-    
-    public double computeNoise(Map<BiomeNoiseProperties, MutableInteger> gens, double x, double y, double z) {
-        double n = 0;
-        double div = 0;
-        for(Map.Entry<BiomeNoiseProperties, MutableInteger> entry : gens.entrySet()) {
-            BiomeNoiseProperties gen = entry.getKey();
+    /**
+     * Computes a whole lattice column at once, evaluating each blended generator with a single batched call.
+     *
+     * @param gens   Generators to blend, and their weights
+     * @param div    Sum of the blend weights of all blended biomes
+     * @param x      X coordinate of the column
+     * @param z      Z coordinate of the column
+     * @param column Array of one value per lattice point, starting at the minimum height, to write the column into
+     */
+    private void computeNoise(Map<NoiseSampler, MutableInteger> gens, double div, double x, double z, double[] column) {
+        Arrays.fill(columnX, x);
+        Arrays.fill(columnZ, z);
+        
+        Arrays.fill(column, 0);
+        for(Map.Entry<NoiseSampler, MutableInteger> entry : gens.entrySet()) {
             int weight = entry.getValue().get();
-            double noise = computeNoise(gen, x, y, z);
+            bound.getOrDefault(entry.getKey(), entry.getKey()).noise(seed, columnX, columnY, columnZ, columnNoise);
             
-            n += noise * weight;
-            div += gen.blendWeight() * weight;
+            for(int y = 0; y < columnLength; y++) {
+                column[y] += columnNoise[y] * weight;
+            }
+        }
+        
+        for(int y = 0; y < columnLength; y++) {
+            column[y] /= div;
         }
-        return n / div;
     }
     
     /**
@@ -127,16 +172,95 @@ public class ChunkInterpolator {
      * @return double - The interpolated noise at the coordinates.
      */
     public double getNoise(double x, double y, double z) {
-        return interpGrid[reRange(((int) x) / 4, 3)][(FastMath.max(FastMath.min(((int) y), max), min) - min) / 4][reRange(((int) z) / 4,
-                                                                                                                          3)].trilerp(
-                (x % 4) / 4, (y % 4) / 4, (z % 4) / 4);
+        // Cells are counted from the minimum height; heights outside of the world are clamped to its top or bottom.
+        double height = FastMath.max(FastMath.min(y, max), min) - min;
+        int cell = FastMath.min(((int) height) / verticalRes, columnLength - 2);
+        return trilerp(reRange(((int) x) / horizontalRes, width - 2),
+                       cell,
+                       reRange(((int) z) / horizontalRes, width - 2),
+                       (x % horizontalRes) / horizontalRes,
+                       (height - cell * verticalRes) / verticalRes,
+                       (z % horizontalRes) / horizontalRes);
     }
     
     public double getNoise(int x, int y, int z) {
-        return interpGrid[x / 4][(y - min) / 4][z / 4].trilerp(
-                (double) (x & 3) / 4, // x & 3 == x % 4
-                (double) (y & 3) / 4, // x & 3 == x % 4
-                (double) (z & 3) / 4  // x & 3 == x % 4
-                                                              );
+        return trilerp(x / horizontalRes, (y - min) / verticalRes, z / horizontalRes,
+                       (double) (x % horizontalRes) / horizontalRes,
+                       (double) ((y - min) % verticalRes) / verticalRes,
+                       (double) (z % horizontalRes) / horizontalRes);
+    }
+    
+    /**
+     * Gets the gradient of the interpolated noise at a set of internal chunk coordinates.
+     *
+     * @param gradient Array of length at least 3 to write the partial derivatives along each axis into.
+     */
+    public void getGradient(int x, int y, int z, double[] gradient) {
+        int i000 = index(x / horizontalRes, (y - min) / verticalRes, z / horizontalRes);
+        int i100 = i000 + width * columnLength;
+        int i001 = i000 + columnLength;
+        int i101 = i100 + columnLength;
+        double tx = (double) (x % horizontalRes) / horizontalRes;
+        double ty = (double) ((y - min) % verticalRes) / verticalRes;
+        double tz = (double) (z % horizontalRes) / horizontalRes;
+        
+        double[] l = lattice;
+        double top = lerp(tz, lerp(ty, l[i000], l[i000 + 1]), lerp(ty, l[i001], l[i001 + 1]));
+        double bottom = lerp(tz, lerp(ty, l[i100], l[i100 + 1]), lerp(ty, l[i101], l[i101 + 1]));
+        
+        // Scale from lattice cells to blocks.
+        gradient[0] = (bottom - top) / horizontalRes;
+        gradient[1] = lerp(tx,
+                           lerp(tz, l[i000 + 1] - l[i000], l[i001 + 1] - l[i001]),
+                           lerp(tz, l[i100 + 1] - l[i100], l[i101 + 1] - l[i101])) / verticalRes;
+        gradient[2] = lerp(tx,
+                           lerp(ty, l[i001], l[i001 + 1]) - lerp(ty, l[i000], l[i000 + 1]),
+                           lerp(ty, l[i101], l[i101 + 1]) - lerp(ty, l[i100], l[i100 + 1])) / horizontalRes;
+    }
+    
+    /**
+     * Gets a lower bound of the interpolated noise within the interpolation cell containing a set of internal chunk coordinates.
+     */
+    public double getMinimum(int x, int y, int z) {
+        // Trilinear interpolation never leaves the range of the cell's corners.
+        int i000 = index(x / horizontalRes, (y - min) / verticalRes, z / horizontalRes);
+        int i100 = i000 + width * columnLength;
+        int i001 = i000 + columnLength;
+        int i101 = i100 + columnLength;
+        double[] l = lattice;
+        return FastMath.min(FastMath.min(FastMath.min(l[i000], l[i000 + 1]), FastMath.min(l[i001], l[i001 + 1])),
+                            FastMath.min(FastMath.min(l[i100], l[i100 + 1]), FastMath.min(l[i101], l[i101 + 1])));
+    }
+    
+    /**
+     * Gets an upper bound of the interpolated noise within the interpolation cell containing a set of internal chunk coordinates.
+     */
+    public double getMaximum(int x, int y, int z) {
+        int i000 = index(x / horizontalRes, (y - min) / verticalRes, z / horizontalRes);
+        int i100 = i000 + width * columnLength;
+        int i001 = i000 + columnLength;
+        int i101 = i100 + columnLength;
+        double[] l = lattice;
+        return FastMath.max(FastMath.max(FastMath.max(l[i000], l[i000 + 1]), FastMath.max(l[i001], l[i001 + 1])),
+                            FastMath.max(FastMath.max(l[i100], l[i100 + 1]), FastMath.max(l[i101], l[i101 + 1])));
+    }
+    
+    private int index(int x, int y, int z) {
+        return (x * width + z) * columnLength + y;
+    }
+    
+    /*
+     * Interpolates within the lattice cell whose lowest corner is at lattice coordinates (x, y, z), in the same order as the
+     * per-cell interpolators this replaced, so results are bit-identical.
+     */
+    private double trilerp(int x, int y, int z, double tx, double ty, double tz) {
+        int i000 = index(x, y, z);
+        int i100 = i000 + width * columnLength;
+        int i001 = i000 + columnLength;
+        int i101 = i100 + columnLength;
+        double[] l = lattice;
+        double top = lerp(tz, lerp(ty, l[i000], l[i000 + 1]), lerp(ty, l[i001], l[i001 + 1]));
+        double bottom = lerp(tz, lerp(ty, l[i100], l[i100 + 1]), lerp(ty, l[i101], l[i101 + 1]));
+        return lerp(tx, top, bottom);
     }
 }
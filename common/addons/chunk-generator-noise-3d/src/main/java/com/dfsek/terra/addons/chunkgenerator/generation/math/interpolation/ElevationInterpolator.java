@@ -7,61 +7,119 @@
 
 package com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseProperties;
-import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.BiomeGrid;
+import com.dfsek.terra.api.noise.NoiseSampler;
 
 
 public class ElevationInterpolator {
     private final double[][] values = new double[18][18];
     
-    public ElevationInterpolator(long seed, int chunkX, int chunkZ, BiomeProvider provider, int smooth) {
+    public ElevationInterpolator(long seed, int chunkX, int chunkZ, BiomeGrid biomes, int smooth,
+                                 Map<NoiseSampler, NoiseSampler> bound) {
         int xOrigin = chunkX << 4;
         int zOrigin = chunkZ << 4;
         
-        BiomeNoiseProperties[][] gens = new BiomeNoiseProperties[18 + 2 * smooth][18 + 2 * smooth];
+        int size = 18 + 2 * smooth;
+        int window = 2 * smooth + 1;
+        
+        biomes.prefetch(-1 - smooth, -1 - smooth, size, size);
+        
+        // Distinct elevation samplers of the grid, and the one each cell uses.
+        // Samplers are interned, so referential equality is all we need to know.
+        List<NoiseSampler> distinct = new ArrayList<>();
+        int[] samplerIndices = new int[size * size];
+        double[] weights = new double[size * size];
+        int last = -1;
+        for(int x = 0; x < size; x++) {
+            for(int z = 0; z < size; z++) {
+                BiomeNoiseProperties gen = biomes.getNoiseProperties(x - 1 - smooth, z - 1 - smooth);
+                NoiseSampler elevation = gen.elevation();
+                if(last == -1 || distinct.get(last) != elevation) last = indexOf(distinct, elevation);
+                samplerIndices[x * size + z] = last;
+                weights[x * size + z] = gen.elevationWeight();
+            }
+        }
+        
+        int samplerCount = distinct.size();
+        NoiseSampler[] elevations = new NoiseSampler[samplerCount];
+        for(int i = 0; i < samplerCount; i++) {
+            NoiseSampler elevation = distinct.get(i);
+            elevations[i] = bound.getOrDefault(elevation, elevation);
+        }
+        
+        if(samplerCount == 1) { // no weighting needed anywhere!
+            for(int x = -1; x <= 16; x++) {
+                for(int z = -1; z <= 16; z++) {
+                    values[x + 1][z + 1] = elevations[0].noise(seed, xOrigin + x, zOrigin + z);
+                }
+            }
+            return;
+        }
         
-        // Precompute generators.
-        for(int x = -1 - smooth; x <= 16 + smooth; x++) {
-            for(int z = -1 - smooth; z <= 16 + smooth; z++) {
-                gens[x + 1 + smooth][z + 1 + smooth] = provider.getBiome(xOrigin + x, 0, zOrigin + z, seed).getContext().get(
-                        BiomeNoiseProperties.class);
+        // Summed-area tables of the cells using, and the weights of, each sampler, so the totals over any window are read with
+        // four lookups instead of walking the window.
+        int tableSize = size + 1;
+        int[][] counts = new int[samplerCount][tableSize * tableSize];
+        double[][] weightSums = new double[samplerCount][tableSize * tableSize];
+        for(int i = 0; i < samplerCount; i++) {
+            int[] count = counts[i];
+            double[] weightSum = weightSums[i];
+            for(int x = 0; x < size; x++) {
+                for(int z = 0; z < size; z++) {
+                    int cell = x * size + z;
+                    boolean uses = samplerIndices[cell] == i;
+                    int index = (x + 1) * tableSize + z + 1;
+                    count[index] = (uses ? 1 : 0) + count[index - tableSize] + count[index - 1] - count[index - tableSize - 1];
+                    weightSum[index] = (uses ? weights[cell] : 0) + weightSum[index - tableSize] + weightSum[index - 1] -
+                                       weightSum[index - tableSize - 1];
+                }
             }
         }
         
         for(int x = -1; x <= 16; x++) {
             for(int z = -1; z <= 16; z++) {
-                double noise = 0;
-                double div = 0;
-                
-                BiomeNoiseProperties center = gens[x + 1 + smooth][z + 1 + smooth];
-                boolean same = true;
+                // Corners of the window around the column in the tables.
+                int i00 = (x + 1) * tableSize + z + 1;
+                int i01 = i00 + window;
+                int i10 = i00 + window * tableSize;
+                int i11 = i10 + window;
                 
-                for(int xi = -smooth; xi <= smooth; xi++) {
-                    for(int zi = -smooth; zi <= smooth; zi++) {
-                        if(gens[x + 1 + smooth + xi][z + 1 + smooth + zi] !=
-                           center) { // test referential equality because thats all we need to know
-                            same = false;
-                            break;
-                        }
-                    }
+                int center = samplerIndices[(x + 1 + smooth) * size + z + 1 + smooth];
+                int[] centerCount = counts[center];
+                if(centerCount[i11] - centerCount[i01] - centerCount[i10] + centerCount[i00] == window * window) {
+                    values[x + 1][z + 1] = elevations[center].noise(seed, xOrigin + x, zOrigin + z); // no weighting needed!
+                    continue;
                 }
                 
-                if(same) {
-                    values[x + 1][z + 1] = center.elevation().noise(seed, xOrigin + x, zOrigin + z); // no weighting needed!
-                } else {
-                    for(int xi = -smooth; xi <= smooth; xi++) {
-                        for(int zi = -smooth; zi <= smooth; zi++) {
-                            BiomeNoiseProperties gen = gens[x + 1 + smooth + xi][z + 1 + smooth + zi];
-                            noise += gen.elevation().noise(seed, xOrigin + x, zOrigin + z) * gen.elevationWeight();
-                            div += gen.elevationWeight();
-                        }
-                    }
-                    values[x + 1][z + 1] = noise / div;
+                // Evaluate each sampler in the window once, weighted by the total weight of the cells using it.
+                double noise = 0;
+                double div = 0;
+                for(int i = 0; i < samplerCount; i++) {
+                    int[] count = counts[i];
+                    if(count[i11] - count[i01] - count[i10] + count[i00] == 0) continue;
+                    double[] weightSum = weightSums[i];
+                    double weight = weightSum[i11] - weightSum[i01] - weightSum[i10] + weightSum[i00];
+                    noise += elevations[i].noise(seed, xOrigin + x, zOrigin + z) * weight;
+                    div += weight;
                 }
+                values[x + 1][z + 1] = noise / div;
             }
         }
     }
     
+    private static int indexOf(List<NoiseSampler> distinct, NoiseSampler sampler) {
+        for(int i = 0; i < distinct.size(); i++) {
+            if(distinct.get(i) == sampler) return i;
+        }
+        distinct.add(sampler);
+        return distinct.size() - 1;
+    }
+    
     public double getElevation(int x, int z) {
         return values[x + 1][z + 1];
     }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+
+/**
+ * Bounded, concurrent cache of blended base noise lattice columns, keyed by world and world coordinates of the column.
+ * <p>
+ * Neighbouring chunks share the lattice columns along their common edges, so each of those columns is computed once and reused
+ * by up to four chunks. Cached columns must not be modified.
+ */
+public class LatticeColumnCache {
+    private final Cache<Key, double[]> cache;
+    
+    public LatticeColumnCache(long maximumSize) {
+        this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+    
+    public double[] get(long seed, int minHeight, int maxHeight, int x, int z, Callable<double[]> loader) {
+        try {
+            return cache.get(new Key(seed, minHeight, maxHeight, x, z), loader);
+        } catch(ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    private record Key(long seed, int minHeight, int maxHeight, int x, int z) {
+    }
+}
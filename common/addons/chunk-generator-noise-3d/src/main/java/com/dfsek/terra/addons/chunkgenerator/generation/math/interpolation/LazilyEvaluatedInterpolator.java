@@ -2,17 +2,34 @@ package com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation;
 
 import net.jafama.FastMath;
 
-import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseProperties;
+import java.util.Arrays;
+import java.util.Map;
+
+import com.dfsek.terra.addons.chunkgenerator.generation.math.BiomeGrid;
 import com.dfsek.terra.api.noise.NoiseSampler;
-import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
 
 import static com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation.Interpolator.lerp;
 
 
 public class LazilyEvaluatedInterpolator {
-    private final Double[][][] samples;
+    /*
+     * Lattice samples, stored so that each vertical column is contiguous: the point at lattice coordinates (x, y, z) lives at
+     * (x * hSize + z) * vSize + y. NaN marks points that haven't been sampled yet.
+     */
+    private final double[] samples;
+    
+    /*
+     * Carving sampler of each lattice column, at x * hSize + z.
+     */
+    private final NoiseSampler[] samplers;
     
-    private final NoiseSampler[][] samplers;
+    /*
+     * Upper bound of the carving sampler of each lattice column, at x * hSize + z.
+     */
+    private final double[] maxima;
+    
+    private final int hSize;
+    private final int vSize;
     
     private final int chunkX;
     private final int chunkZ;
@@ -20,65 +37,153 @@ public class LazilyEvaluatedInterpolator {
     private final int horizontalRes;
     private final int verticalRes;
     
-    private final BiomeProvider biomeProvider;
-    
     private final long seed;
     private final int min;
     
-    public LazilyEvaluatedInterpolator(BiomeProvider biomeProvider, int cx, int cz, int max, int min, int horizontalRes, int verticalRes,
-                                       long seed) {
+    // Scratch space for evaluating the missing corners of a cell in batches, indexed by batch size.
+    private final int[] pending = new int[8];
+    private final double[][] xs = new double[9][];
+    private final double[][] ys = new double[9][];
+    private final double[][] zs = new double[9][];
+    private final double[][] out = new double[9][];
+    
+    public LazilyEvaluatedInterpolator(BiomeGrid biomes, int cx, int cz, int max, int min, int horizontalRes, int verticalRes,
+                                       long seed, Map<NoiseSampler, NoiseSampler> bound) {
         int hSamples = FastMath.ceilToInt(16.0 / horizontalRes);
         int vSamples = FastMath.ceilToInt((double) (max - min) / verticalRes);
-        samples = new Double[hSamples + 1][vSamples + 1][hSamples + 1];
-        samplers = new NoiseSampler[hSamples + 1][hSamples + 1];
+        this.hSize = hSamples + 1;
+        this.vSize = vSamples + 1;
+        this.samples = new double[hSize * vSize * hSize];
+        Arrays.fill(samples, Double.NaN);
         this.chunkX = cx << 4;
         this.chunkZ = cz << 4;
         this.horizontalRes = horizontalRes;
         this.verticalRes = verticalRes;
-        this.biomeProvider = biomeProvider;
         this.seed = seed;
         this.min = min;
+        
+        this.samplers = new NoiseSampler[hSize * hSize];
+        this.maxima = new double[hSize * hSize];
+        for(int x = 0; x < hSize; x++) {
+            for(int z = 0; z < hSize; z++) {
+                NoiseSampler sampler = biomes.getNoiseProperties(x * horizontalRes, z * horizontalRes).carving();
+                samplers[x * hSize + z] = bound.getOrDefault(sampler, sampler);
+                maxima[x * hSize + z] = sampler.getMaximum();
+            }
+        }
+        
+        for(int i = 1; i < 9; i++) {
+            xs[i] = new double[i];
+            ys[i] = new double[i];
+            zs[i] = new double[i];
+            out[i] = new double[i];
+        }
     }
     
-    private double sample(int x, int y, int z, int ox, int oy, int oz) {
-        Double sample = samples[x][y][z];
-        if(sample == null) {
-            int xi = ox + chunkX;
-            int zi = oz + chunkZ;
+    private int index(int x, int y, int z) {
+        return (x * hSize + z) * vSize + y;
+    }
+    
+    /*
+     * Samples every point of the xCount * yCount * zCount block of lattice points starting at (x, y, z) that hasn't been
+     * sampled yet, evaluating points that share a carving sampler with one batched call.
+     */
+    private void fill(int x, int y, int z, int xCount, int yCount, int zCount) {
+        int missing = 0;
+        for(int xi = x; xi < x + xCount; xi++) {
+            for(int zi = z; zi < z + zCount; zi++) {
+                for(int yi = y; yi < y + yCount; yi++) {
+                    int index = index(xi, yi, zi);
+                    if(Double.isNaN(samples[index])) pending[missing++] = index;
+                }
+            }
+        }
+        
+        while(missing > 0) {
+            NoiseSampler sampler = samplers[pending[0] / vSize];
+            
+            int count = 0;
+            for(int i = 0; i < missing; i++) {
+                if(samplers[pending[i] / vSize] == sampler) count++;
+            }
             
-            NoiseSampler sampler = samplers[x][z];
-            if(sampler == null) {
-                sampler = biomeProvider.getBiome(xi, y, zi, seed).getContext().get(BiomeNoiseProperties.class).carving();
-                samplers[x][z] = sampler;
+            double[] batchX = xs[count];
+            double[] batchY = ys[count];
+            double[] batchZ = zs[count];
+            int batched = 0;
+            for(int i = 0; i < missing; i++) {
+                int index = pending[i];
+                int column = index / vSize;
+                if(samplers[column] != sampler) continue;
+                batchX[batched] = (column / hSize) * horizontalRes + chunkX;
+                batchY[batched] = (index % vSize) * verticalRes + min;
+                batchZ[batched] = (column % hSize) * horizontalRes + chunkZ;
+                batched++;
             }
             
-            sample = sampler.noise(seed, xi, oy, zi);
-            samples[x][y][z] = sample;
+            double[] results = out[count];
+            sampler.noise(seed, batchX, batchY, batchZ, results);
+            
+            // Store the batch, and move the points left for other samplers to the front.
+            int remaining = 0;
+            batched = 0;
+            for(int i = 0; i < missing; i++) {
+                int index = pending[i];
+                if(samplers[index / vSize] == sampler) {
+                    samples[index] = results[batched++];
+                } else {
+                    pending[remaining++] = index;
+                }
+            }
+            missing = remaining;
         }
-        return sample;
     }
     
+    /**
+     * Checks whether anything in a column may be carved, using the bounds of the carving samplers around it.
+     *
+     * @return {@code false} if {@link #sample(int, int, int)} is guaranteed to be at most 0 everywhere in the column.
+     */
+    public boolean mayCarve(int x, int z) {
+        int xIndex = x / horizontalRes;
+        int zIndex = z / horizontalRes;
+        return maxima[xIndex * hSize + zIndex] > 0 ||
+               maxima[(xIndex + 1) * hSize + zIndex] > 0 ||
+               maxima[xIndex * hSize + zIndex + 1] > 0 ||
+               maxima[(xIndex + 1) * hSize + zIndex + 1] > 0;
+    }
+    
+    /**
+     * Samples the carver at a block. Samples are only taken where the carver is asked for them; every corner of the block's
+     * carver cell that is still missing is evaluated at once.
+     */
     public double sample(int x, int y, int z) {
         int xIndex = x / horizontalRes;
         int yIndex = (y - min) / verticalRes;
         int zIndex = z / horizontalRes;
         
-        double sample_0_0_0 = sample(xIndex, yIndex, zIndex, x, y, z);
+        int xOffset = x % horizontalRes;
+        int yOffset = (y - min) % verticalRes;
+        int zOffset = z % horizontalRes;
         
-        boolean yRange = y % verticalRes == 0;
-        if(x % horizontalRes == 0 && yRange && z % horizontalRes == 0) { // we're at the sampling point
-            return sample_0_0_0;
+        int i000 = index(xIndex, yIndex, zIndex);
+        
+        if(xOffset == 0 && yOffset == 0 && zOffset == 0) { // we're at the sampling point
+            if(Double.isNaN(samples[i000])) fill(xIndex, yIndex, zIndex, 1, 1, 1);
+            return samples[i000];
         }
         
-        double sample_0_0_1 = sample(xIndex, yIndex, zIndex + 1, x, y, z + horizontalRes);
+        boolean yRange = yOffset == 0;
+        fill(xIndex, yIndex, zIndex, 2, yRange ? 1 : 2, 2);
         
-        double sample_1_0_0 = sample(xIndex + 1, yIndex, zIndex, x + horizontalRes, y, z);
-        double sample_1_0_1 = sample(xIndex + 1, yIndex, zIndex + 1, x + horizontalRes, y, z + horizontalRes);
+        int i100 = i000 + hSize * vSize;
+        int i001 = i000 + vSize;
+        int i101 = i100 + vSize;
         
-        double xFrac = (double) (x % horizontalRes) / horizontalRes;
-        double zFrac = (double) (z % horizontalRes) / horizontalRes;
-        double lerp_bottom_0 = lerp(zFrac, sample_0_0_0, sample_0_0_1);
-        double lerp_bottom_1 = lerp(zFrac, sample_1_0_0, sample_1_0_1);
+        double xFrac = (double) xOffset / horizontalRes;
+        double zFrac = (double) zOffset / horizontalRes;
+        double lerp_bottom_0 = lerp(zFrac, samples[i000], samples[i001]);
+        double lerp_bottom_1 = lerp(zFrac, samples[i100], samples[i101]);
         
         double lerp_bottom = lerp(xFrac, lerp_bottom_0, lerp_bottom_1);
         
@@ -86,18 +191,10 @@ public class LazilyEvaluatedInterpolator {
             return lerp_bottom;
         }
         
-        double yFrac = (double) FastMath.floorMod(y, verticalRes) / verticalRes;
-        
-        
-        double sample_0_1_0 = sample(xIndex, yIndex + 1, zIndex, x, y + verticalRes, z);
-        double sample_0_1_1 = sample(xIndex, yIndex + 1, zIndex + 1, x, y + verticalRes, z + horizontalRes);
-        
-        
-        double sample_1_1_0 = sample(xIndex + 1, yIndex + 1, zIndex, x + horizontalRes, y + verticalRes, z);
-        double sample_1_1_1 = sample(xIndex + 1, yIndex + 1, zIndex + 1, x + horizontalRes, y + verticalRes, z + horizontalRes);
+        double yFrac = (double) yOffset / verticalRes;
         
-        double lerp_top_0 = lerp(zFrac, sample_0_1_0, sample_0_1_1);
-        double lerp_top_1 = lerp(zFrac, sample_1_1_0, sample_1_1_1);
+        double lerp_top_0 = lerp(zFrac, samples[i000 + 1], samples[i001 + 1]);
+        double lerp_top_1 = lerp(zFrac, samples[i100 + 1], samples[i101 + 1]);
         
         double lerp_top = lerp(xFrac, lerp_top_0, lerp_top_1);
         
@@ -9,19 +9,24 @@ package com.dfsek.terra.addons.chunkgenerator.generation.math.samplers;
 
 import net.jafama.FastMath;
 
+import java.util.Map;
+
+import com.dfsek.terra.addons.chunkgenerator.generation.math.BiomeGrid;
 import com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation.ChunkInterpolator;
 import com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation.ElevationInterpolator;
-import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation.LatticeColumnCache;
+import com.dfsek.terra.api.noise.NoiseSampler;
 
 
 public class Sampler3D {
     private final ChunkInterpolator interpolator;
     private final ElevationInterpolator elevationInterpolator;
     
-    public Sampler3D(int x, int z, long seed, int minHeight, int maxHeight, BiomeProvider provider, int elevationSmooth) {
-        this.interpolator = new ChunkInterpolator(seed, x, z, provider,
-                                                  minHeight, maxHeight);
-        this.elevationInterpolator = new ElevationInterpolator(seed, x, z, provider, elevationSmooth);
+    public Sampler3D(int x, int z, long seed, int minHeight, int maxHeight, BiomeGrid biomes, int elevationSmooth,
+                     int horizontalRes, int verticalRes, Map<NoiseSampler, NoiseSampler> bound, LatticeColumnCache columns) {
+        this.interpolator = new ChunkInterpolator(seed, x, z, biomes,
+                                                  minHeight, maxHeight, horizontalRes, verticalRes, bound, columns);
+        this.elevationInterpolator = new ElevationInterpolator(seed, x, z, biomes, elevationSmooth, bound);
     }
     
     public double sample(double x, double y, double z) {
@@ -31,4 +36,30 @@ public class Sampler3D {
     public double sample(int x, int y, int z) {
         return interpolator.getNoise(x, y, z) + elevationInterpolator.getElevation(FastMath.roundToInt(x), FastMath.roundToInt(z));
     }
+    
+    /**
+     * Computes the gradient of the sampled terrain noise at a block.
+     *
+     * @param gradient Array of length at least 3 to write the partial derivatives along each axis into.
+     */
+    public void gradient(int x, int y, int z, double[] gradient) {
+        interpolator.getGradient(x, y, z, gradient);
+        // Elevation is sampled once per block, so take a central difference across neighbouring blocks.
+        gradient[0] += (elevationInterpolator.getElevation(x + 1, z) - elevationInterpolator.getElevation(x - 1, z)) / 2;
+        gradient[2] += (elevationInterpolator.getElevation(x, z + 1) - elevationInterpolator.getElevation(x, z - 1)) / 2;
+    }
+    
+    /**
+     * Gets a lower bound of {@link #sample(int, int, int)} for every block in the block's column that shares its interpolation cell.
+     */
+    public double getMinimum(int x, int y, int z) {
+        return interpolator.getMinimum(x, y, z) + elevationInterpolator.getElevation(x, z);
+    }
+    
+    /**
+     * Gets an upper bound of {@link #sample(int, int, int)} for every block in the block's column that shares its interpolation cell.
+     */
+    public double getMaximum(int x, int y, int z) {
+        return interpolator.getMaximum(x, y, z) + elevationInterpolator.getElevation(x, z);
+    }
 }
@@ -17,24 +17,63 @@
 
 package com.dfsek.terra.addons.chunkgenerator.generation.math.samplers;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.jafama.FastMath;
 
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
+import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseInterner;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.BiomeGrid;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation.LatticeColumnCache;
 import com.dfsek.terra.api.Platform;
 import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
 import com.dfsek.terra.api.world.info.WorldProperties;
 
 
+/**
+ * Creates and caches the samplers of chunks.
+ * <p>
+ * Samplers are kept in a direct-mapped table keyed on the world and chunk coordinates, which is read and written without
+ * locking; a sampler whose slot is taken by another chunk is evicted. The table has the configured sampler cache size rounded
+ * down to a power of two slots, so it never keeps more samplers than configured. Each thread also remembers the last sampler it
+ * used, as features and structures tend to query the same chunk many times in a row. Two threads missing the same chunk at once may both
+ * create its sampler, in which case either may be kept.
+ */
 public class SamplerProvider {
-    private final Cache<WorldContext, Sampler3D> cache;
+    private final AtomicReferenceArray<Entry> table;
+    private final int mask;
+    private final ThreadLocal<Entry> last = new ThreadLocal<>();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    private final LatticeColumnCache columns;
     private final int elevationSmooth;
+    private final int horizontalRes;
+    private final int verticalRes;
+    private final BiomeNoiseInterner interner;
     
-    public SamplerProvider(Platform platform, int elevationSmooth) {
+    public SamplerProvider(Platform platform, int elevationSmooth, int horizontalRes, int verticalRes, BiomeNoiseInterner interner) {
         this.elevationSmooth = elevationSmooth;
-        cache = CacheBuilder.newBuilder().maximumSize(platform.getTerraConfig().getSamplerCache()).build();
+        this.horizontalRes = horizontalRes;
+        this.verticalRes = verticalRes;
+        this.interner = interner;
+        int size = platform.getTerraConfig().getSamplerCache();
+        int slots = Integer.highestOneBit(Math.max(1, size));
+        this.table = new AtomicReferenceArray<>(slots);
+        this.mask = slots - 1;
+        // Shared lattice columns kept per cached chunk sampler: across an area of generated chunks n lattice cells wide, 2n - 1 of
+        // every n^2 lattice columns lie on a chunk edge.
+        int columnsPerChunk = 2 * (16 / horizontalRes);
+        columns = new LatticeColumnCache((long) size * columnsPerChunk);
+    }
+    
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
     }
     
     public Sampler3D get(int x, int z, WorldProperties world, BiomeProvider provider) {
@@ -44,16 +83,92 @@ public class SamplerProvider {
     }
     
     public Sampler3D getChunk(int cx, int cz, WorldProperties world, BiomeProvider provider) {
-        WorldContext context = new WorldContext(cx, cz, world.getSeed(), world.getMinHeight(), world.getMaxHeight());
-        try {
-            return cache.get(context,
-                             () -> new Sampler3D(context.cx, context.cz, context.seed, context.minHeight, context.maxHeight, provider,
-                                                 elevationSmooth));
-        } catch(ExecutionException e) {
-            throw new RuntimeException(e);
+        Sampler3D sampler = lookup(cx, cz, world);
+        if(sampler != null) return sampler;
+        return create(cx, cz, world, new BiomeGrid(provider, world.getSeed(), cx, cz, getPadding()));
+    }
+    
+    /**
+     * Gets the sampler of a chunk, reading biomes from a grid shared with the rest of the chunk's generation if it has to be
+     * created.
+     *
+     * @param biomes Biomes of the chunk, padded by at least {@link #getPadding()}
+     */
+    public Sampler3D getChunk(int cx, int cz, WorldProperties world, BiomeGrid biomes) {
+        Sampler3D sampler = lookup(cx, cz, world);
+        if(sampler != null) return sampler;
+        return create(cx, cz, world, biomes);
+    }
+    
+    private int slot(long seed, int cx, int cz) {
+        return (int) mix(seed ^ mix(((long) cx << 32) | (cz & 0xffffffffL))) & mask;
+    }
+    
+    private Sampler3D lookup(int cx, int cz, WorldProperties world) {
+        long seed = world.getSeed();
+        int minHeight = world.getMinHeight();
+        int maxHeight = world.getMaxHeight();
+        
+        Entry entry = last.get();
+        if(entry == null || !entry.is(cx, cz, seed, minHeight, maxHeight)) {
+            entry = table.get(slot(seed, cx, cz));
+            if(entry == null || !entry.is(cx, cz, seed, minHeight, maxHeight)) {
+                misses.increment();
+                return null;
+            }
+            last.set(entry);
         }
+        hits.increment();
+        return entry.sampler;
+    }
+    
+    private Sampler3D create(int cx, int cz, WorldProperties world, BiomeGrid biomes) {
+        long seed = world.getSeed();
+        Sampler3D sampler = new Sampler3D(cx, cz, seed, world.getMinHeight(), world.getMaxHeight(), biomes, elevationSmooth,
+                                          horizontalRes, verticalRes, interner.bind(seed), columns);
+        Entry entry = new Entry(cx, cz, seed, world.getMinHeight(), world.getMaxHeight(), sampler);
+        Entry replaced = table.getAndSet(slot(seed, cx, cz), entry);
+        if(replaced != null && !replaced.is(cx, cz, seed, entry.minHeight, entry.maxHeight)) evictions.increment();
+        last.set(entry);
+        return sampler;
+    }
+    
+    /**
+     * @return The number of samplers found in the cache.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    /**
+     * @return The number of samplers that had to be created.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    /**
+     * @return The number of samplers removed from the cache to make room for others.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+    
+    /**
+     * @return The number of columns around a chunk whose biomes are read to create its sampler.
+     */
+    public int getPadding() {
+        return Math.max(elevationSmooth + 1, interner.getBlendReach());
     }
     
-    private record WorldContext(int cx, int cz, long seed, int minHeight, int maxHeight) {
+    @Override
+    public String toString() {
+        return "SamplerProvider{hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "}";
+    }
+    
+    private record Entry(int cx, int cz, long seed, int minHeight, int maxHeight, Sampler3D sampler) {
+        private boolean is(int cx, int cz, long seed, int minHeight, int maxHeight) {
+            return this.cx == cx && this.cz == cz && this.seed == seed && this.minHeight == minHeight && this.maxHeight == maxHeight;
+        }
     }
 }
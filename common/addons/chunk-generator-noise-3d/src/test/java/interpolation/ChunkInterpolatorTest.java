@@ -0,0 +1,106 @@
+package interpolation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseProperties;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.BiomeGrid;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation.ChunkInterpolator;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation.LatticeColumnCache;
+import com.dfsek.terra.api.noise.NoiseSampler;
+import com.dfsek.terra.api.properties.Context;
+import com.dfsek.terra.api.world.biome.Biome;
+import com.dfsek.terra.api.world.biome.PlatformBiome;
+import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class ChunkInterpolatorTest {
+    private static final NoiseSampler TERRAIN = new NoiseSampler() {
+        @Override
+        public double noise(long seed, double x, double y) {
+            return noise(seed, x, 0, y);
+        }
+        
+        @Override
+        public double noise(long seed, double x, double y, double z) {
+            return Math.sin(x * 0.3 + seed) + Math.cos(y * 0.17) * Math.sin(z * 0.23);
+        }
+    };
+    
+    private static ChunkInterpolator interpolator(int min, int max) {
+        Biome biome = new Biome() {
+            private final Context context = new Context().put(new BiomeNoiseProperties(TERRAIN, TERRAIN, TERRAIN, 0, 1, 1, 1));
+            
+            @Override
+            public PlatformBiome getPlatformBiome() {
+                return null;
+            }
+            
+            @Override
+            public int getColor() {
+                return 0;
+            }
+            
+            @Override
+            public Set<String> getTags() {
+                return Set.of();
+            }
+            
+            @Override
+            public Context getContext() {
+                return context;
+            }
+            
+            @Override
+            public String getID() {
+                return "TEST";
+            }
+        };
+        BiomeProvider provider = new BiomeProvider() {
+            @Override
+            public Biome getBiome(int x, int y, int z, long seed) {
+                return biome;
+            }
+            
+            @Override
+            public Iterable<Biome> getBiomes() {
+                return Set.of(biome);
+            }
+        };
+        return new ChunkInterpolator(3, 1, -2, new BiomeGrid(provider, 3, 1, -2, 0), min, max, 4, 8, Map.of(),
+                                     new LatticeColumnCache(64));
+    }
+    
+    /*
+     * The double overload is what Sampler3D.sample(double...) uses, so it has to agree with the int overload the generator uses.
+     */
+    private static void assertOverloadsAgree(int min, int max) {
+        ChunkInterpolator interpolator = interpolator(min, max);
+        for(int x = 0; x < 16; x++) {
+            for(int z = 0; z < 16; z++) {
+                for(int y = min; y < max; y++) {
+                    assertEquals(interpolator.getNoise(x, y, z), interpolator.getNoise((double) x, (double) y, (double) z),
+                                 "at " + x + ", " + y + ", " + z);
+                }
+                // Heights outside of the world are clamped to it.
+                assertEquals(interpolator.getNoise(x, min, z), interpolator.getNoise(x, min - 100.0, z));
+                assertEquals(interpolator.getNoise((double) x, max, z), interpolator.getNoise(x, max + 100.0, z));
+            }
+        }
+    }
+    
+    @Test
+    public void overloadsAgreeAtNonAlignedHeights() {
+        assertOverloadsAgree(-61, 203); // the vertical resolution divides neither bound
+        assertOverloadsAgree(-59, 200); // nor the height of the world
+    }
+    
+    @Test
+    public void overloadsAgreeAtAlignedHeights() {
+        assertOverloadsAgree(-64, 320);
+    }
+}
@@ -0,0 +1,156 @@
+package interpolation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseProperties;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.BiomeGrid;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation.ElevationInterpolator;
+import com.dfsek.terra.api.noise.NoiseSampler;
+import com.dfsek.terra.api.properties.Context;
+import com.dfsek.terra.api.world.biome.Biome;
+import com.dfsek.terra.api.world.biome.PlatformBiome;
+import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class ElevationInterpolatorTest {
+    private static final long SEED = 7;
+    private static final int CHUNK_X = 2;
+    private static final int CHUNK_Z = -3;
+    
+    private static final NoiseSampler HILLS = sampler(0.11, 20);
+    private static final NoiseSampler PLAINS = sampler(0.05, 3);
+    private static final NoiseSampler MOUNTAINS = sampler(0.19, 60);
+    private static final NoiseSampler BOUND_MOUNTAINS = sampler(0.07, 45);
+    
+    // Biomes sharing a sampler with different weights, and a sampler that is bound to another.
+    private static final List<Biome> BIOMES = List.of(biome(HILLS, 1), biome(HILLS, 2.5), biome(PLAINS, 0.5), biome(MOUNTAINS, 3));
+    
+    private static final Map<NoiseSampler, NoiseSampler> BOUND = Map.of(MOUNTAINS, BOUND_MOUNTAINS);
+    
+    /*
+     * Patches of a few blocks, so windows see anything from one to all of the biomes.
+     */
+    private static final BiomeProvider PROVIDER = new BiomeProvider() {
+        @Override
+        public Biome getBiome(int x, int y, int z, long seed) {
+            int patch = Math.floorDiv(x, 5) * 7 + Math.floorDiv(z, 3) * 3 + Math.floorDiv(x + z, 11);
+            return BIOMES.get(Math.floorMod(patch, BIOMES.size()));
+        }
+        
+        @Override
+        public Iterable<Biome> getBiomes() {
+            return BIOMES;
+        }
+    };
+    
+    /*
+     * The weighted average from before the summed-area tables: every cell of the window evaluates its own sampler.
+     */
+    private static double reference(int x, int z, int smooth) {
+        int xOrigin = CHUNK_X << 4;
+        int zOrigin = CHUNK_Z << 4;
+        double noise = 0;
+        double div = 0;
+        for(int xi = -smooth; xi <= smooth; xi++) {
+            for(int zi = -smooth; zi <= smooth; zi++) {
+                BiomeNoiseProperties gen = PROVIDER.getBiome(xOrigin + x + xi, 0, zOrigin + z + zi, SEED)
+                                                   .getContext()
+                                                   .get(BiomeNoiseProperties.class);
+                NoiseSampler elevation = BOUND.getOrDefault(gen.elevation(), gen.elevation());
+                noise += elevation.noise(SEED, xOrigin + x, zOrigin + z) * gen.elevationWeight();
+                div += gen.elevationWeight();
+            }
+        }
+        return noise / div;
+    }
+    
+    @Test
+    public void matchesPerCellWeightedAverage() {
+        for(int smooth = 0; smooth <= 4; smooth++) {
+            ElevationInterpolator interpolator = new ElevationInterpolator(SEED, CHUNK_X, CHUNK_Z,
+                                                                           new BiomeGrid(PROVIDER, SEED, CHUNK_X, CHUNK_Z, smooth + 1),
+                                                                           smooth, BOUND);
+            for(int x = -1; x <= 16; x++) {
+                for(int z = -1; z <= 16; z++) {
+                    double expected = reference(x, z, smooth);
+                    // Weights are summed in a different order, so results may differ by rounding.
+                    assertEquals(expected, interpolator.getElevation(x, z), 1e-9 * Math.max(1, Math.abs(expected)),
+                                 "smooth " + smooth + " at " + x + ", " + z);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void singleSamplerIsNotWeighted() {
+        BiomeProvider provider = new BiomeProvider() {
+            @Override
+            public Biome getBiome(int x, int y, int z, long seed) {
+                return BIOMES.get(Math.floorMod(x + z, 2)); // both use HILLS
+            }
+            
+            @Override
+            public Iterable<Biome> getBiomes() {
+                return BIOMES.subList(0, 2);
+            }
+        };
+        ElevationInterpolator interpolator = new ElevationInterpolator(SEED, CHUNK_X, CHUNK_Z,
+                                                                       new BiomeGrid(provider, SEED, CHUNK_X, CHUNK_Z, 3), 2, Map.of());
+        for(int x = -1; x <= 16; x++) {
+            for(int z = -1; z <= 16; z++) {
+                assertEquals(HILLS.noise(SEED, (CHUNK_X << 4) + x, (CHUNK_Z << 4) + z), interpolator.getElevation(x, z));
+            }
+        }
+    }
+    
+    private static NoiseSampler sampler(double frequency, double amplitude) {
+        return new NoiseSampler() {
+            @Override
+            public double noise(long seed, double x, double y) {
+                return Math.sin(x * frequency + seed) * Math.cos(y * frequency * 1.3) * amplitude;
+            }
+            
+            @Override
+            public double noise(long seed, double x, double y, double z) {
+                return noise(seed, x, z);
+            }
+        };
+    }
+    
+    private static Biome biome(NoiseSampler elevation, double weight) {
+        Context context = new Context().put(new BiomeNoiseProperties(NoiseSampler.zero(), elevation, NoiseSampler.zero(), 0, 1, 1,
+                                                                     weight));
+        return new Biome() {
+            @Override
+            public PlatformBiome getPlatformBiome() {
+                return null;
+            }
+            
+            @Override
+            public int getColor() {
+                return 0;
+            }
+            
+            @Override
+            public Set<String> getTags() {
+                return Set.of();
+            }
+            
+            @Override
+            public Context getContext() {
+                return context;
+            }
+            
+            @Override
+            public String getID() {
+                return "TEST";
+            }
+        };
+    }
+}
@@ -0,0 +1,158 @@
+package interpolation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseProperties;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.BiomeGrid;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.interpolation.LazilyEvaluatedInterpolator;
+import com.dfsek.terra.api.noise.NoiseSampler;
+import com.dfsek.terra.api.properties.Context;
+import com.dfsek.terra.api.world.biome.Biome;
+import com.dfsek.terra.api.world.biome.PlatformBiome;
+import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class LazilyEvaluatedInterpolatorTest {
+    private static final long SEED = 11;
+    private static final int CHUNK_X = -2;
+    private static final int CHUNK_Z = 5;
+    private static final int MIN = -61;
+    private static final int MAX = 203;
+    private static final int HORIZONTAL_RES = 4;
+    private static final int VERTICAL_RES = 8;
+    
+    private static final NoiseSampler CAVES = sampler(0.21);
+    private static final NoiseSampler RAVINES = sampler(0.09);
+    
+    // Carving samplers alternate between lattice columns, so corners of a cell are evaluated in more than one batch.
+    private static final BiomeProvider PROVIDER = new BiomeProvider() {
+        private final List<Biome> biomes = List.of(biome(CAVES), biome(RAVINES));
+        
+        @Override
+        public Biome getBiome(int x, int y, int z, long seed) {
+            return biomes.get(Math.floorMod(Math.floorDiv(x, HORIZONTAL_RES) + Math.floorDiv(z, 2 * HORIZONTAL_RES), 2));
+        }
+        
+        @Override
+        public Iterable<Biome> getBiomes() {
+            return biomes;
+        }
+    };
+    
+    private static LazilyEvaluatedInterpolator interpolator() {
+        return new LazilyEvaluatedInterpolator(new BiomeGrid(PROVIDER, SEED, CHUNK_X, CHUNK_Z, 1), CHUNK_X, CHUNK_Z, MAX, MIN,
+                                               HORIZONTAL_RES, VERTICAL_RES, SEED, Map.of());
+    }
+    
+    /*
+     * The carving sampler of a lattice column, evaluated at a lattice point.
+     */
+    private static double lattice(int x, int y, int z) {
+        int blockX = (CHUNK_X << 4) + x * HORIZONTAL_RES;
+        int blockZ = (CHUNK_Z << 4) + z * HORIZONTAL_RES;
+        NoiseSampler carving = PROVIDER.getBiome(blockX, 0, blockZ, SEED).getContext().get(BiomeNoiseProperties.class).carving();
+        return carving.noise(SEED, blockX, y * VERTICAL_RES + MIN, blockZ);
+    }
+    
+    private static double lerp(double t, double a, double b) {
+        return a + t * (b - a);
+    }
+    
+    private static double expected(int x, int y, int z) {
+        int xi = x / HORIZONTAL_RES;
+        int yi = (y - MIN) / VERTICAL_RES;
+        int zi = z / HORIZONTAL_RES;
+        double xFrac = (double) (x % HORIZONTAL_RES) / HORIZONTAL_RES;
+        double yFrac = (double) ((y - MIN) % VERTICAL_RES) / VERTICAL_RES;
+        double zFrac = (double) (z % HORIZONTAL_RES) / HORIZONTAL_RES;
+        double bottom = lerp(xFrac, lerp(zFrac, lattice(xi, yi, zi), lattice(xi, yi, zi + 1)),
+                             lerp(zFrac, lattice(xi + 1, yi, zi), lattice(xi + 1, yi, zi + 1)));
+        if(yFrac == 0) return bottom;
+        double top = lerp(xFrac, lerp(zFrac, lattice(xi, yi + 1, zi), lattice(xi, yi + 1, zi + 1)),
+                          lerp(zFrac, lattice(xi + 1, yi + 1, zi), lattice(xi + 1, yi + 1, zi + 1)));
+        return lerp(yFrac, bottom, top);
+    }
+    
+    @Test
+    public void latticePointsAreSampledAtTheirOwnCoordinates() {
+        LazilyEvaluatedInterpolator interpolator = interpolator();
+        // Visit blocks between lattice points first, so lattice points are filled in by their neighbours' lookups.
+        for(int x = 15; x >= 0; x--) {
+            for(int z = 15; z >= 0; z--) {
+                for(int y = MAX - 1; y >= MIN; y--) {
+                    interpolator.sample(x, y, z);
+                }
+            }
+        }
+        for(int x = 0; x < 16; x += HORIZONTAL_RES) {
+            for(int z = 0; z < 16; z += HORIZONTAL_RES) {
+                for(int y = MIN; y < MAX; y += VERTICAL_RES) {
+                    assertEquals(lattice(x / HORIZONTAL_RES, (y - MIN) / VERTICAL_RES, z / HORIZONTAL_RES), interpolator.sample(x, y, z),
+                                 "at " + x + ", " + y + ", " + z);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void blocksInterpolateBetweenLatticePoints() {
+        LazilyEvaluatedInterpolator interpolator = interpolator();
+        for(int x = 0; x < 16; x++) {
+            for(int z = 0; z < 16; z++) {
+                for(int y = MIN; y < MAX; y++) {
+                    assertEquals(expected(x, y, z), interpolator.sample(x, y, z), 1e-12, "at " + x + ", " + y + ", " + z);
+                }
+            }
+        }
+    }
+    
+    private static NoiseSampler sampler(double frequency) {
+        return new NoiseSampler() {
+            @Override
+            public double noise(long seed, double x, double y) {
+                return noise(seed, x, 0, y);
+            }
+            
+            @Override
+            public double noise(long seed, double x, double y, double z) {
+                return Math.sin(x * frequency + seed) * Math.cos(y * frequency * 0.7) + Math.sin(z * frequency * 1.3);
+            }
+        };
+    }
+    
+    private static Biome biome(NoiseSampler carving) {
+        Context context = new Context().put(new BiomeNoiseProperties(NoiseSampler.zero(), NoiseSampler.zero(), carving, 0, 1, 1, 1));
+        return new Biome() {
+            @Override
+            public PlatformBiome getPlatformBiome() {
+                return null;
+            }
+            
+            @Override
+            public int getColor() {
+                return 0;
+            }
+            
+            @Override
+            public Set<String> getTags() {
+                return Set.of();
+            }
+            
+            @Override
+            public Context getContext() {
+                return context;
+            }
+            
+            @Override
+            public String getID() {
+                return "TEST";
+            }
+        };
+    }
+}
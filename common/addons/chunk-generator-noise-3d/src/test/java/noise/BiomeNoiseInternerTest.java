@@ -0,0 +1,48 @@
+package noise;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseInterner;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+public class BiomeNoiseInternerTest {
+    private static final NoiseSampler SAMPLER = new NoiseSampler() {
+        @Override
+        public double noise(long seed, double x, double y) {
+            return seed + x - y;
+        }
+        
+        @Override
+        public double noise(long seed, double x, double y, double z) {
+            return seed + x - y + z;
+        }
+    };
+    
+    @Test
+    public void keepsRecentSeedsOnly() {
+        BiomeNoiseInterner interner = new BiomeNoiseInterner();
+        NoiseSampler sampler = interner.intern(SAMPLER);
+        
+        Map<NoiseSampler, NoiseSampler> first = interner.bind(1);
+        assertEquals(1 + 2 - 3, first.get(sampler).noise(99, 2, 3));
+        assertSame(first, interner.bind(1));
+        
+        Map<NoiseSampler, NoiseSampler> second = interner.bind(2);
+        assertSame(first, interner.bind(1)); // still kept after another seed was bound
+        assertSame(second, interner.bind(2));
+        
+        for(long seed = 100; seed < 200; seed++) {
+            interner.bind(seed);
+        }
+        Map<NoiseSampler, NoiseSampler> rebound = interner.bind(1);
+        assertNotSame(first, rebound); // evicted, and bound again
+        assertEquals(1 + 2 - 3, rebound.get(sampler).noise(99, 2, 3));
+    }
+}
@@ -0,0 +1,163 @@
+package samplers;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Set;
+
+import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseInterner;
+import com.dfsek.terra.addons.chunkgenerator.config.noise.BiomeNoiseProperties;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.samplers.Sampler3D;
+import com.dfsek.terra.addons.chunkgenerator.generation.math.samplers.SamplerProvider;
+import com.dfsek.terra.api.Platform;
+import com.dfsek.terra.api.config.PluginConfig;
+import com.dfsek.terra.api.noise.NoiseSampler;
+import com.dfsek.terra.api.properties.Context;
+import com.dfsek.terra.api.world.biome.Biome;
+import com.dfsek.terra.api.world.biome.PlatformBiome;
+import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
+import com.dfsek.terra.api.world.info.WorldProperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class SamplerProviderTest {
+    private static final Biome BIOME = new Biome() {
+        private final Context context = new Context().put(
+                new BiomeNoiseProperties(NoiseSampler.zero(), NoiseSampler.zero(), NoiseSampler.zero(), 0, 1, 1, 1));
+        
+        @Override
+        public PlatformBiome getPlatformBiome() {
+            return null;
+        }
+        
+        @Override
+        public int getColor() {
+            return 0;
+        }
+        
+        @Override
+        public Set<String> getTags() {
+            return Set.of();
+        }
+        
+        @Override
+        public Context getContext() {
+            return context;
+        }
+        
+        @Override
+        public String getID() {
+            return "TEST";
+        }
+    };
+    
+    private static final BiomeProvider PROVIDER = new BiomeProvider() {
+        @Override
+        public Biome getBiome(int x, int y, int z, long seed) {
+            return BIOME;
+        }
+        
+        @Override
+        public Iterable<Biome> getBiomes() {
+            return Set.of(BIOME);
+        }
+    };
+    
+    /*
+     * Only the sampler cache size of the platform's configuration is read.
+     */
+    private static Platform platform(int samplerCache) {
+        PluginConfig config = (PluginConfig) Proxy.newProxyInstance(PluginConfig.class.getClassLoader(),
+                                                                    new Class<?>[]{ PluginConfig.class }, (proxy, method, args) -> {
+                    if(method.getName().equals("getSamplerCache")) return samplerCache;
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return (Platform) Proxy.newProxyInstance(Platform.class.getClassLoader(), new Class<?>[]{ Platform.class },
+                                                 (proxy, method, args) -> {
+                                                     if(method.getName().equals("getTerraConfig")) return config;
+                                                     throw new UnsupportedOperationException(method.getName());
+                                                 });
+    }
+    
+    private static WorldProperties world(long seed) {
+        return new WorldProperties() {
+            @Override
+            public long getSeed() {
+                return seed;
+            }
+            
+            @Override
+            public int getMaxHeight() {
+                return 64;
+            }
+            
+            @Override
+            public int getMinHeight() {
+                return 0;
+            }
+            
+            @Override
+            public Object getHandle() {
+                return null;
+            }
+        };
+    }
+    
+    private static SamplerProvider provider(int samplerCache) {
+        return new SamplerProvider(platform(samplerCache), 1, 4, 8, new BiomeNoiseInterner());
+    }
+    
+    @Test
+    public void countsHitsAndMisses() {
+        SamplerProvider provider = provider(16);
+        WorldProperties world = world(5);
+        
+        Sampler3D sampler = provider.getChunk(0, 0, world, PROVIDER);
+        assertEquals(0, provider.getHits());
+        assertEquals(1, provider.getMisses());
+        
+        assertSame(sampler, provider.getChunk(0, 0, world, PROVIDER));
+        assertSame(sampler, provider.get(15, 15, world, PROVIDER)); // another block of the same chunk
+        assertEquals(2, provider.getHits());
+        assertEquals(1, provider.getMisses());
+        
+        // The same chunk of a world with another seed is another sampler.
+        assertNotSame(sampler, provider.getChunk(0, 0, world(6), PROVIDER));
+        assertEquals(2, provider.getMisses());
+        assertEquals(0, provider.getEvictions());
+    }
+    
+    /*
+     * Samplers only ever leave the table by being evicted, so the number kept is the number created less the number evicted.
+     */
+    private static void assertKeepsAtMost(int samplerCache, int kept) {
+        SamplerProvider provider = provider(samplerCache);
+        WorldProperties world = world(5);
+        int chunks = 200;
+        for(int i = 0; i < chunks; i++) {
+            provider.getChunk(i % 20, i / 20, world, PROVIDER);
+        }
+        assertEquals(0, provider.getHits());
+        assertEquals(chunks, provider.getMisses());
+        long retained = provider.getMisses() - provider.getEvictions();
+        assertTrue(retained > 0 && retained <= kept, retained + " samplers kept with a cache of " + samplerCache);
+        
+        // Looking the chunks up again finds at most the samplers that were kept.
+        long hits = provider.getHits();
+        for(int i = 0; i < chunks; i++) {
+            provider.getChunk(i % 20, i / 20, world, PROVIDER);
+        }
+        assertTrue(provider.getHits() - hits <= kept);
+    }
+    
+    @Test
+    public void keepsNoMoreThanConfigured() {
+        assertKeepsAtMost(16, 16);
+        assertKeepsAtMost(24, 16); // rounded down to a power of two
+        assertKeepsAtMost(1, 1);
+    }
+}
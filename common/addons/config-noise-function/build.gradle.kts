@@ -9,8 +9,49 @@ dependencies {
     testImplementation("net.jafama", "jafama", Versions.Libraries.Internal.jafama)
 }
 
+// Vectorized samplers are kept in their own source set, so only they are compiled against the incubating Vector API.
+val vector: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+
+sourceSets.test {
+    runtimeClasspath += vector.output
+}
+
+tasks.named<JavaCompile>(vector.compileJavaTaskName) {
+    // Lint stays on; the one "using incubating module(s)" warning JDK 17 can't suppress comes from this source set alone.
+    options.compilerArgs.add("--add-modules=jdk.incubator.vector")
+}
+
+tasks.withType<Test>().configureEach {
+    jvmArgs("--add-modules=jdk.incubator.vector")
+}
+
+// JMH benchmarks comparing the vectorized samplers with the scalar ones. Run with the jmh task; JMH options can be passed with
+// --args, e.g. --args="-p type=VALUE".
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath + vector.output
+}
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh", "jmh-core", Versions.Libraries.Internal.jmh)
+    "jmhAnnotationProcessor"("org.openjdk.jmh", "jmh-generator-annprocess", Versions.Libraries.Internal.jmh)
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks."
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+}
+
+tasks.named<Jar>("jar") {
+    from(vector.output)
+}
 
 tasks.named<ShadowJar>("shadowJar") {
+    from(vector.output)
     relocate("com.dfsek.paralithic", "com.dfsek.terra.addons.noise.lib.paralithic")
     relocate("net.jafama", "com.dfsek.terra.addons.noise.lib.jafama")
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package noise;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.dfsek.terra.addons.noise.samplers.noise.NoiseFunction;
+import com.dfsek.terra.addons.noise.samplers.noise.value.ValueCubicSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.value.ValueSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.vector.VectorSupport;
+
+
+/**
+ * Batched VALUE and VALUE_CUBIC sampling, scalar against vectorized.
+ * <p>
+ * 3D batches are lattice columns like the ones the chunk generator samples: one x and z, and a run of heights. 2D batches are
+ * the same number of points along a row in x.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ValueNoiseBenchmark {
+    @Param({ "VALUE", "VALUE_CUBIC" })
+    private String type;
+    
+    @Param({ "scalar", "vector" })
+    private String implementation;
+    
+    @Param({ "2", "3" })
+    private int dimensions;
+    
+    @Param("97") // a 384 block high world at a vertical resolution of 4
+    private int batch;
+    
+    private NoiseFunction sampler;
+    private double[] xs;
+    private double[] ys;
+    private double[] zs;
+    private double[] out;
+    
+    @Setup
+    public void setup() {
+        boolean vector = implementation.equals("vector");
+        if(vector && !VectorSupport.isAvailable()) throw new IllegalStateException("The Vector API is not available");
+        sampler = switch(type) {
+            case "VALUE" -> vector ? VectorSupport.value().get() : new ValueSampler();
+            case "VALUE_CUBIC" -> vector ? VectorSupport.valueCubic().get() : new ValueCubicSampler();
+            default -> throw new IllegalArgumentException(type);
+        };
+        sampler.setFrequency(0.02);
+        
+        Random random = new Random(2403);
+        double x = random.nextInt(100000);
+        double z = random.nextInt(100000);
+        xs = new double[batch];
+        ys = new double[batch];
+        zs = new double[batch];
+        out = new double[batch];
+        for(int i = 0; i < batch; i++) {
+            xs[i] = dimensions == 2 ? x + i * 4 : x;
+            ys[i] = i * 4 - 64;
+            zs[i] = z;
+        }
+    }
+    
+    @Benchmark
+    public double[] sample() {
+        if(dimensions == 2) sampler.noise(42, xs, zs, out);
+        else sampler.noise(42, xs, ys, zs, out);
+        return out;
+    }
+}
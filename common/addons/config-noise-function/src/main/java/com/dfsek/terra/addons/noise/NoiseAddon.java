@@ -8,6 +8,8 @@
 package com.dfsek.terra.addons.noise;
 
 import com.dfsek.tectonic.api.config.template.object.ObjectTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -15,7 +17,10 @@ import java.util.function.Supplier;
 
 import com.dfsek.terra.addons.manifest.api.AddonInitializer;
 import com.dfsek.terra.addons.noise.config.DimensionApplicableNoiseSampler;
+import com.dfsek.terra.addons.noise.config.SamplerSimplifier;
 import com.dfsek.terra.addons.noise.config.templates.BinaryArithmeticTemplate;
+import com.dfsek.terra.addons.noise.config.templates.CacheSamplerTemplate;
+import com.dfsek.terra.addons.noise.config.templates.CompiledSamplerTemplate;
 import com.dfsek.terra.addons.noise.config.templates.DomainWarpTemplate;
 import com.dfsek.terra.addons.noise.config.templates.FunctionTemplate;
 import com.dfsek.terra.addons.noise.config.templates.ImageSamplerTemplate;
@@ -42,6 +47,7 @@ import com.dfsek.terra.addons.noise.samplers.arithmetic.MinSampler;
 import com.dfsek.terra.addons.noise.samplers.arithmetic.MultiplicationSampler;
 import com.dfsek.terra.addons.noise.samplers.arithmetic.SubtractionSampler;
 import com.dfsek.terra.addons.noise.samplers.noise.CellularSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.NoiseFunction;
 import com.dfsek.terra.addons.noise.samplers.noise.random.GaussianNoiseSampler;
 import com.dfsek.terra.addons.noise.samplers.noise.random.PositiveWhiteNoiseSampler;
 import com.dfsek.terra.addons.noise.samplers.noise.random.WhiteNoiseSampler;
@@ -51,8 +57,10 @@ import com.dfsek.terra.addons.noise.samplers.noise.simplex.PerlinSampler;
 import com.dfsek.terra.addons.noise.samplers.noise.simplex.SimplexSampler;
 import com.dfsek.terra.addons.noise.samplers.noise.value.ValueCubicSampler;
 import com.dfsek.terra.addons.noise.samplers.noise.value.ValueSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.vector.VectorSupport;
 import com.dfsek.terra.api.Platform;
 import com.dfsek.terra.api.addon.BaseAddon;
+import com.dfsek.terra.api.event.events.config.pack.ConfigPackPostLoadEvent;
 import com.dfsek.terra.api.event.events.config.pack.ConfigPackPreLoadEvent;
 import com.dfsek.terra.api.event.functional.FunctionalEventHandler;
 import com.dfsek.terra.api.inject.annotations.Inject;
@@ -64,6 +72,7 @@ import com.dfsek.terra.api.util.reflection.TypeKey;
 public class NoiseAddon implements AddonInitializer {
     public static final TypeKey<Supplier<ObjectTemplate<NoiseSampler>>> NOISE_SAMPLER_TOKEN = new TypeKey<>() {
     };
+    private static final Logger logger = LoggerFactory.getLogger(NoiseAddon.class);
     @Inject
     private Platform plugin;
     
@@ -72,12 +81,19 @@ public class NoiseAddon implements AddonInitializer {
     
     @Override
     public void initialize() {
+        boolean vectorize = plugin.getTerraConfig().isVectorizeNoise() && VectorSupport.isAvailable();
+        if(plugin.getTerraConfig().isVectorizeNoise() && !vectorize) {
+            logger.warn("Vectorized noise is enabled, but the jdk.incubator.vector module is not available. " +
+                        "Add --add-modules jdk.incubator.vector to the JVM flags to use it. Falling back to scalar noise.");
+        }
+        
         plugin.getEventManager()
               .getHandler(FunctionalEventHandler.class)
               .register(addon, ConfigPackPreLoadEvent.class)
               .then(event -> {
                   CheckedRegistry<Supplier<ObjectTemplate<NoiseSampler>>> noiseRegistry = event.getPack().getOrCreateRegistry(
                           NOISE_SAMPLER_TOKEN);
+                  SamplerSimplifier simplifier = new SamplerSimplifier();
                   event.getPack()
                        .applyLoader(CellularSampler.DistanceFunction.class,
                                     (type, o, loader, depthTracker) -> CellularSampler.DistanceFunction.valueOf((String) o))
@@ -86,16 +102,19 @@ public class NoiseAddon implements AddonInitializer {
                        .applyLoader(DimensionApplicableNoiseSampler.class, DimensionApplicableNoiseSampler::new)
                        .applyLoader(FunctionTemplate.class, FunctionTemplate::new);
             
-                  noiseRegistry.register(addon.key("LINEAR"), LinearNormalizerTemplate::new);
-                  noiseRegistry.register(addon.key("NORMAL"), NormalNormalizerTemplate::new);
-                  noiseRegistry.register(addon.key("CLAMP"), ClampNormalizerTemplate::new);
-                  noiseRegistry.register(addon.key("PROBABILITY"), ProbabilityNormalizerTemplate::new);
-                  noiseRegistry.register(addon.key("SCALE"), ScaleNormalizerTemplate::new);
-                  noiseRegistry.register(addon.key("POSTERIZATION"), PosterizationNormalizerTemplate::new);
+                  noiseRegistry.register(addon.key("LINEAR"), () -> new LinearNormalizerTemplate(simplifier));
+                  noiseRegistry.register(addon.key("NORMAL"), () -> new NormalNormalizerTemplate(simplifier));
+                  noiseRegistry.register(addon.key("CLAMP"), () -> new ClampNormalizerTemplate(simplifier));
+                  noiseRegistry.register(addon.key("PROBABILITY"), () -> new ProbabilityNormalizerTemplate(simplifier));
+                  noiseRegistry.register(addon.key("SCALE"), () -> new ScaleNormalizerTemplate(simplifier));
+                  noiseRegistry.register(addon.key("POSTERIZATION"), () -> new PosterizationNormalizerTemplate(simplifier));
             
                   noiseRegistry.register(addon.key("IMAGE"), ImageSamplerTemplate::new);
             
-                  noiseRegistry.register(addon.key("DOMAIN_WARP"), DomainWarpTemplate::new);
+                  noiseRegistry.register(addon.key("DOMAIN_WARP"), () -> new DomainWarpTemplate(simplifier));
+            
+                  noiseRegistry.register(addon.key("COMPILED"), CompiledSamplerTemplate::new);
+                  noiseRegistry.register(addon.key("CACHE"), CacheSamplerTemplate::new);
             
                   noiseRegistry.register(addon.key("FBM"), BrownianMotionTemplate::new);
                   noiseRegistry.register(addon.key("PING_PONG"), PingPongTemplate::new);
@@ -108,8 +127,15 @@ public class NoiseAddon implements AddonInitializer {
                   noiseRegistry.register(addon.key("GABOR"), GaborNoiseTemplate::new);
             
             
-                  noiseRegistry.register(addon.key("VALUE"), () -> new SimpleNoiseTemplate(ValueSampler::new));
-                  noiseRegistry.register(addon.key("VALUE_CUBIC"), () -> new SimpleNoiseTemplate(ValueCubicSampler::new));
+                  if(vectorize) {
+                      Supplier<NoiseFunction> value = VectorSupport.value();
+                      Supplier<NoiseFunction> valueCubic = VectorSupport.valueCubic();
+                      noiseRegistry.register(addon.key("VALUE"), () -> new SimpleNoiseTemplate(value));
+                      noiseRegistry.register(addon.key("VALUE_CUBIC"), () -> new SimpleNoiseTemplate(valueCubic));
+                  } else {
+                      noiseRegistry.register(addon.key("VALUE"), () -> new SimpleNoiseTemplate(ValueSampler::new));
+                      noiseRegistry.register(addon.key("VALUE_CUBIC"), () -> new SimpleNoiseTemplate(ValueCubicSampler::new));
+                  }
             
                   noiseRegistry.register(addon.key("CELLULAR"), CellularNoiseTemplate::new);
             
@@ -123,12 +149,12 @@ public class NoiseAddon implements AddonInitializer {
             
                   noiseRegistry.register(addon.key("LINEAR_HEIGHTMAP"), LinearHeightmapSamplerTemplate::new);
             
-                  noiseRegistry.register(addon.key("ADD"), () -> new BinaryArithmeticTemplate<>(AdditionSampler::new));
-                  noiseRegistry.register(addon.key("SUB"), () -> new BinaryArithmeticTemplate<>(SubtractionSampler::new));
-                  noiseRegistry.register(addon.key("MUL"), () -> new BinaryArithmeticTemplate<>(MultiplicationSampler::new));
-                  noiseRegistry.register(addon.key("DIV"), () -> new BinaryArithmeticTemplate<>(DivisionSampler::new));
-                  noiseRegistry.register(addon.key("MAX"), () -> new BinaryArithmeticTemplate<>(MaxSampler::new));
-                  noiseRegistry.register(addon.key("MIN"), () -> new BinaryArithmeticTemplate<>(MinSampler::new));
+                  noiseRegistry.register(addon.key("ADD"), () -> new BinaryArithmeticTemplate<>(AdditionSampler::new, simplifier));
+                  noiseRegistry.register(addon.key("SUB"), () -> new BinaryArithmeticTemplate<>(SubtractionSampler::new, simplifier));
+                  noiseRegistry.register(addon.key("MUL"), () -> new BinaryArithmeticTemplate<>(MultiplicationSampler::new, simplifier));
+                  noiseRegistry.register(addon.key("DIV"), () -> new BinaryArithmeticTemplate<>(DivisionSampler::new, simplifier));
+                  noiseRegistry.register(addon.key("MAX"), () -> new BinaryArithmeticTemplate<>(MaxSampler::new, simplifier));
+                  noiseRegistry.register(addon.key("MIN"), () -> new BinaryArithmeticTemplate<>(MinSampler::new, simplifier));
             
             
                   Map<String, DimensionApplicableNoiseSampler> packSamplers = new LinkedHashMap<>();
@@ -140,8 +166,20 @@ public class NoiseAddon implements AddonInitializer {
                   packSamplers.putAll(template.getSamplers());
                   packFunctions.putAll(template.getFunctions());
                   event.getPack().getContext().put(template);
+                  event.getPack().getContext().put(simplifier);
               })
               .priority(50)
               .failThrough();
+        
+        plugin.getEventManager()
+              .getHandler(FunctionalEventHandler.class)
+              .register(addon, ConfigPackPostLoadEvent.class)
+              .then(event -> {
+                  int rewrites = event.getPack().getContext().get(SamplerSimplifier.class).getRewrites();
+                  if(rewrites > 0) {
+                      logger.info("Simplified {} redundant samplers in pack {}. Enable debug logging for details.", rewrites,
+                                  event.getPack().getID());
+                  }
+              });
     }
 }
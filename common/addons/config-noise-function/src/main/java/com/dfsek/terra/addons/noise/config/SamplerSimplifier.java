@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.noise.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dfsek.terra.addons.noise.normalizer.LinearNormalizer;
+import com.dfsek.terra.addons.noise.normalizer.Normalizer;
+import com.dfsek.terra.addons.noise.normalizer.ScaleNormalizer;
+import com.dfsek.terra.addons.noise.samplers.DomainWarpedSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.AdditionSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.BinaryArithmeticSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.DivisionSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.MultiplicationSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.SubtractionSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.ConstantSampler;
+import com.dfsek.terra.api.noise.NoiseSampler;
+import com.dfsek.terra.api.properties.Properties;
+
+
+/**
+ * Load-time peephole simplification of sampler graphs.
+ * <p>
+ * Templates pass each sampler they build through {@link #simplify(NoiseSampler)}. Because templates are resolved
+ * bottom-up, the children of a node have already been simplified by the time the node itself is, so only local rules
+ * are needed to simplify the whole graph.
+ */
+public class SamplerSimplifier implements Properties {
+    private static final Logger logger = LoggerFactory.getLogger(SamplerSimplifier.class);
+    
+    private final AtomicInteger rewrites = new AtomicInteger();
+    
+    public NoiseSampler simplify(NoiseSampler sampler) {
+        NoiseSampler simplified = rewrite(sampler);
+        if(simplified != sampler) {
+            rewrites.incrementAndGet();
+            logger.debug("Simplified {} to {}", describe(sampler), describe(simplified));
+        }
+        return simplified;
+    }
+    
+    /**
+     * @return The number of samplers rewritten so far. A rewrite may remove more than one node, e.g. when folding constants.
+     */
+    public int getRewrites() {
+        return rewrites.get();
+    }
+    
+    private static NoiseSampler rewrite(NoiseSampler sampler) {
+        if(sampler instanceof BinaryArithmeticSampler arithmetic) {
+            return arithmetic(arithmetic);
+        }
+        if(sampler instanceof Normalizer normalizer) {
+            return normalizer(normalizer);
+        }
+        if(sampler instanceof DomainWarpedSampler warped && warped.getAmplitude() == 0) {
+            return warped.getFunction();
+        }
+        return sampler;
+    }
+    
+    private static NoiseSampler arithmetic(BinaryArithmeticSampler arithmetic) {
+        NoiseSampler left = arithmetic.getLeft();
+        NoiseSampler right = arithmetic.getRight();
+        
+        if(left instanceof ConstantSampler l && right instanceof ConstantSampler r) {
+            return new ConstantSampler(arithmetic.operate(l.getConstant(), r.getConstant()));
+        }
+        
+        if(arithmetic instanceof AdditionSampler) {
+            if(isConstant(left, 0)) return right;
+            if(isConstant(right, 0)) return left;
+        } else if(arithmetic instanceof SubtractionSampler) {
+            if(isConstant(right, 0)) return left;
+        } else if(arithmetic instanceof MultiplicationSampler) {
+            if(isConstant(left, 1)) return right;
+            if(isConstant(right, 1)) return left;
+        } else if(arithmetic instanceof DivisionSampler) {
+            if(isConstant(right, 1)) return left;
+        }
+        return arithmetic;
+    }
+    
+    private static NoiseSampler normalizer(Normalizer normalizer) {
+        NoiseSampler input = normalizer.getSampler();
+        
+        if(input instanceof ConstantSampler constant) {
+            return new ConstantSampler(normalizer.normalize(constant.getConstant()));
+        }
+        
+        if(normalizer instanceof ScaleNormalizer scale) {
+            if(scale.getScale() == 1) return input;
+            if(input instanceof ScaleNormalizer inner) return new ScaleNormalizer(inner.getSampler(), inner.getScale() * scale.getScale());
+        } else if(normalizer instanceof LinearNormalizer linear) {
+            if(linear.getMin() == -1 && linear.getMax() == 1) return input;
+            if(input instanceof LinearNormalizer inner) return merge(inner, linear);
+        }
+        return normalizer;
+    }
+    
+    /*
+     * Both normalizers are affine maps of the form (in - min) * 2 / (max - min) - 1, so their composition is another map
+     * of the same form.
+     */
+    private static LinearNormalizer merge(LinearNormalizer inner, LinearNormalizer outer) {
+        double innerSlope = 2 / (inner.getMax() - inner.getMin());
+        double outerSlope = 2 / (outer.getMax() - outer.getMin());
+        
+        double slope = innerSlope * outerSlope;
+        double intercept = (-inner.getMin() * innerSlope - 1 - outer.getMin()) * outerSlope - 1;
+        
+        double min = -(intercept + 1) / slope;
+        return new LinearNormalizer(inner.getSampler(), min, min + 2 / slope);
+    }
+    
+    private static boolean isConstant(NoiseSampler sampler, double value) {
+        return sampler instanceof ConstantSampler constant && constant.getConstant() == value;
+    }
+    
+    private static String describe(NoiseSampler sampler) {
+        if(sampler instanceof ConstantSampler constant) return "constant " + constant.getConstant();
+        return sampler.getClass().getSimpleName();
+    }
+}
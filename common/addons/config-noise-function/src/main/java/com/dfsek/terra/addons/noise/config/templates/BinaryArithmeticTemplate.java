@@ -4,6 +4,7 @@ import com.dfsek.tectonic.api.config.template.annotations.Value;
 
 import java.util.function.BiFunction;
 
+import com.dfsek.terra.addons.noise.config.SamplerSimplifier;
 import com.dfsek.terra.addons.noise.samplers.arithmetic.BinaryArithmeticSampler;
 import com.dfsek.terra.api.config.meta.Meta;
 import com.dfsek.terra.api.noise.NoiseSampler;
@@ -11,17 +12,19 @@ import com.dfsek.terra.api.noise.NoiseSampler;
 
 public class BinaryArithmeticTemplate<T extends BinaryArithmeticSampler> extends SamplerTemplate<T> {
     private final BiFunction<NoiseSampler, NoiseSampler, T> function;
+    private final SamplerSimplifier simplifier;
     @Value("left")
     private @Meta NoiseSampler left;
     @Value("right")
     private @Meta NoiseSampler right;
     
-    public BinaryArithmeticTemplate(BiFunction<NoiseSampler, NoiseSampler, T> function) {
+    public BinaryArithmeticTemplate(BiFunction<NoiseSampler, NoiseSampler, T> function, SamplerSimplifier simplifier) {
         this.function = function;
+        this.simplifier = simplifier;
     }
     
     @Override
-    public T get() {
-        return function.apply(left, right);
+    public NoiseSampler get() {
+        return simplifier.simplify(function.apply(left, right));
     }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.noise.config.templates;
+
+import com.dfsek.tectonic.api.config.template.annotations.Default;
+import com.dfsek.tectonic.api.config.template.annotations.Value;
+import com.dfsek.tectonic.api.exception.ValidationException;
+
+import com.dfsek.terra.addons.noise.samplers.CacheSampler;
+import com.dfsek.terra.api.config.meta.Meta;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+
+@SuppressWarnings({ "unused", "FieldMayBeFinal" })
+public class CacheSamplerTemplate extends SamplerTemplate<CacheSampler> {
+    private static final int MAX_SIZE = 1 << 16;
+    
+    @Value("sampler")
+    private @Meta NoiseSampler sampler;
+    
+    @Value("size")
+    @Default
+    private @Meta int size = 4096;
+    
+    @Value("cache-3d")
+    @Default
+    private @Meta boolean cache3D = false;
+    
+    @Override
+    public NoiseSampler get() {
+        return new CacheSampler(sampler, size, cache3D);
+    }
+    
+    @Override
+    public boolean validate() throws ValidationException {
+        // Every thread gets its own table of up to 41 bytes per entry, so larger tables cost more memory than they save work.
+        if(size < 1 || size > MAX_SIZE) throw new ValidationException("Cache size must be between 1 and " + MAX_SIZE + ": " + size);
+        return super.validate();
+    }
+}
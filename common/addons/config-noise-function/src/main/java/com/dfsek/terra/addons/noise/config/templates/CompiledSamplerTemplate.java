@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.noise.config.templates;
+
+import com.dfsek.paralithic.eval.tokenizer.ParseException;
+import com.dfsek.tectonic.api.config.template.annotations.Value;
+
+import com.dfsek.terra.addons.noise.paralithic.compiler.SamplerCompiler;
+import com.dfsek.terra.addons.noise.samplers.CompiledSampler;
+import com.dfsek.terra.api.config.meta.Meta;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+
+@SuppressWarnings({ "unused", "FieldMayBeFinal" })
+public class CompiledSamplerTemplate extends SamplerTemplate<CompiledSampler> {
+    @Value("sampler")
+    private @Meta NoiseSampler sampler;
+    
+    @Override
+    public NoiseSampler get() {
+        try {
+            return SamplerCompiler.compile(sampler);
+        } catch(ParseException e) {
+            throw new RuntimeException("Failed to compile sampler.", e);
+        }
+    }
+}
@@ -10,6 +10,7 @@ package com.dfsek.terra.addons.noise.config.templates;
 import com.dfsek.tectonic.api.config.template.annotations.Default;
 import com.dfsek.tectonic.api.config.template.annotations.Value;
 
+import com.dfsek.terra.addons.noise.config.SamplerSimplifier;
 import com.dfsek.terra.addons.noise.samplers.DomainWarpedSampler;
 import com.dfsek.terra.api.config.meta.Meta;
 import com.dfsek.terra.api.noise.NoiseSampler;
@@ -17,6 +18,8 @@ import com.dfsek.terra.api.noise.NoiseSampler;
 
 @SuppressWarnings({ "unused", "FieldMayBeFinal" })
 public class DomainWarpTemplate extends SamplerTemplate<DomainWarpedSampler> {
+    private final SamplerSimplifier simplifier;
+    
     @Value("warp")
     private @Meta NoiseSampler warp;
     
@@ -27,8 +30,12 @@ public class DomainWarpTemplate extends SamplerTemplate<DomainWarpedSampler> {
     @Default
     private @Meta double amplitude = 1;
     
+    public DomainWarpTemplate(SamplerSimplifier simplifier) {
+        this.simplifier = simplifier;
+    }
+    
     @Override
     public NoiseSampler get() {
-        return new DomainWarpedSampler(function, warp, amplitude);
+        return simplifier.simplify(new DomainWarpedSampler(function, warp, amplitude));
     }
 }
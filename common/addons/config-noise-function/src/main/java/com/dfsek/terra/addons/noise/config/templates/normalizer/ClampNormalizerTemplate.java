@@ -9,6 +9,7 @@ package com.dfsek.terra.addons.noise.config.templates.normalizer;
 
 import com.dfsek.tectonic.api.config.template.annotations.Value;
 
+import com.dfsek.terra.addons.noise.config.SamplerSimplifier;
 import com.dfsek.terra.addons.noise.normalizer.ClampNormalizer;
 import com.dfsek.terra.api.config.meta.Meta;
 import com.dfsek.terra.api.noise.NoiseSampler;
@@ -22,8 +23,12 @@ public class ClampNormalizerTemplate extends NormalizerTemplate<ClampNormalizer>
     @Value("min")
     private @Meta double min;
     
+    public ClampNormalizerTemplate(SamplerSimplifier simplifier) {
+        super(simplifier);
+    }
+    
     @Override
     public NoiseSampler get() {
-        return new ClampNormalizer(function, min, max);
+        return simplifier.simplify(new ClampNormalizer(function, min, max));
     }
 }
@@ -10,6 +10,7 @@ package com.dfsek.terra.addons.noise.config.templates.normalizer;
 import com.dfsek.tectonic.api.config.template.annotations.Default;
 import com.dfsek.tectonic.api.config.template.annotations.Value;
 
+import com.dfsek.terra.addons.noise.config.SamplerSimplifier;
 import com.dfsek.terra.addons.noise.normalizer.NormalNormalizer;
 import com.dfsek.terra.api.config.meta.Meta;
 import com.dfsek.terra.api.noise.NoiseSampler;
@@ -27,8 +28,12 @@ public class NormalNormalizerTemplate extends NormalizerTemplate<NormalNormalize
     @Default
     private @Meta int groups = 16384;
     
+    public NormalNormalizerTemplate(SamplerSimplifier simplifier) {
+        super(simplifier);
+    }
+    
     @Override
     public NoiseSampler get() {
-        return new NormalNormalizer(function, groups, mean, stdDev);
+        return simplifier.simplify(new NormalNormalizer(function, groups, mean, stdDev));
     }
 }
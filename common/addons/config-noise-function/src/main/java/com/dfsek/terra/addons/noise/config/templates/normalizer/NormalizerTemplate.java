@@ -9,6 +9,7 @@ package com.dfsek.terra.addons.noise.config.templates.normalizer;
 
 import com.dfsek.tectonic.api.config.template.annotations.Value;
 
+import com.dfsek.terra.addons.noise.config.SamplerSimplifier;
 import com.dfsek.terra.addons.noise.config.templates.SamplerTemplate;
 import com.dfsek.terra.addons.noise.normalizer.Normalizer;
 import com.dfsek.terra.api.config.meta.Meta;
@@ -16,6 +17,12 @@ import com.dfsek.terra.api.noise.NoiseSampler;
 
 
 public abstract class NormalizerTemplate<T extends Normalizer> extends SamplerTemplate<T> {
+    protected final SamplerSimplifier simplifier;
+    
     @Value("sampler")
     protected @Meta NoiseSampler function;
+    
+    protected NormalizerTemplate(SamplerSimplifier simplifier) {
+        this.simplifier = simplifier;
+    }
 }
@@ -9,6 +9,7 @@ package com.dfsek.terra.addons.noise.config.templates.normalizer;
 
 import com.dfsek.tectonic.api.config.template.annotations.Value;
 
+import com.dfsek.terra.addons.noise.config.SamplerSimplifier;
 import com.dfsek.terra.addons.noise.normalizer.PosterizationNormalizer;
 import com.dfsek.terra.api.config.meta.Meta;
 import com.dfsek.terra.api.noise.NoiseSampler;
@@ -19,8 +20,12 @@ public class PosterizationNormalizerTemplate extends NormalizerTemplate<Posteriz
     @Value("steps")
     private @Meta int steps;
     
+    public PosterizationNormalizerTemplate(SamplerSimplifier simplifier) {
+        super(simplifier);
+    }
+    
     @Override
     public NoiseSampler get() {
-        return new PosterizationNormalizer(function, steps);
+        return simplifier.simplify(new PosterizationNormalizer(function, steps));
     }
 }
@@ -1,12 +1,17 @@
 package com.dfsek.terra.addons.noise.config.templates.normalizer;
 
+import com.dfsek.terra.addons.noise.config.SamplerSimplifier;
 import com.dfsek.terra.addons.noise.normalizer.ProbabilityNormalizer;
 import com.dfsek.terra.api.noise.NoiseSampler;
 
 
 public class ProbabilityNormalizerTemplate extends NormalizerTemplate<ProbabilityNormalizer> {
+    public ProbabilityNormalizerTemplate(SamplerSimplifier simplifier) {
+        super(simplifier);
+    }
+    
     @Override
     public NoiseSampler get() {
-        return new ProbabilityNormalizer(function);
+        return simplifier.simplify(new ProbabilityNormalizer(function));
     }
 }
@@ -2,6 +2,7 @@ package com.dfsek.terra.addons.noise.config.templates.normalizer;
 
 import com.dfsek.tectonic.api.config.template.annotations.Value;
 
+import com.dfsek.terra.addons.noise.config.SamplerSimplifier;
 import com.dfsek.terra.addons.noise.normalizer.ScaleNormalizer;
 import com.dfsek.terra.api.config.meta.Meta;
 import com.dfsek.terra.api.noise.NoiseSampler;
@@ -11,8 +12,12 @@ public class ScaleNormalizerTemplate extends NormalizerTemplate<ScaleNormalizer>
     @Value("amplitude")
     private @Meta double amplitude;
     
+    public ScaleNormalizerTemplate(SamplerSimplifier simplifier) {
+        super(simplifier);
+    }
+    
     @Override
     public NoiseSampler get() {
-        return new ScaleNormalizer(function, amplitude);
+        return simplifier.simplify(new ScaleNormalizer(function, amplitude));
     }
 }
@@ -9,6 +9,8 @@ package com.dfsek.terra.addons.noise.normalizer;
 
 import net.jafama.FastMath;
 
+import java.util.Objects;
+
 import com.dfsek.terra.api.noise.NoiseSampler;
 
 
@@ -26,4 +28,30 @@ public class ClampNormalizer extends Normalizer {
     public double normalize(double in) {
         return FastMath.max(FastMath.min(in, max), min);
     }
+    
+    @Override
+    public double derivative(double in) {
+        return in > min && in < max ? 1 : 0;
+    }
+    
+    public double getMin() {
+        return min;
+    }
+    
+    public double getMax() {
+        return max;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(!super.equals(obj)) return false;
+        ClampNormalizer that = (ClampNormalizer) obj;
+        return Double.compare(min, that.min) == 0 &&
+               Double.compare(max, that.max) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hash(min, max);
+    }
 }
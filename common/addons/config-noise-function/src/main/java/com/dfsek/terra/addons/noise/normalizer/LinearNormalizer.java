@@ -7,6 +7,8 @@
 
 package com.dfsek.terra.addons.noise.normalizer;
 
+import java.util.Objects;
+
 import com.dfsek.terra.api.noise.NoiseSampler;
 
 
@@ -27,4 +29,30 @@ public class LinearNormalizer extends Normalizer {
     public double normalize(double in) {
         return (in - min) * (2 / (max - min)) - 1;
     }
+    
+    @Override
+    public double derivative(double in) {
+        return 2 / (max - min);
+    }
+    
+    public double getMin() {
+        return min;
+    }
+    
+    public double getMax() {
+        return max;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(!super.equals(obj)) return false;
+        LinearNormalizer that = (LinearNormalizer) obj;
+        return Double.compare(min, that.min) == 0 &&
+               Double.compare(max, that.max) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hash(min, max);
+    }
 }
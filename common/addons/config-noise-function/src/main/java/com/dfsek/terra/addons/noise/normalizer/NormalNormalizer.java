@@ -9,6 +9,9 @@ package com.dfsek.terra.addons.noise.normalizer;
 
 import net.jafama.FastMath;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 import com.dfsek.terra.api.noise.NoiseSampler;
 import com.dfsek.terra.api.util.MathUtil;
 
@@ -51,4 +54,26 @@ public class NormalNormalizer extends Normalizer {
         
         return (fin - 0.5) * 2;
     }
+    
+    @Override
+    public double getMinimum() {
+        return -1;
+    }
+    
+    @Override
+    public double getMaximum() {
+        return 1;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(!super.equals(obj)) return false;
+        NormalNormalizer that = (NormalNormalizer) obj;
+        return Arrays.equals(lookup, that.lookup);
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hash(Arrays.hashCode(lookup));
+    }
 }
@@ -7,18 +7,35 @@
 
 package com.dfsek.terra.addons.noise.normalizer;
 
+import java.util.Objects;
+
 import com.dfsek.terra.api.noise.NoiseSampler;
 
 
 public abstract class Normalizer implements NoiseSampler {
     private final NoiseSampler sampler;
     
+    private double minimum;
+    private double maximum;
+    private volatile boolean bounded = false;
+    
     public Normalizer(NoiseSampler sampler) {
         this.sampler = sampler;
     }
     
     public abstract double normalize(double in);
     
+    /**
+     * Derivative of {@link #normalize(double)} at a point. Estimated with central differences unless overridden.
+     */
+    public double derivative(double in) {
+        return (normalize(in + GRADIENT_EPSILON) - normalize(in - GRADIENT_EPSILON)) / (2 * GRADIENT_EPSILON);
+    }
+    
+    public NoiseSampler getSampler() {
+        return sampler;
+    }
+    
     @Override
     public double noise(long seed, double x, double y) {
         return normalize(sampler.noise(seed, x, y));
@@ -28,4 +45,143 @@ public abstract class Normalizer implements NoiseSampler {
     public double noise(long seed, double x, double y, double z) {
         return normalize(sampler.noise(seed, x, y, z));
     }
+    
+    @Override
+    public void noise(long seed, double[] x, double[] y, double[] out) {
+        sampler.noise(seed, x, y, out);
+        for(int i = 0; i < out.length; i++) {
+            out[i] = normalize(out[i]);
+        }
+    }
+    
+    @Override
+    public void noise(long seed, double[] x, double[] y, double[] z, double[] out) {
+        sampler.noise(seed, x, y, z, out);
+        for(int i = 0; i < out.length; i++) {
+            out[i] = normalize(out[i]);
+        }
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double[] gradient) {
+        double in = sampler.gradient(seed, x, y, gradient);
+        double derivative = derivative(in);
+        gradient[0] *= derivative;
+        gradient[1] *= derivative;
+        return normalize(in);
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double z, double[] gradient) {
+        double in = sampler.gradient(seed, x, y, z, gradient);
+        double derivative = derivative(in);
+        gradient[0] *= derivative;
+        gradient[1] *= derivative;
+        gradient[2] *= derivative;
+        return normalize(in);
+    }
+    
+    /**
+     * Bound the output of this normalizer for input within the given bounds. Normalizers are monotonic, so by default the bounds
+     * of the input map onto the bounds of the output.
+     */
+    protected double bound(double inMin, double inMax, boolean upper) {
+        double a = normalize(inMin);
+        double b = normalize(inMax);
+        if(upper) {
+            double max = Math.max(a, b);
+            return Double.isNaN(max) ? Double.POSITIVE_INFINITY : max;
+        }
+        double min = Math.min(a, b);
+        return Double.isNaN(min) ? Double.NEGATIVE_INFINITY : min;
+    }
+    
+    @Override
+    public double getMinimum() {
+        if(!bounded) computeBounds();
+        return minimum;
+    }
+    
+    @Override
+    public double getMaximum() {
+        if(!bounded) computeBounds();
+        return maximum;
+    }
+    
+    /*
+     * Bounds are computed once, on first use rather than in the constructor, since normalize() depends on fields of subclasses.
+     * Racing threads compute the same values.
+     */
+    private void computeBounds() {
+        double inMin = sampler.getMinimum();
+        double inMax = sampler.getMaximum();
+        minimum = bound(inMin, inMax, false);
+        maximum = bound(inMin, inMax, true);
+        bounded = true;
+    }
+    
+    @Override
+    public NoiseSampler bind(long seed) {
+        return new Bound(this, sampler.bind(seed));
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        Normalizer that = (Normalizer) obj;
+        return sampler.equals(that.sampler);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass(), sampler);
+    }
+    
+    /**
+     * Applies the normalization of another normalizer to an input bound to a seed.
+     */
+    private static final class Bound extends Normalizer {
+        private final Normalizer normalizer;
+        
+        private Bound(Normalizer normalizer, NoiseSampler sampler) {
+            super(sampler);
+            this.normalizer = normalizer;
+        }
+        
+        @Override
+        public double normalize(double in) {
+            return normalizer.normalize(in);
+        }
+        
+        @Override
+        public double derivative(double in) {
+            return normalizer.derivative(in);
+        }
+        
+        @Override
+        public double getMinimum() {
+            return normalizer.getMinimum();
+        }
+        
+        @Override
+        public double getMaximum() {
+            return normalizer.getMaximum();
+        }
+        
+        @Override
+        public NoiseSampler bind(long seed) {
+            return this;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            return super.equals(obj) && normalizer.equals(((Bound) obj).normalizer);
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * super.hashCode() + normalizer.hashCode();
+        }
+    }
 }
@@ -9,6 +9,8 @@ package com.dfsek.terra.addons.noise.normalizer;
 
 import net.jafama.FastMath;
 
+import java.util.Objects;
+
 import com.dfsek.terra.api.noise.NoiseSampler;
 
 
@@ -24,4 +26,27 @@ public class PosterizationNormalizer extends Normalizer {
     public double normalize(double in) {
         return FastMath.roundToInt((in + 1) / stepSize) * stepSize - 1;
     }
+    
+    @Override
+    public double derivative(double in) {
+        return 0;
+    }
+    
+    @Override
+    protected double bound(double inMin, double inMax, boolean upper) {
+        double in = upper ? inMax : inMin;
+        return Double.isInfinite(in) ? in : normalize(in);
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(!super.equals(obj)) return false;
+        PosterizationNormalizer that = (PosterizationNormalizer) obj;
+        return Double.compare(stepSize, that.stepSize) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hash(stepSize);
+    }
 }
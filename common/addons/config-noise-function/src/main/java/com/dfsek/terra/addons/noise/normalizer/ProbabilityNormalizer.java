@@ -12,4 +12,9 @@ public class ProbabilityNormalizer extends Normalizer {
     public double normalize(double in) {
         return (in + 1) / 2;
     }
+    
+    @Override
+    public double derivative(double in) {
+        return 0.5;
+    }
 }
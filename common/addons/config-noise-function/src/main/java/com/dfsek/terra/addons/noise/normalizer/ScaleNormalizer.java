@@ -1,5 +1,7 @@
 package com.dfsek.terra.addons.noise.normalizer;
 
+import java.util.Objects;
+
 import com.dfsek.terra.api.noise.NoiseSampler;
 
 
@@ -15,4 +17,25 @@ public class ScaleNormalizer extends Normalizer {
     public double normalize(double in) {
         return in * scale;
     }
+    
+    @Override
+    public double derivative(double in) {
+        return scale;
+    }
+    
+    public double getScale() {
+        return scale;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(!super.equals(obj)) return false;
+        ScaleNormalizer that = (ScaleNormalizer) obj;
+        return Double.compare(scale, that.scale) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hash(scale);
+    }
 }
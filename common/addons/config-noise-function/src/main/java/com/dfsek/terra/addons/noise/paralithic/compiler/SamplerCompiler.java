@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.noise.paralithic.compiler;
+
+import com.dfsek.paralithic.Expression;
+import com.dfsek.paralithic.eval.parser.Parser;
+import com.dfsek.paralithic.eval.parser.Scope;
+import com.dfsek.paralithic.eval.tokenizer.ParseException;
+import com.dfsek.paralithic.functions.dynamic.DynamicFunction;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.dfsek.terra.addons.noise.normalizer.ClampNormalizer;
+import com.dfsek.terra.addons.noise.normalizer.LinearNormalizer;
+import com.dfsek.terra.addons.noise.normalizer.ProbabilityNormalizer;
+import com.dfsek.terra.addons.noise.normalizer.ScaleNormalizer;
+import com.dfsek.terra.addons.noise.samplers.CompiledSampler;
+import com.dfsek.terra.addons.noise.samplers.DomainWarpedSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.AdditionSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.BinaryArithmeticSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.DivisionSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.MaxSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.MinSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.MultiplicationSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.SubtractionSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.ConstantSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.BrownianMotionSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.FractalNoiseFunction;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.RidgedFractalSampler;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+
+/**
+ * Flattens a resolved sampler tree into a single Paralithic expression, which is compiled to bytecode.
+ * <p>
+ * Arithmetic, linear normalizers, constants, domain warps and unweighted FBM/ridged fractals are inlined, with their
+ * parameters baked in as constants and their seed offsets resolved at compile time. Every other sampler becomes a leaf
+ * function call, so the compiled sampler always produces the same values as the tree it was built from.
+ * <p>
+ * Paralithic has no local variables, so the function of a domain warp is compiled into an expression of its own and called
+ * with the warped coordinates. Each warped coordinate is then evaluated once, however often the function uses it.
+ */
+public final class SamplerCompiler {
+    private static final int MAX_EXPRESSION_LENGTH = 1 << 16;
+    private static final String[] COORDINATES = { "x", "y", "z" };
+    
+    private final int dimensions;
+    private final Totals totals;
+    private final Map<String, DynamicFunction> functions = new LinkedHashMap<>();
+    private final Map<String, Double> constants = new LinkedHashMap<>();
+    
+    private SamplerCompiler(int dimensions, Totals totals) {
+        this.dimensions = dimensions;
+        this.totals = totals;
+    }
+    
+    /**
+     * Compile a sampler tree.
+     *
+     * @param sampler Root of the tree
+     *
+     * @return A compiled sampler, or the original sampler if nothing in the tree could be inlined or the compiled expressions
+     * would be too large.
+     */
+    public static NoiseSampler compile(NoiseSampler sampler) throws ParseException {
+        Totals totals2 = new Totals();
+        try {
+            Expression expression2 = new SamplerCompiler(2, totals2).compileExpression(sampler, 0);
+            if(totals2.inlined == 0) return sampler;
+            Expression expression3 = new SamplerCompiler(3, new Totals()).compileExpression(sampler, 0);
+            return new CompiledSampler(sampler, expression2, expression3);
+        } catch(ExpressionTooLargeException e) {
+            return sampler;
+        }
+    }
+    
+    private Expression compileExpression(NoiseSampler sampler, long seed) throws ParseException {
+        String expression = emit(sampler, seed, Arrays.copyOf(COORDINATES, dimensions));
+        totals.length += expression.length();
+        return parse(expression);
+    }
+    
+    private Expression parse(String expression) throws ParseException {
+        Parser parser = new Parser();
+        Scope scope = new Scope();
+        
+        for(int i = 0; i < dimensions; i++) {
+            scope.addInvocationVariable(COORDINATES[i]);
+        }
+        
+        constants.forEach(scope::create);
+        functions.forEach(parser::registerFunction);
+        
+        return parser.parse(expression, scope);
+    }
+    
+    private String emit(NoiseSampler sampler, long seed, String[] coordinates) throws ParseException {
+        return checkLength(emitUnchecked(sampler, seed, coordinates));
+    }
+    
+    private String emitUnchecked(NoiseSampler sampler, long seed, String[] coordinates) throws ParseException {
+        if(sampler instanceof ConstantSampler constant) {
+            totals.inlined++;
+            return constant(constant.getConstant());
+        }
+        
+        if(sampler instanceof BinaryArithmeticSampler arithmetic) {
+            String operator = operator(arithmetic);
+            if(operator != null) {
+                totals.inlined++;
+                String left = emit(arithmetic.getLeft(), seed, coordinates);
+                String right = emit(arithmetic.getRight(), seed, coordinates);
+                if(operator.equals("max") || operator.equals("min")) return operator + "(" + left + ", " + right + ")";
+                return "(" + left + " " + operator + " " + right + ")";
+            }
+        }
+        
+        if(sampler instanceof LinearNormalizer linear) {
+            totals.inlined++;
+            String in = emit(linear.getSampler(), seed, coordinates);
+            return "((" + in + " - " + constant(linear.getMin()) + ") * " + constant(2 / (linear.getMax() - linear.getMin())) + " - 1)";
+        }
+        
+        if(sampler instanceof ClampNormalizer clamp) {
+            totals.inlined++;
+            String in = emit(clamp.getSampler(), seed, coordinates);
+            return "max(min(" + in + ", " + constant(clamp.getMax()) + "), " + constant(clamp.getMin()) + ")";
+        }
+        
+        if(sampler instanceof ProbabilityNormalizer probability) {
+            totals.inlined++;
+            return "((" + emit(probability.getSampler(), seed, coordinates) + " + 1) / 2)";
+        }
+        
+        if(sampler instanceof ScaleNormalizer scale) {
+            totals.inlined++;
+            return "(" + emit(scale.getSampler(), seed, coordinates) + " * " + constant(scale.getScale()) + ")";
+        }
+        
+        if(sampler instanceof DomainWarpedSampler warped) {
+            totals.inlined++;
+            String[] warpedCoordinates = new String[coordinates.length];
+            for(int i = 0; i < coordinates.length; i++) {
+                String offset = emit(warped.getWarp(), seed + 1 + i, coordinates);
+                warpedCoordinates[i] = "(" + coordinates[i] + " + " + offset + " * " + constant(warped.getAmplitude()) + ")";
+            }
+            Expression function = new SamplerCompiler(dimensions, totals).compileExpression(warped.getFunction(), seed);
+            String name = "warp" + functions.size();
+            functions.put(name, new WarpedFunction(function, dimensions));
+            return name + "(" + String.join(", ", warpedCoordinates) + ")";
+        }
+        
+        if(sampler instanceof FractalNoiseFunction fractal && fractal.getWeightedStrength() == 0 &&
+           (fractal instanceof BrownianMotionSampler || fractal instanceof RidgedFractalSampler)) {
+            totals.inlined++;
+            return fractal(fractal, seed, coordinates);
+        }
+        
+        return leaf(sampler, seed, coordinates);
+    }
+    
+    /*
+     * With a weighted strength of 0 the per-octave amplitude no longer depends on the sampled value, so the octave loop
+     * can be unrolled with every amplitude computed ahead of time.
+     */
+    private String fractal(FractalNoiseFunction fractal, long seed, String[] coordinates) throws ParseException {
+        long octaveSeed = seed + fractal.getSalt();
+        String[] octaveCoordinates = new String[coordinates.length];
+        for(int i = 0; i < coordinates.length; i++) {
+            octaveCoordinates[i] = fractal.getFrequency() == 1 ? coordinates[i] :
+                                   "(" + coordinates[i] + " * " + constant(fractal.getFrequency()) + ")";
+        }
+        
+        boolean ridged = fractal instanceof RidgedFractalSampler;
+        double amp = fractal.getFractalBounding();
+        StringBuilder sum = new StringBuilder("(0");
+        for(int octave = 0; octave < fractal.getOctaves(); octave++) {
+            String noise = emit(fractal.getInput(), octaveSeed++, octaveCoordinates);
+            if(ridged) noise = "(abs(" + noise + ") * " + constant(-2) + " + 1)";
+            sum.append(" + ").append(noise).append(" * ").append(constant(amp));
+            checkLength(sum);
+            
+            for(int i = 0; i < coordinates.length; i++) {
+                octaveCoordinates[i] = "(" + octaveCoordinates[i] + " * " + constant(fractal.getLacunarity()) + ")";
+            }
+            amp *= fractal.getGain();
+        }
+        return sum.append(")").toString();
+    }
+    
+    private String leaf(NoiseSampler sampler, long seed, String[] coordinates) {
+        String name = "leaf" + functions.size();
+        functions.put(name, new SamplerLeafFunction(sampler, seed, dimensions));
+        return name + "(" + String.join(", ", coordinates) + ")";
+    }
+    
+    /*
+     * Gives up on compiling as soon as the expressions emitted so far grow too large, rather than once they've been built.
+     */
+    private <T extends CharSequence> T checkLength(T expression) {
+        if(expression.length() + totals.length > MAX_EXPRESSION_LENGTH) throw new ExpressionTooLargeException();
+        return expression;
+    }
+    
+    private String constant(double value) {
+        String name = "c" + constants.size();
+        constants.put(name, value);
+        return name;
+    }
+    
+    private static String operator(BinaryArithmeticSampler sampler) {
+        if(sampler instanceof AdditionSampler) return "+";
+        if(sampler instanceof SubtractionSampler) return "-";
+        if(sampler instanceof MultiplicationSampler) return "*";
+        if(sampler instanceof DivisionSampler) return "/";
+        if(sampler instanceof MaxSampler) return "max";
+        if(sampler instanceof MinSampler) return "min";
+        return null;
+    }
+    
+    /*
+     * Counters shared between a compiler and the compilers of the warped functions it calls.
+     */
+    private static final class Totals {
+        private int inlined = 0;
+        private int length = 0;
+    }
+    
+    private static final class ExpressionTooLargeException extends RuntimeException {
+        private ExpressionTooLargeException() {
+            super(null, null, false, false);
+        }
+    }
+}
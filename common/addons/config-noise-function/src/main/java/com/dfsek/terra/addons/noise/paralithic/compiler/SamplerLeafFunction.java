@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.noise.paralithic.compiler;
+
+import com.dfsek.paralithic.functions.dynamic.Context;
+import com.dfsek.paralithic.functions.dynamic.DynamicFunction;
+import com.dfsek.paralithic.node.Statefulness;
+
+import com.dfsek.terra.addons.noise.paralithic.noise.SeedContext;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+
+/**
+ * A sampler which could not be inlined by the {@link SamplerCompiler}, called with its seed offset from the root of the tree.
+ */
+public class SamplerLeafFunction implements DynamicFunction {
+    private final NoiseSampler sampler;
+    private final long seedOffset;
+    private final int dimensions;
+    
+    public SamplerLeafFunction(NoiseSampler sampler, long seedOffset, int dimensions) {
+        this.sampler = sampler;
+        this.seedOffset = seedOffset;
+        this.dimensions = dimensions;
+    }
+    
+    @Override
+    public double eval(double... args) {
+        throw new UnsupportedOperationException("Cannot evaluate seeded function without seed context.");
+    }
+    
+    @Override
+    public double eval(Context context, double... args) {
+        long seed = ((SeedContext) context).getSeed() + seedOffset;
+        if(dimensions == 2) return sampler.noise(seed, args[0], args[1]);
+        return sampler.noise(seed, args[0], args[1], args[2]);
+    }
+    
+    @Override
+    public int getArgNumber() {
+        return dimensions;
+    }
+    
+    @Override
+    public Statefulness statefulness() {
+        return Statefulness.CONTEXTUAL;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.noise.paralithic.compiler;
+
+import com.dfsek.paralithic.Expression;
+import com.dfsek.paralithic.functions.dynamic.Context;
+import com.dfsek.paralithic.functions.dynamic.DynamicFunction;
+import com.dfsek.paralithic.node.Statefulness;
+
+
+/**
+ * The function of a domain warp, compiled separately by the {@link SamplerCompiler} and called with the warped coordinates.
+ */
+public class WarpedFunction implements DynamicFunction {
+    private final Expression function;
+    private final int dimensions;
+    
+    public WarpedFunction(Expression function, int dimensions) {
+        this.function = function;
+        this.dimensions = dimensions;
+    }
+    
+    @Override
+    public double eval(double... args) {
+        throw new UnsupportedOperationException("Cannot evaluate seeded function without seed context.");
+    }
+    
+    @Override
+    public double eval(Context context, double... args) {
+        return function.evaluate(context, args);
+    }
+    
+    @Override
+    public int getArgNumber() {
+        return dimensions;
+    }
+    
+    @Override
+    public Statefulness statefulness() {
+        return Statefulness.CONTEXTUAL;
+    }
+}
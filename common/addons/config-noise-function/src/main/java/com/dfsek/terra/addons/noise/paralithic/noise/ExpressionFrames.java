@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.noise.paralithic.noise;
+
+import com.dfsek.paralithic.Expression;
+
+import java.util.Arrays;
+
+
+/**
+ * Per-thread scratch space for evaluating expressions without allocating a context and argument array on every sample.
+ * <p>
+ * Expressions can sample other expressions through their noise functions, so every nesting level gets its own context and
+ * argument arrays.
+ */
+public final class ExpressionFrames {
+    private static final ThreadLocal<ExpressionFrames> FRAMES = ThreadLocal.withInitial(ExpressionFrames::new);
+    
+    private SeedContext[] contexts = new SeedContext[0];
+    private double[][] arguments2 = new double[0][];
+    private double[][] arguments3 = new double[0][];
+    private int depth;
+    
+    private ExpressionFrames() {
+        grow(4);
+    }
+    
+    /**
+     * @return The frames of the current thread.
+     */
+    public static ExpressionFrames get() {
+        return FRAMES.get();
+    }
+    
+    public double evaluate(Expression expression, long seed, double x, double y) {
+        return evaluate(expression, context(seed), x, y);
+    }
+    
+    public double evaluate(Expression expression, long seed, double x, double y, double z) {
+        return evaluate(expression, context(seed), x, y, z);
+    }
+    
+    public double evaluate(Expression expression, SeedContext context, double x, double y) {
+        int level = enter();
+        try {
+            double[] arguments = arguments2[level];
+            arguments[0] = x;
+            arguments[1] = y;
+            return expression.evaluate(context, arguments);
+        } finally {
+            depth = level;
+        }
+    }
+    
+    public double evaluate(Expression expression, SeedContext context, double x, double y, double z) {
+        int level = enter();
+        try {
+            double[] arguments = arguments3[level];
+            arguments[0] = x;
+            arguments[1] = y;
+            arguments[2] = z;
+            return expression.evaluate(context, arguments);
+        } finally {
+            depth = level;
+        }
+    }
+    
+    /*
+     * The context of the level the next evaluation will enter; nested evaluations only ever touch deeper levels.
+     */
+    private SeedContext context(long seed) {
+        if(depth == contexts.length) grow(depth * 2);
+        SeedContext context = contexts[depth];
+        context.setSeed(seed);
+        return context;
+    }
+    
+    private int enter() {
+        if(depth == contexts.length) grow(depth * 2);
+        return depth++;
+    }
+    
+    private void grow(int size) {
+        int old = contexts.length;
+        contexts = Arrays.copyOf(contexts, size);
+        arguments2 = Arrays.copyOf(arguments2, size);
+        arguments3 = Arrays.copyOf(arguments3, size);
+        for(int i = old; i < size; i++) {
+            contexts[i] = new SeedContext(0);
+            arguments2[i] = new double[2];
+            arguments3[i] = new double[3];
+        }
+    }
+}
@@ -40,4 +40,17 @@ public class NoiseFunction3 implements DynamicFunction {
     public Statefulness statefulness() {
         return Statefulness.CONTEXTUAL;
     }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        NoiseFunction3 that = (NoiseFunction3) obj;
+        return gen.equals(that.gen);
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * getClass().hashCode() + gen.hashCode();
+    }
 }
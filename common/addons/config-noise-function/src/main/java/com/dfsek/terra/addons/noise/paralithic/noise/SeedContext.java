@@ -11,7 +11,7 @@ import com.dfsek.paralithic.functions.dynamic.Context;
 
 
 public class SeedContext implements Context {
-    private final long seed;
+    private long seed;
     
     public SeedContext(long seed) {
         this.seed = seed;
@@ -20,4 +20,11 @@ public class SeedContext implements Context {
     public long getSeed() {
         return seed;
     }
+    
+    /*
+     * Only contexts owned by an ExpressionFrames are ever reseeded; contexts handed out elsewhere stay effectively immutable.
+     */
+    void setSeed(long seed) {
+        this.seed = seed;
+    }
 }
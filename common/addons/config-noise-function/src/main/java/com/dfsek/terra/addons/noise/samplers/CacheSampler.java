@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.noise.samplers;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+
+/**
+ * Memoizes the results of another sampler.
+ * <p>
+ * Each thread gets its own direct-mapped table keyed on the raw bits of the seed and coordinates, so lookups need no
+ * synchronization and memory use is bounded by the table size. A colliding entry simply replaces the previous one.
+ */
+public class CacheSampler implements NoiseSampler {
+    private final NoiseSampler sampler;
+    private final int size;
+    private final boolean cache3D;
+    private final ThreadLocal<Table> table2D;
+    private final ThreadLocal<Table> table3D;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    /**
+     * @param sampler Sampler to cache
+     * @param size    Number of entries in each thread's table, rounded up to a power of two
+     * @param cache3D Whether to cache 3D samples as well as 2D ones
+     */
+    public CacheSampler(NoiseSampler sampler, int size, boolean cache3D) {
+        this.sampler = sampler;
+        this.size = size;
+        this.cache3D = cache3D;
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(size - 1));
+        this.table2D = ThreadLocal.withInitial(() -> new Table(bits, 3));
+        this.table3D = ThreadLocal.withInitial(() -> new Table(bits, 4));
+    }
+    
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    @Override
+    public double noise(long seed, double x, double y) {
+        long xBits = Double.doubleToRawLongBits(x);
+        long yBits = Double.doubleToRawLongBits(y);
+        
+        Table table = table2D.get();
+        int slot = table.slot(mix(seed ^ mix(xBits ^ mix(yBits))));
+        int key = slot * 3;
+        long[] keys = table.keys;
+        if(table.filled[slot] && keys[key] == seed && keys[key + 1] == xBits && keys[key + 2] == yBits) {
+            hits.increment();
+            return table.values[slot];
+        }
+        misses.increment();
+        
+        double value = sampler.noise(seed, x, y);
+        keys[key] = seed;
+        keys[key + 1] = xBits;
+        keys[key + 2] = yBits;
+        table.values[slot] = value;
+        table.filled[slot] = true;
+        return value;
+    }
+    
+    @Override
+    public double noise(long seed, double x, double y, double z) {
+        if(!cache3D) return sampler.noise(seed, x, y, z);
+        
+        long xBits = Double.doubleToRawLongBits(x);
+        long yBits = Double.doubleToRawLongBits(y);
+        long zBits = Double.doubleToRawLongBits(z);
+        
+        Table table = table3D.get();
+        int slot = table.slot(mix(seed ^ mix(xBits ^ mix(yBits ^ mix(zBits)))));
+        int key = slot * 4;
+        long[] keys = table.keys;
+        if(table.filled[slot] && keys[key] == seed && keys[key + 1] == xBits && keys[key + 2] == yBits && keys[key + 3] == zBits) {
+            hits.increment();
+            return table.values[slot];
+        }
+        misses.increment();
+        
+        double value = sampler.noise(seed, x, y, z);
+        keys[key] = seed;
+        keys[key + 1] = xBits;
+        keys[key + 2] = yBits;
+        keys[key + 3] = zBits;
+        table.values[slot] = value;
+        table.filled[slot] = true;
+        return value;
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double[] gradient) {
+        return sampler.gradient(seed, x, y, gradient);
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double z, double[] gradient) {
+        return sampler.gradient(seed, x, y, z, gradient);
+    }
+    
+    @Override
+    public double getMinimum() {
+        return sampler.getMinimum();
+    }
+    
+    @Override
+    public double getMaximum() {
+        return sampler.getMaximum();
+    }
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    /**
+     * @return The fraction of lookups answered from the cache, or 0 if there have been none.
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        CacheSampler that = (CacheSampler) obj;
+        return sampler.equals(that.sampler) &&
+               size == that.size &&
+               cache3D == that.cache3D;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(sampler, size, cache3D);
+    }
+    
+    @Override
+    public String toString() {
+        return "CacheSampler{hits=" + getHits() + ", misses=" + getMisses() + ", hitRate=" + getHitRate() + "}";
+    }
+    
+    private static final class Table {
+        private final int shift;
+        private final long[] keys;
+        private final double[] values;
+        private final boolean[] filled;
+        
+        private Table(int bits, int keyLength) {
+            this.shift = 64 - bits;
+            int entries = 1 << bits;
+            this.keys = new long[entries * keyLength];
+            this.values = new double[entries];
+            this.filled = new boolean[entries];
+        }
+        
+        private int slot(long hash) {
+            return (int) (hash >>> shift);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.noise.samplers;
+
+import com.dfsek.paralithic.Expression;
+
+import java.util.Objects;
+
+import com.dfsek.terra.addons.noise.paralithic.noise.ExpressionFrames;
+import com.dfsek.terra.addons.noise.paralithic.noise.SeedContext;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+
+/**
+ * A sampler tree flattened into a pair of compiled expressions by the
+ * {@link com.dfsek.terra.addons.noise.paralithic.compiler.SamplerCompiler}.
+ */
+public class CompiledSampler implements NoiseSampler {
+    private final NoiseSampler source;
+    private final Expression expression2;
+    private final Expression expression3;
+    
+    public CompiledSampler(NoiseSampler source, Expression expression2, Expression expression3) {
+        this.source = source;
+        this.expression2 = expression2;
+        this.expression3 = expression3;
+    }
+    
+    @Override
+    public double noise(long seed, double x, double y) {
+        return ExpressionFrames.get().evaluate(expression2, seed, x, y);
+    }
+    
+    @Override
+    public double noise(long seed, double x, double y, double z) {
+        return ExpressionFrames.get().evaluate(expression3, seed, x, y, z);
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double[] gradient) {
+        return source.gradient(seed, x, y, gradient);
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double z, double[] gradient) {
+        return source.gradient(seed, x, y, z, gradient);
+    }
+    
+    @Override
+    public double getMinimum() {
+        return source.getMinimum();
+    }
+    
+    @Override
+    public double getMaximum() {
+        return source.getMaximum();
+    }
+    
+    /**
+     * Binds this sampler to a seed, sharing one expression context between every sample.
+     */
+    @Override
+    public NoiseSampler bind(long seed) {
+        return new Bound(this, seed);
+    }
+    
+    /**
+     * @return The interpreted sampler tree this sampler was compiled from.
+     */
+    public NoiseSampler getSource() {
+        return source;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        CompiledSampler that = (CompiledSampler) obj;
+        return source.equals(that.source);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(source);
+    }
+    
+    private static final class Bound implements NoiseSampler {
+        private final CompiledSampler sampler;
+        private final long seed;
+        private final SeedContext context;
+        
+        private Bound(CompiledSampler sampler, long seed) {
+            this.sampler = sampler;
+            this.seed = seed;
+            this.context = new SeedContext(seed);
+        }
+        
+        @Override
+        public double noise(long seed, double x, double y) {
+            return ExpressionFrames.get().evaluate(sampler.expression2, context, x, y);
+        }
+        
+        @Override
+        public double noise(long seed, double x, double y, double z) {
+            return ExpressionFrames.get().evaluate(sampler.expression3, context, x, y, z);
+        }
+        
+        @Override
+        public double gradient(long seed, double x, double y, double[] gradient) {
+            return sampler.gradient(this.seed, x, y, gradient);
+        }
+        
+        @Override
+        public double gradient(long seed, double x, double y, double z, double[] gradient) {
+            return sampler.gradient(this.seed, x, y, z, gradient);
+        }
+        
+        @Override
+        public double getMinimum() {
+            return sampler.getMinimum();
+        }
+        
+        @Override
+        public double getMaximum() {
+            return sampler.getMaximum();
+        }
+        
+        @Override
+        public NoiseSampler bind(long seed) {
+            return this;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if(this == obj) return true;
+            if(obj == null || getClass() != obj.getClass()) return false;
+            Bound that = (Bound) obj;
+            return seed == that.seed &&
+                   sampler.equals(that.sampler);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(sampler, seed);
+        }
+    }
+}
@@ -7,6 +7,8 @@
 
 package com.dfsek.terra.addons.noise.samplers;
 
+import java.util.Objects;
+
 import com.dfsek.terra.api.noise.NoiseSampler;
 
 
@@ -37,4 +39,221 @@ public class DomainWarpedSampler implements NoiseSampler {
                               z + warp.noise(seed, x, y, z) * amplitude
                              );
     }
+    
+    @Override
+    public void noise(long seed, double[] x, double[] y, double[] out) {
+        int length = out.length;
+        ScratchArrays scratch = ScratchArrays.get();
+        int mark = scratch.mark();
+        try {
+            double[] warpX = scratch.take(length);
+            double[] warpY = scratch.take(length);
+            warp.noise(seed + 1, x, y, warpX);
+            warp.noise(seed + 2, x, y, warpY);
+            for(int i = 0; i < length; i++) {
+                warpX[i] = x[i] + warpX[i] * amplitude;
+                warpY[i] = y[i] + warpY[i] * amplitude;
+            }
+            function.noise(seed, warpX, warpY, out);
+        } finally {
+            scratch.release(mark);
+        }
+    }
+    
+    @Override
+    public void noise(long seed, double[] x, double[] y, double[] z, double[] out) {
+        int length = out.length;
+        ScratchArrays scratch = ScratchArrays.get();
+        int mark = scratch.mark();
+        try {
+            double[] warpX = scratch.take(length);
+            double[] warpY = scratch.take(length);
+            double[] warpZ = scratch.take(length);
+            warp.noise(seed + 1, x, y, z, warpX);
+            warp.noise(seed + 2, x, y, z, warpY);
+            warp.noise(seed + 3, x, y, z, warpZ);
+            for(int i = 0; i < length; i++) {
+                warpX[i] = x[i] + warpX[i] * amplitude;
+                warpY[i] = y[i] + warpY[i] * amplitude;
+                warpZ[i] = z[i] + warpZ[i] * amplitude;
+            }
+            function.noise(seed, warpX, warpY, warpZ, out);
+        } finally {
+            scratch.release(mark);
+        }
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double[] gradient) {
+        double[] warpXGradient = new double[2];
+        double[] warpYGradient = new double[2];
+        double warpX = warp.gradient(seed + 1, x, y, warpXGradient) * amplitude;
+        double warpY = warp.gradient(seed + 2, x, y, warpYGradient) * amplitude;
+        
+        double value = function.gradient(seed, x + warpX, y + warpY, gradient);
+        double du = gradient[0];
+        double dv = gradient[1];
+        
+        // Chain rule through the warped coordinates.
+        gradient[0] = du * (1 + warpXGradient[0] * amplitude) + dv * warpYGradient[0] * amplitude;
+        gradient[1] = du * warpXGradient[1] * amplitude + dv * (1 + warpYGradient[1] * amplitude);
+        return value;
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double z, double[] gradient) {
+        double[] warpXGradient = new double[3];
+        double[] warpYGradient = new double[3];
+        double[] warpZGradient = new double[3];
+        double warpX = warp.gradient(seed + 1, x, y, z, warpXGradient) * amplitude;
+        double warpY = warp.gradient(seed + 2, x, y, z, warpYGradient) * amplitude;
+        double warpZ = warp.gradient(seed + 3, x, y, z, warpZGradient) * amplitude;
+        
+        double value = function.gradient(seed, x + warpX, y + warpY, z + warpZ, gradient);
+        double du = gradient[0];
+        double dv = gradient[1];
+        double dw = gradient[2];
+        
+        // Chain rule through the warped coordinates.
+        for(int axis = 0; axis < 3; axis++) {
+            gradient[axis] = du * warpXGradient[axis] * amplitude +
+                             dv * warpYGradient[axis] * amplitude +
+                             dw * warpZGradient[axis] * amplitude;
+        }
+        gradient[0] += du;
+        gradient[1] += dv;
+        gradient[2] += dw;
+        return value;
+    }
+    
+    @Override
+    public double getMinimum() {
+        return function.getMinimum();
+    }
+    
+    @Override
+    public double getMaximum() {
+        return function.getMaximum();
+    }
+    
+    @Override
+    public NoiseSampler bind(long seed) {
+        return new Bound(this, seed);
+    }
+    
+    public NoiseSampler getFunction() {
+        return function;
+    }
+    
+    public NoiseSampler getWarp() {
+        return warp;
+    }
+    
+    public double getAmplitude() {
+        return amplitude;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        DomainWarpedSampler that = (DomainWarpedSampler) obj;
+        return function.equals(that.function) &&
+               warp.equals(that.warp) &&
+               Double.compare(amplitude, that.amplitude) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(function, warp, amplitude);
+    }
+    
+    /**
+     * Binds the function and each warp axis to the seed it is sampled with.
+     */
+    private static final class Bound implements NoiseSampler {
+        private final DomainWarpedSampler sampler;
+        private final long seed;
+        private final NoiseSampler function;
+        private final NoiseSampler warpX;
+        private final NoiseSampler warpY;
+        private final NoiseSampler warpZ;
+        private final double amplitude;
+        
+        private Bound(DomainWarpedSampler sampler, long seed) {
+            this.sampler = sampler;
+            this.seed = seed;
+            this.function = sampler.function.bind(seed);
+            this.warpX = sampler.warp.bind(seed + 1);
+            this.warpY = sampler.warp.bind(seed + 2);
+            this.warpZ = sampler.warp.bind(seed + 3);
+            this.amplitude = sampler.amplitude;
+        }
+        
+        @Override
+        public double noise(long seed, double x, double y) {
+            return function.noise(seed,
+                                  x + warpX.noise(seed, x, y) * amplitude,
+                                  y + warpY.noise(seed, x, y) * amplitude
+                                 );
+        }
+        
+        @Override
+        public double noise(long seed, double x, double y, double z) {
+            return function.noise(seed,
+                                  x + warpX.noise(seed, x, y, z) * amplitude,
+                                  y + warpY.noise(seed, x, y, z) * amplitude,
+                                  z + warpZ.noise(seed, x, y, z) * amplitude
+                                 );
+        }
+        
+        @Override
+        public void noise(long seed, double[] x, double[] y, double[] out) {
+            sampler.noise(this.seed, x, y, out);
+        }
+        
+        @Override
+        public void noise(long seed, double[] x, double[] y, double[] z, double[] out) {
+            sampler.noise(this.seed, x, y, z, out);
+        }
+        
+        @Override
+        public double gradient(long seed, double x, double y, double[] gradient) {
+            return sampler.gradient(this.seed, x, y, gradient);
+        }
+        
+        @Override
+        public double gradient(long seed, double x, double y, double z, double[] gradient) {
+            return sampler.gradient(this.seed, x, y, z, gradient);
+        }
+        
+        @Override
+        public double getMinimum() {
+            return sampler.getMinimum();
+        }
+        
+        @Override
+        public double getMaximum() {
+            return sampler.getMaximum();
+        }
+        
+        @Override
+        public NoiseSampler bind(long seed) {
+            return this;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if(this == obj) return true;
+            if(obj == null || getClass() != obj.getClass()) return false;
+            Bound that = (Bound) obj;
+            return seed == that.seed &&
+                   sampler.equals(that.sampler);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(sampler, seed);
+        }
+    }
 }
@@ -10,6 +10,7 @@ package com.dfsek.terra.addons.noise.samplers;
 import net.jafama.FastMath;
 
 import java.awt.image.BufferedImage;
+import java.util.Objects;
 
 import com.dfsek.terra.api.noise.NoiseSampler;
 
@@ -38,6 +39,21 @@ public class ImageSampler implements NoiseSampler {
         return noise(seed, x, y);
     }
     
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        ImageSampler that = (ImageSampler) obj;
+        return image == that.image &&
+               channel == that.channel &&
+               Double.compare(frequency, that.frequency) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(System.identityHashCode(image), channel, frequency);
+    }
+    
     public enum Channel {
         RED {
             @Override
@@ -7,6 +7,9 @@
 
 package com.dfsek.terra.addons.noise.samplers;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 import com.dfsek.terra.api.noise.NoiseSampler;
 
 
@@ -60,4 +63,19 @@ public class KernelSampler implements NoiseSampler {
         
         return accumulator;
     }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        KernelSampler that = (KernelSampler) obj;
+        return Arrays.deepEquals(kernel, that.kernel) &&
+               in.equals(that.in) &&
+               Double.compare(frequency, that.frequency) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(Arrays.deepHashCode(kernel), in, frequency);
+    }
 }
@@ -1,5 +1,7 @@
 package com.dfsek.terra.addons.noise.samplers;
 
+import java.util.Objects;
+
 import com.dfsek.terra.api.noise.NoiseSampler;
 
 
@@ -24,4 +26,37 @@ public class LinearHeightmapSampler implements NoiseSampler {
     public double noise(long seed, double x, double y, double z) {
         return -y + base + sampler.noise(seed, x, y, z) * scale;
     }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double[] gradient) {
+        double[] gradient3D = new double[3];
+        double value = gradient(seed, x, 0, y, gradient3D);
+        gradient[0] = gradient3D[0];
+        gradient[1] = gradient3D[2];
+        return value;
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double z, double[] gradient) {
+        double value = -y + base + sampler.gradient(seed, x, y, z, gradient) * scale;
+        gradient[0] *= scale;
+        gradient[1] = gradient[1] * scale - 1;
+        gradient[2] *= scale;
+        return value;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        LinearHeightmapSampler that = (LinearHeightmapSampler) obj;
+        return sampler.equals(that.sampler) &&
+               Double.compare(scale, that.scale) == 0 &&
+               Double.compare(base, that.base) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(sampler, scale, base);
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.noise.samplers;
+
+import java.util.Arrays;
+
+
+/**
+ * Per-thread scratch space for batched sampling, so that samplers don't allocate intermediate arrays on every batch.
+ * <p>
+ * Batch sizes are taken from array lengths, so arrays are handed out with exactly the requested length. Samplers nest, so arrays
+ * are taken from a stack: a sampler marks the stack, takes what it needs, and releases back to its mark when it is done, leaving
+ * the arrays it took to whatever it calls into untouched.
+ * <pre>{@code
+ * ScratchArrays scratch = ScratchArrays.get();
+ * int mark = scratch.mark();
+ * try {
+ *     double[] values = scratch.take(out.length);
+ *     ...
+ * } finally {
+ *     scratch.release(mark);
+ * }
+ * }</pre>
+ * Arrays are kept per stack slot and length, for lengths up to {@value #MAX_CACHED_LENGTH}; longer arrays are allocated every
+ * time. Contents are left over from earlier batches, so callers must write every element before reading it.
+ */
+public final class ScratchArrays {
+    private static final int MAX_CACHED_LENGTH = 1024;
+    
+    private static final ThreadLocal<ScratchArrays> SCRATCH = ThreadLocal.withInitial(ScratchArrays::new);
+    
+    // Arrays of each stack slot, indexed by length.
+    private double[][][] slots = new double[8][][];
+    private int top;
+    
+    private ScratchArrays() {
+    
+    }
+    
+    /**
+     * @return The scratch space of the current thread.
+     */
+    public static ScratchArrays get() {
+        return SCRATCH.get();
+    }
+    
+    /**
+     * @return The current top of the stack, to {@link #release(int)} back to.
+     */
+    public int mark() {
+        return top;
+    }
+    
+    /**
+     * Returns every array taken since {@code mark} was obtained.
+     */
+    public void release(int mark) {
+        top = mark;
+    }
+    
+    /**
+     * @return An array of exactly {@code length} elements, with arbitrary contents, that is the caller's until it releases it.
+     */
+    public double[] take(int length) {
+        if(top == slots.length) slots = Arrays.copyOf(slots, top * 2);
+        int slot = top++;
+        if(length > MAX_CACHED_LENGTH) return new double[length];
+        
+        double[][] byLength = slots[slot];
+        if(byLength == null || byLength.length <= length) {
+            byLength = byLength == null ? new double[length + 1][] : Arrays.copyOf(byLength, Math.max(length + 1, byLength.length * 2));
+            slots[slot] = byLength;
+        }
+        double[] array = byLength[length];
+        if(array == null) {
+            array = new double[length];
+            byLength[length] = array;
+        }
+        return array;
+    }
+}
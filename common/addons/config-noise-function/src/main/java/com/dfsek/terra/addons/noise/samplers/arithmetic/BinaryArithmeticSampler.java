@@ -1,15 +1,37 @@
 package com.dfsek.terra.addons.noise.samplers.arithmetic;
 
+import java.util.Objects;
+
+import com.dfsek.terra.addons.noise.samplers.ScratchArrays;
 import com.dfsek.terra.api.noise.NoiseSampler;
 
 
 public abstract class BinaryArithmeticSampler implements NoiseSampler {
     private final NoiseSampler left;
     private final NoiseSampler right;
+    private final double minimum;
+    private final double maximum;
     
+    /**
+     * Bounds are computed once here, from the bounds of both operands. Computing them on every query would make nested samplers
+     * recompute the bounds of their operands exponentially often.
+     */
     protected BinaryArithmeticSampler(NoiseSampler left, NoiseSampler right) {
         this.left = left;
         this.right = right;
+        double leftMin = left.getMinimum();
+        double leftMax = left.getMaximum();
+        double rightMin = right.getMinimum();
+        double rightMax = right.getMaximum();
+        this.minimum = bound(leftMin, leftMax, rightMin, rightMax, false);
+        this.maximum = bound(leftMin, leftMax, rightMin, rightMax, true);
+    }
+    
+    private BinaryArithmeticSampler(NoiseSampler left, NoiseSampler right, double minimum, double maximum) {
+        this.left = left;
+        this.right = right;
+        this.minimum = minimum;
+        this.maximum = maximum;
     }
     
     @Override
@@ -22,5 +44,162 @@ public abstract class BinaryArithmeticSampler implements NoiseSampler {
         return operate(left.noise(seed, x, y, z), right.noise(seed, x, y, z));
     }
     
+    @Override
+    public void noise(long seed, double[] x, double[] y, double[] out) {
+        ScratchArrays scratch = ScratchArrays.get();
+        int mark = scratch.mark();
+        try {
+            double[] rightValues = scratch.take(out.length);
+            left.noise(seed, x, y, out);
+            right.noise(seed, x, y, rightValues);
+            for(int i = 0; i < out.length; i++) {
+                out[i] = operate(out[i], rightValues[i]);
+            }
+        } finally {
+            scratch.release(mark);
+        }
+    }
+    
+    @Override
+    public void noise(long seed, double[] x, double[] y, double[] z, double[] out) {
+        ScratchArrays scratch = ScratchArrays.get();
+        int mark = scratch.mark();
+        try {
+            double[] rightValues = scratch.take(out.length);
+            left.noise(seed, x, y, z, out);
+            right.noise(seed, x, y, z, rightValues);
+            for(int i = 0; i < out.length; i++) {
+                out[i] = operate(out[i], rightValues[i]);
+            }
+        } finally {
+            scratch.release(mark);
+        }
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double[] gradient) {
+        double[] rightGradient = new double[2];
+        double l = left.gradient(seed, x, y, gradient);
+        double r = right.gradient(seed, x, y, rightGradient);
+        gradient[0] = operateDerivative(l, gradient[0], r, rightGradient[0]);
+        gradient[1] = operateDerivative(l, gradient[1], r, rightGradient[1]);
+        return operate(l, r);
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double z, double[] gradient) {
+        double[] rightGradient = new double[3];
+        double l = left.gradient(seed, x, y, z, gradient);
+        double r = right.gradient(seed, x, y, z, rightGradient);
+        gradient[0] = operateDerivative(l, gradient[0], r, rightGradient[0]);
+        gradient[1] = operateDerivative(l, gradient[1], r, rightGradient[1]);
+        gradient[2] = operateDerivative(l, gradient[2], r, rightGradient[2]);
+        return operate(l, r);
+    }
+    
     public abstract double operate(double left, double right);
+    
+    /**
+     * Apply the chain rule to {@link #operate(double, double)} along one axis.
+     *
+     * @param left            Value of the left operand
+     * @param leftDerivative  Derivative of the left operand
+     * @param right           Value of the right operand
+     * @param rightDerivative Derivative of the right operand
+     *
+     * @return Derivative of the result
+     */
+    public abstract double operateDerivative(double left, double leftDerivative, double right, double rightDerivative);
+    
+    /**
+     * Bound the result of {@link #operate(double, double)} for operands within the given bounds. Unbounded unless overridden.
+     * <p>
+     * This is called while constructing the sampler, so it must not depend on any state of subclasses.
+     */
+    protected double bound(double leftMin, double leftMax, double rightMin, double rightMax, boolean upper) {
+        return upper ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+    }
+    
+    @Override
+    public double getMinimum() {
+        return minimum;
+    }
+    
+    @Override
+    public double getMaximum() {
+        return maximum;
+    }
+    
+    /**
+     * Select the smallest or largest of the candidate bounds, treating undefined candidates (such as 0 * infinity) as unbounded.
+     */
+    protected static double extreme(double a, double b, double c, double d, boolean upper) {
+        double extreme = upper ? Math.max(Math.max(a, b), Math.max(c, d)) : Math.min(Math.min(a, b), Math.min(c, d));
+        if(Double.isNaN(extreme)) return upper ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        return extreme;
+    }
+    
+    @Override
+    public NoiseSampler bind(long seed) {
+        return new Bound(this, left.bind(seed), right.bind(seed));
+    }
+    
+    public NoiseSampler getLeft() {
+        return left;
+    }
+    
+    public NoiseSampler getRight() {
+        return right;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        BinaryArithmeticSampler that = (BinaryArithmeticSampler) obj;
+        return left.equals(that.left) &&
+               right.equals(that.right);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass(), left, right);
+    }
+    
+    /**
+     * Applies the operation of another sampler to operands bound to a seed.
+     */
+    private static final class Bound extends BinaryArithmeticSampler {
+        private final BinaryArithmeticSampler sampler;
+        
+        private Bound(BinaryArithmeticSampler sampler, NoiseSampler left, NoiseSampler right) {
+            super(left, right, sampler.getMinimum(), sampler.getMaximum());
+            this.sampler = sampler;
+        }
+        
+        @Override
+        public double operate(double left, double right) {
+            return sampler.operate(left, right);
+        }
+        
+        @Override
+        public double operateDerivative(double left, double leftDerivative, double right, double rightDerivative) {
+            return sampler.operateDerivative(left, leftDerivative, right, rightDerivative);
+        }
+        
+        @Override
+        public NoiseSampler bind(long seed) {
+            return this;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            return super.equals(obj) && sampler.getClass() == ((Bound) obj).sampler.getClass();
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * super.hashCode() + sampler.getClass().hashCode();
+        }
+    }
 }
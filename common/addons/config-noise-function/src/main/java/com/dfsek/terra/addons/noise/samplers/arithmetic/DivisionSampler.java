@@ -12,4 +12,17 @@ public class DivisionSampler extends BinaryArithmeticSampler {
     public double operate(double left, double right) {
         return left / right;
     }
+    
+    @Override
+    public double operateDerivative(double left, double leftDerivative, double right, double rightDerivative) {
+        return (leftDerivative * right - left * rightDerivative) / (right * right);
+    }
+    
+    @Override
+    protected double bound(double leftMin, double leftMax, double rightMin, double rightMax, boolean upper) {
+        if(rightMin <= 0 && rightMax >= 0) { // the divisor may be 0
+            return upper ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        }
+        return extreme(leftMin / rightMin, leftMin / rightMax, leftMax / rightMin, leftMax / rightMax, upper);
+    }
 }
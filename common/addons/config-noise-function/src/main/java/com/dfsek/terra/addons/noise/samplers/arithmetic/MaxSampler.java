@@ -14,4 +14,14 @@ public class MaxSampler extends BinaryArithmeticSampler {
     public double operate(double left, double right) {
         return FastMath.max(left, right);
     }
+    
+    @Override
+    public double operateDerivative(double left, double leftDerivative, double right, double rightDerivative) {
+        return left >= right ? leftDerivative : rightDerivative;
+    }
+    
+    @Override
+    protected double bound(double leftMin, double leftMax, double rightMin, double rightMax, boolean upper) {
+        return upper ? FastMath.max(leftMax, rightMax) : FastMath.max(leftMin, rightMin);
+    }
 }
@@ -14,4 +14,14 @@ public class MinSampler extends BinaryArithmeticSampler {
     public double operate(double left, double right) {
         return FastMath.min(left, right);
     }
+    
+    @Override
+    public double operateDerivative(double left, double leftDerivative, double right, double rightDerivative) {
+        return left <= right ? leftDerivative : rightDerivative;
+    }
+    
+    @Override
+    protected double bound(double leftMin, double leftMax, double rightMin, double rightMax, boolean upper) {
+        return upper ? FastMath.min(leftMax, rightMax) : FastMath.min(leftMin, rightMin);
+    }
 }
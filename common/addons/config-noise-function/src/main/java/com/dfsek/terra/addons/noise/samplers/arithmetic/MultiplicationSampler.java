@@ -12,4 +12,14 @@ public class MultiplicationSampler extends BinaryArithmeticSampler {
     public double operate(double left, double right) {
         return left * right;
     }
+    
+    @Override
+    public double operateDerivative(double left, double leftDerivative, double right, double rightDerivative) {
+        return leftDerivative * right + left * rightDerivative;
+    }
+    
+    @Override
+    protected double bound(double leftMin, double leftMax, double rightMin, double rightMax, boolean upper) {
+        return extreme(leftMin * rightMin, leftMin * rightMax, leftMax * rightMin, leftMax * rightMax, upper);
+    }
 }
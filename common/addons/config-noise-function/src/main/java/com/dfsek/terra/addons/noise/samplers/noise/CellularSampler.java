@@ -9,6 +9,8 @@ package com.dfsek.terra.addons.noise.samplers.noise;
 
 import net.jafama.FastMath;
 
+import java.util.Objects;
+
 import com.dfsek.terra.addons.noise.samplers.noise.simplex.OpenSimplex2Sampler;
 import com.dfsek.terra.api.noise.NoiseSampler;
 
@@ -200,6 +202,9 @@ public class CellularSampler extends NoiseFunction {
     
     private NoiseSampler noiseLookup;
     
+    private final ThreadLocal<CellCache> lookups2D = ThreadLocal.withInitial(() -> new CellCache(2));
+    private final ThreadLocal<CellCache> lookups3D = ThreadLocal.withInitial(() -> new CellCache(3));
+    
     public CellularSampler() {
         noiseLookup = new OpenSimplex2Sampler();
     }
@@ -231,6 +236,8 @@ public class CellularSampler extends NoiseFunction {
         double distance2 = Double.MAX_VALUE;
         
         int closestHash = 0;
+        int closestX = xr;
+        int closestY = yr;
         
         double cellularJitter = 0.43701595 * jitterModifier;
         
@@ -260,6 +267,8 @@ public class CellularSampler extends NoiseFunction {
                         if(newDistance < distance0) {
                             distance0 = newDistance;
                             closestHash = hash;
+                            closestX = xi;
+                            closestY = yi;
                             centerX = ((xi + RAND_VECS_2D[idx] * cellularJitter) / frequency);
                             centerY = ((yi + RAND_VECS_2D[idx | 1] * cellularJitter) / frequency);
                         } else if(newDistance < distance1) {
@@ -290,6 +299,8 @@ public class CellularSampler extends NoiseFunction {
                         if(newDistance < distance0) {
                             distance0 = newDistance;
                             closestHash = hash;
+                            closestX = xi;
+                            closestY = yi;
                             centerX = ((xi + RAND_VECS_2D[idx] * cellularJitter) / frequency);
                             centerY = ((yi + RAND_VECS_2D[idx | 1] * cellularJitter) / frequency);
                         } else if(newDistance < distance1) {
@@ -320,6 +331,8 @@ public class CellularSampler extends NoiseFunction {
                         if(newDistance < distance0) {
                             distance0 = newDistance;
                             closestHash = hash;
+                            closestX = xi;
+                            closestY = yi;
                             centerX = ((xi + RAND_VECS_2D[idx] * cellularJitter) / frequency);
                             centerY = ((yi + RAND_VECS_2D[idx | 1] * cellularJitter) / frequency);
                         } else if(newDistance < distance1) {
@@ -335,29 +348,8 @@ public class CellularSampler extends NoiseFunction {
                 break;
         }
         
-        if(distanceFunction == DistanceFunction.Euclidean && returnType != ReturnType.CellValue) {
-            distance0 = fastSqrt(distance0);
-            if(returnType != ReturnType.CellValue) {
-                distance1 = fastSqrt(distance1);
-            }
-        }
-        
-        return switch(returnType) {
-            case CellValue -> closestHash * (1 / 2147483648.0);
-            case Distance -> distance0 - 1;
-            case Distance2 -> distance1 - 1;
-            case Distance2Add -> (distance1 + distance0) * 0.5 - 1;
-            case Distance2Sub -> distance1 - distance0 - 1;
-            case Distance2Mul -> distance1 * distance0 * 0.5 - 1;
-            case Distance2Div -> distance0 / distance1 - 1;
-            case NoiseLookup -> noiseLookup.noise(sl, centerX, centerY);
-            case Distance3 -> distance2 - 1;
-            case Distance3Add -> (distance2 + distance0) * 0.5 - 1;
-            case Distance3Sub -> distance2 - distance0 - 1;
-            case Distance3Mul -> distance2 * distance0 - 1;
-            case Distance3Div -> distance0 / distance2 - 1;
-            case Angle -> FastMath.atan2(y / frequency - centerY, x / frequency - centerX);
-        };
+        if(returnType == ReturnType.NoiseLookup) return lookup(sl, closestX, closestY, centerX, centerY);
+        return finish(distance0, distance1, distance2, closestHash, x, y, centerX, centerY);
     }
     
     @Override
@@ -371,6 +363,9 @@ public class CellularSampler extends NoiseFunction {
         double distance1 = Double.MAX_VALUE;
         double distance2 = Double.MAX_VALUE;
         int closestHash = 0;
+        int closestX = xr;
+        int closestY = yr;
+        int closestZ = zr;
         
         double cellularJitter = 0.39614353 * jitterModifier;
         
@@ -404,6 +399,9 @@ public class CellularSampler extends NoiseFunction {
                             if(newDistance < distance0) {
                                 distance0 = newDistance;
                                 closestHash = hash;
+                                closestX = xi;
+                                closestY = yi;
+                                closestZ = zi;
                                 centerX = ((xi + RAND_VECS_3D[idx] * cellularJitter) / frequency);
                                 centerY = ((yi + RAND_VECS_3D[idx | 1] * cellularJitter) / frequency);
                                 centerZ = ((zi + RAND_VECS_3D[idx | 2] * cellularJitter) / frequency);
@@ -440,6 +438,9 @@ public class CellularSampler extends NoiseFunction {
                             if(newDistance < distance0) {
                                 distance0 = newDistance;
                                 closestHash = hash;
+                                closestX = xi;
+                                closestY = yi;
+                                closestZ = zi;
                                 centerX = ((xi + RAND_VECS_3D[idx] * cellularJitter) / frequency);
                                 centerY = ((yi + RAND_VECS_3D[idx | 1] * cellularJitter) / frequency);
                                 centerZ = ((zi + RAND_VECS_3D[idx | 2] * cellularJitter) / frequency);
@@ -478,6 +479,9 @@ public class CellularSampler extends NoiseFunction {
                             if(newDistance < distance0) {
                                 distance0 = newDistance;
                                 closestHash = hash;
+                                closestX = xi;
+                                closestY = yi;
+                                closestZ = zi;
                                 centerX = ((xi + RAND_VECS_3D[idx] * cellularJitter) / frequency);
                                 centerY = ((yi + RAND_VECS_3D[idx | 1] * cellularJitter) / frequency);
                                 centerZ = ((zi + RAND_VECS_3D[idx | 2] * cellularJitter) / frequency);
@@ -498,11 +502,171 @@ public class CellularSampler extends NoiseFunction {
                 break;
         }
         
+        if(returnType == ReturnType.NoiseLookup) return lookup(sl, closestX, closestY, closestZ, centerX, centerY, centerZ);
+        return finish(distance0, distance1, distance2, closestHash, x, y, centerX, centerY);
+    }
+    
+    /**
+     * Evaluates a batch of points, hashing the cell neighbourhood only when a point lands in a different cell than the point
+     * before it. Points in grids are ordered along an axis, so runs of points share their neighbourhood.
+     */
+    @Override
+    public void getNoiseRaw(long sl, double[] x, double[] y, double[] out) {
+        int seed = (int) sl;
+        double cellularJitter = 0.43701595 * jitterModifier;
+        Neighbourhood cells = new Neighbourhood(9);
+        int lastX = 0;
+        int lastY = 0;
+        
+        for(int i = 0; i < out.length; i++) {
+            int xr = fastRound(x[i]);
+            int yr = fastRound(y[i]);
+            if(i == 0 || xr != lastX || yr != lastY) {
+                int c = 0;
+                int xPrimed = (xr - 1) * PRIME_X;
+                for(int xi = xr - 1; xi <= xr + 1; xi++) {
+                    int yPrimed = (yr - 1) * PRIME_Y;
+                    for(int yi = yr - 1; yi <= yr + 1; yi++) {
+                        int hash = hash(seed, xPrimed, yPrimed);
+                        int idx = hash & (255 << 1);
+                        cells.set(c++, hash, xi, yi, 0, RAND_VECS_2D[idx] * cellularJitter, RAND_VECS_2D[idx | 1] * cellularJitter, 0);
+                        yPrimed += PRIME_Y;
+                    }
+                    xPrimed += PRIME_X;
+                }
+                lastX = xr;
+                lastY = yr;
+            }
+            out[i] = sample(sl, cells, x[i], y[i]);
+        }
+    }
+    
+    /**
+     * Evaluates a batch of points, hashing the cell neighbourhood only when a point lands in a different cell than the point
+     * before it.
+     */
+    @Override
+    public void getNoiseRaw(long sl, double[] x, double[] y, double[] z, double[] out) {
+        int seed = (int) sl;
+        double cellularJitter = 0.39614353 * jitterModifier;
+        Neighbourhood cells = new Neighbourhood(27);
+        int lastX = 0;
+        int lastY = 0;
+        int lastZ = 0;
+        
+        for(int i = 0; i < out.length; i++) {
+            int xr = fastRound(x[i]);
+            int yr = fastRound(y[i]);
+            int zr = fastRound(z[i]);
+            if(i == 0 || xr != lastX || yr != lastY || zr != lastZ) {
+                int c = 0;
+                int xPrimed = (xr - 1) * PRIME_X;
+                for(int xi = xr - 1; xi <= xr + 1; xi++) {
+                    int yPrimed = (yr - 1) * PRIME_Y;
+                    for(int yi = yr - 1; yi <= yr + 1; yi++) {
+                        int zPrimed = (zr - 1) * PRIME_Z;
+                        for(int zi = zr - 1; zi <= zr + 1; zi++) {
+                            int hash = hash(seed, xPrimed, yPrimed, zPrimed);
+                            int idx = hash & (255 << 2);
+                            cells.set(c++, hash, xi, yi, zi, RAND_VECS_3D[idx] * cellularJitter, RAND_VECS_3D[idx | 1] * cellularJitter,
+                                      RAND_VECS_3D[idx | 2] * cellularJitter);
+                            zPrimed += PRIME_Z;
+                        }
+                        yPrimed += PRIME_Y;
+                    }
+                    xPrimed += PRIME_X;
+                }
+                lastX = xr;
+                lastY = yr;
+                lastZ = zr;
+            }
+            out[i] = sample(sl, cells, x[i], y[i], z[i]);
+        }
+    }
+    
+    private double sample(long sl, Neighbourhood cells, double x, double y) {
+        double distance0 = Double.MAX_VALUE;
+        double distance1 = Double.MAX_VALUE;
+        double distance2 = Double.MAX_VALUE;
+        int closest = -1;
+        
+        for(int c = 0; c < 9; c++) {
+            double vecX = (cells.x[c] - x) + cells.offsetX[c];
+            double vecY = (cells.y[c] - y) + cells.offsetY[c];
+            
+            double newDistance = switch(distanceFunction) {
+                case Euclidean, EuclideanSq -> vecX * vecX + vecY * vecY;
+                case Manhattan -> fastAbs(vecX) + fastAbs(vecY);
+                case Hybrid -> (fastAbs(vecX) + fastAbs(vecY)) + (vecX * vecX + vecY * vecY);
+            };
+            
+            distance1 = fastMax(fastMin(distance1, newDistance), distance0);
+            if(newDistance < distance0) {
+                distance0 = newDistance;
+                closest = c;
+            } else if(newDistance < distance1) {
+                distance2 = distance1;
+                distance1 = newDistance;
+            } else if(newDistance < distance2) {
+                distance2 = newDistance;
+            }
+        }
+        
+        if(closest < 0) return getNoiseRaw(sl, x, y);
+        
+        double centerX = ((cells.x[closest] + cells.offsetX[closest]) / frequency);
+        double centerY = ((cells.y[closest] + cells.offsetY[closest]) / frequency);
+        if(returnType == ReturnType.NoiseLookup) return lookup(sl, cells.x[closest], cells.y[closest], centerX, centerY);
+        return finish(distance0, distance1, distance2, cells.hash[closest], x, y, centerX, centerY);
+    }
+    
+    private double sample(long sl, Neighbourhood cells, double x, double y, double z) {
+        double distance0 = Double.MAX_VALUE;
+        double distance1 = Double.MAX_VALUE;
+        double distance2 = Double.MAX_VALUE;
+        int closest = -1;
+        
+        for(int c = 0; c < 27; c++) {
+            double vecX = (cells.x[c] - x) + cells.offsetX[c];
+            double vecY = (cells.y[c] - y) + cells.offsetY[c];
+            double vecZ = (cells.z[c] - z) + cells.offsetZ[c];
+            
+            double newDistance = switch(distanceFunction) {
+                case Euclidean, EuclideanSq -> vecX * vecX + vecY * vecY + vecZ * vecZ;
+                case Manhattan -> fastAbs(vecX) + fastAbs(vecY) + fastAbs(vecZ);
+                case Hybrid -> (fastAbs(vecX) + fastAbs(vecY) + fastAbs(vecZ)) + (vecX * vecX + vecY * vecY + vecZ * vecZ);
+            };
+            
+            if(distanceFunction == DistanceFunction.Hybrid) { // matches the single-point path
+                distance1 = fastMax(fastMin(distance1, newDistance), distance0);
+            }
+            if(newDistance < distance0) {
+                distance0 = newDistance;
+                closest = c;
+            } else if(newDistance < distance1) {
+                distance2 = distance1;
+                distance1 = newDistance;
+            } else if(newDistance < distance2) {
+                distance2 = newDistance;
+            }
+        }
+        
+        if(closest < 0) return getNoiseRaw(sl, x, y, z);
+        
+        double centerX = ((cells.x[closest] + cells.offsetX[closest]) / frequency);
+        double centerY = ((cells.y[closest] + cells.offsetY[closest]) / frequency);
+        if(returnType == ReturnType.NoiseLookup) {
+            double centerZ = ((cells.z[closest] + cells.offsetZ[closest]) / frequency);
+            return lookup(sl, cells.x[closest], cells.y[closest], cells.z[closest], centerX, centerY, centerZ);
+        }
+        return finish(distance0, distance1, distance2, cells.hash[closest], x, y, centerX, centerY);
+    }
+    
+    private double finish(double distance0, double distance1, double distance2, int closestHash, double x, double y,
+                          double centerX, double centerY) {
         if(distanceFunction == DistanceFunction.Euclidean && returnType != ReturnType.CellValue) {
             distance0 = fastSqrt(distance0);
-            if(returnType != ReturnType.CellValue) {
-                distance1 = fastSqrt(distance1);
-            }
+            distance1 = fastSqrt(distance1);
         }
         
         return switch(returnType) {
@@ -513,7 +677,7 @@ public class CellularSampler extends NoiseFunction {
             case Distance2Sub -> distance1 - distance0 - 1;
             case Distance2Mul -> distance1 * distance0 * 0.5 - 1;
             case Distance2Div -> distance0 / distance1 - 1;
-            case NoiseLookup -> noiseLookup.noise(sl, centerX, centerY, centerZ);
+            case NoiseLookup -> throw new IllegalStateException("Noise lookups are resolved per cell");
             case Distance3 -> distance2 - 1;
             case Distance3Add -> (distance2 + distance0) * 0.5 - 1;
             case Distance3Sub -> distance2 - distance0 - 1;
@@ -523,6 +687,57 @@ public class CellularSampler extends NoiseFunction {
         };
     }
     
+    /*
+     * The lookup only depends on the seed and the winning cell, so every sample in a cell shares one result.
+     */
+    private double lookup(long seed, int cellX, int cellY, double centerX, double centerY) {
+        CellCache cache = lookups2D.get();
+        long cell = ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+        int slot = cache.slot(seed, cell, 0);
+        int key = slot * 2;
+        long[] keys = cache.keys;
+        if(cache.filled[slot] && keys[key] == seed && keys[key + 1] == cell) return cache.values[slot];
+        
+        double value = noiseLookup.noise(seed, centerX, centerY);
+        keys[key] = seed;
+        keys[key + 1] = cell;
+        cache.values[slot] = value;
+        cache.filled[slot] = true;
+        return value;
+    }
+    
+    private double lookup(long seed, int cellX, int cellY, int cellZ, double centerX, double centerY, double centerZ) {
+        CellCache cache = lookups3D.get();
+        long cell = ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+        int slot = cache.slot(seed, cell, cellZ);
+        int key = slot * 3;
+        long[] keys = cache.keys;
+        if(cache.filled[slot] && keys[key] == seed && keys[key + 1] == cell && keys[key + 2] == cellZ) return cache.values[slot];
+        
+        double value = noiseLookup.noise(seed, centerX, centerY, centerZ);
+        keys[key] = seed;
+        keys[key + 1] = cell;
+        keys[key + 2] = cellZ;
+        cache.values[slot] = value;
+        cache.filled[slot] = true;
+        return value;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(!super.equals(obj)) return false;
+        CellularSampler that = (CellularSampler) obj;
+        return distanceFunction == that.distanceFunction &&
+               returnType == that.returnType &&
+               Double.compare(jitterModifier, that.jitterModifier) == 0 &&
+               Objects.equals(noiseLookup, that.noiseLookup);
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hash(distanceFunction, returnType, jitterModifier, noiseLookup);
+    }
+    
     public enum DistanceFunction {
         Euclidean,
         EuclideanSq,
@@ -547,4 +762,58 @@ public class CellularSampler extends NoiseFunction {
         Distance3Div,
         Angle
     }
+    
+    /*
+     * Hashes and jittered feature point offsets of the cells around the cell a batch is currently sampling.
+     */
+    private static final class Neighbourhood {
+        private final int[] hash;
+        private final int[] x;
+        private final int[] y;
+        private final int[] z;
+        private final double[] offsetX;
+        private final double[] offsetY;
+        private final double[] offsetZ;
+        
+        private Neighbourhood(int size) {
+            this.hash = new int[size];
+            this.x = new int[size];
+            this.y = new int[size];
+            this.z = new int[size];
+            this.offsetX = new double[size];
+            this.offsetY = new double[size];
+            this.offsetZ = new double[size];
+        }
+        
+        private void set(int c, int hash, int x, int y, int z, double offsetX, double offsetY, double offsetZ) {
+            this.hash[c] = hash;
+            this.x[c] = x;
+            this.y[c] = y;
+            this.z[c] = z;
+            this.offsetX[c] = offsetX;
+            this.offsetY[c] = offsetY;
+            this.offsetZ[c] = offsetZ;
+        }
+    }
+    
+    /*
+     * Direct-mapped per-thread table of noise lookup results, keyed on the seed and cell coordinates.
+     */
+    private static final class CellCache {
+        private static final int BITS = 10;
+        
+        private final long[] keys;
+        private final double[] values = new double[1 << BITS];
+        private final boolean[] filled = new boolean[1 << BITS];
+        
+        private CellCache(int keyLength) {
+            this.keys = new long[keyLength << BITS];
+        }
+        
+        private int slot(long seed, long cell, int z) {
+            long h = (seed * 0x9E3779B97F4A7C15L + cell) * 0xBF58476D1CE4E5B9L + z;
+            h *= 0x94D049BB133111EBL;
+            return (int) (h >>> (64 - BITS));
+        }
+    }
 }
@@ -7,6 +7,10 @@
 
 package com.dfsek.terra.addons.noise.samplers.noise;
 
+import java.util.Arrays;
+import java.util.Objects;
+
+
 /**
  * Sampler3D implementation that returns a constant.
  */
@@ -26,4 +30,55 @@ public class ConstantSampler extends NoiseFunction {
     public double getNoiseRaw(long seed, double x, double y, double z) {
         return constant;
     }
+    
+    @Override
+    public void noise(long seed, double[] x, double[] y, double[] out) {
+        Arrays.fill(out, constant);
+    }
+    
+    @Override
+    public void noise(long seed, double[] x, double[] y, double[] z, double[] out) {
+        Arrays.fill(out, constant);
+    }
+    
+    @Override
+    public double getGradientRaw(long seed, double x, double y, double[] gradient) {
+        gradient[0] = 0;
+        gradient[1] = 0;
+        return constant;
+    }
+    
+    @Override
+    public double getGradientRaw(long seed, double x, double y, double z, double[] gradient) {
+        gradient[0] = 0;
+        gradient[1] = 0;
+        gradient[2] = 0;
+        return constant;
+    }
+    
+    @Override
+    public double getMinimum() {
+        return constant;
+    }
+    
+    @Override
+    public double getMaximum() {
+        return constant;
+    }
+    
+    public double getConstant() {
+        return constant;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(!super.equals(obj)) return false;
+        ConstantSampler that = (ConstantSampler) obj;
+        return Double.compare(constant, that.constant) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hash(constant);
+    }
 }
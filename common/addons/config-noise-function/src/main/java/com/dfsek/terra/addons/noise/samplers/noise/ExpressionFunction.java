@@ -14,8 +14,11 @@ import com.dfsek.paralithic.eval.tokenizer.ParseException;
 import com.dfsek.paralithic.functions.Function;
 
 import java.util.Map;
+import java.util.Objects;
 
+import com.dfsek.terra.addons.noise.paralithic.noise.ExpressionFrames;
 import com.dfsek.terra.addons.noise.paralithic.noise.SeedContext;
+import com.dfsek.terra.api.noise.NoiseSampler;
 
 
 /**
@@ -23,6 +26,9 @@ import com.dfsek.terra.addons.noise.paralithic.noise.SeedContext;
  */
 public class ExpressionFunction extends NoiseFunction {
     private final Expression expression;
+    private final String source;
+    private final Map<String, Double> vars;
+    private final Map<String, Function> functions;
     
     public ExpressionFunction(Map<String, Function> functions, String eq, Map<String, Double> vars) throws ParseException {
         Parser p = new Parser();
@@ -38,15 +44,98 @@ public class ExpressionFunction extends NoiseFunction {
         
         expression = p.parse(eq, scope);
         frequency = 1;
+        
+        this.source = eq;
+        this.vars = Map.copyOf(vars);
+        this.functions = Map.copyOf(functions);
     }
     
     @Override
     public double getNoiseRaw(long seed, double x, double y) {
-        return expression.evaluate(new SeedContext(seed), x, 0, y);
+        return ExpressionFrames.get().evaluate(expression, seed, x, 0, y);
     }
     
     @Override
     public double getNoiseRaw(long seed, double x, double y, double z) {
-        return expression.evaluate(new SeedContext(seed), x, y, z);
+        return ExpressionFrames.get().evaluate(expression, seed, x, y, z);
+    }
+    
+    /**
+     * Binds this function to a seed, sharing one expression context between every sample.
+     */
+    @Override
+    public NoiseSampler bind(long seed) {
+        return new Bound(this, seed);
+    }
+    
+    /*
+     * Expressions parsed from the same source, with the same variables and functions, evaluate the same, so the parsed
+     * expressions themselves aren't compared.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if(!super.equals(obj)) return false;
+        ExpressionFunction that = (ExpressionFunction) obj;
+        return source.equals(that.source) &&
+               vars.equals(that.vars) &&
+               functions.equals(that.functions);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), source, vars, functions);
+    }
+    
+    private static final class Bound implements NoiseSampler {
+        private final ExpressionFunction function;
+        private final long seed;
+        private final SeedContext context;
+        private final double frequency;
+        
+        private Bound(ExpressionFunction function, long seed) {
+            this.function = function;
+            this.seed = seed;
+            this.context = new SeedContext(seed + function.salt);
+            this.frequency = function.frequency;
+        }
+        
+        @Override
+        public double noise(long seed, double x, double y) {
+            return ExpressionFrames.get().evaluate(function.expression, context, x * frequency, 0, y * frequency);
+        }
+        
+        @Override
+        public double noise(long seed, double x, double y, double z) {
+            return ExpressionFrames.get().evaluate(function.expression, context, x * frequency, y * frequency, z * frequency);
+        }
+        
+        @Override
+        public double gradient(long seed, double x, double y, double[] gradient) {
+            return function.gradient(this.seed, x, y, gradient);
+        }
+        
+        @Override
+        public double gradient(long seed, double x, double y, double z, double[] gradient) {
+            return function.gradient(this.seed, x, y, z, gradient);
+        }
+        
+        @Override
+        public NoiseSampler bind(long seed) {
+            return this;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if(this == obj) return true;
+            if(obj == null || getClass() != obj.getClass()) return false;
+            Bound that = (Bound) obj;
+            return seed == that.seed &&
+                   function.equals(that.function);
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * function.hashCode() + Long.hashCode(seed);
+        }
     }
 }
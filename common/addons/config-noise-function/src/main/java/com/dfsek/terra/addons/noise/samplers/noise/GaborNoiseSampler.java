@@ -9,6 +9,8 @@ package com.dfsek.terra.addons.noise.samplers.noise;
 
 import net.jafama.FastMath;
 
+import java.util.Objects;
+
 import com.dfsek.terra.addons.noise.samplers.noise.random.WhiteNoiseSampler;
 
 
@@ -112,4 +114,21 @@ public class GaborNoiseSampler extends NoiseFunction {
     public double getNoiseRaw(long seed, double x, double y, double z) {
         return gaborNoise(seed, x, z);
     }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(!super.equals(obj)) return false;
+        GaborNoiseSampler that = (GaborNoiseSampler) obj;
+        return Double.compare(k, that.k) == 0 &&
+               Double.compare(a, that.a) == 0 &&
+               Double.compare(f0, that.f0) == 0 &&
+               Double.compare(impulsesPerKernel, that.impulsesPerKernel) == 0 &&
+               Double.compare(omega0, that.omega0) == 0 &&
+               isotropic == that.isotropic;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hash(k, a, f0, impulsesPerKernel, omega0, isotropic);
+    }
 }
@@ -9,6 +9,9 @@ package com.dfsek.terra.addons.noise.samplers.noise;
 
 import net.jafama.FastMath;
 
+import java.util.Objects;
+
+import com.dfsek.terra.addons.noise.samplers.ScratchArrays;
 import com.dfsek.terra.api.noise.NoiseSampler;
 
 
@@ -67,6 +70,14 @@ public abstract class NoiseFunction implements NoiseSampler {
         return t * t * t * (t * (t * 6 - 15) + 10);
     }
     
+    protected static double interpHermiteDerivative(double t) {
+        return 6 * t * (1 - t);
+    }
+    
+    protected static double interpQuinticDerivative(double t) {
+        return 30 * t * t * (t * (t - 2) + 1);
+    }
+    
     protected static double cubicLerp(double a, double b, double c, double d, double t) {
         double p = (d - c) - (a - b);
         return t * t * t * p + t * t * ((a - b) - p) + t * (c - a) + b;
@@ -126,6 +137,10 @@ public abstract class NoiseFunction implements NoiseSampler {
         this.salt = salt;
     }
     
+    public long getSalt() {
+        return salt;
+    }
+    
     public double getFrequency() {
         return frequency;
     }
@@ -144,7 +159,197 @@ public abstract class NoiseFunction implements NoiseSampler {
         return getNoiseRaw(seed + salt, x * frequency, y * frequency, z * frequency);
     }
     
+    @Override
+    public void noise(long seed, double[] x, double[] y, double[] out) {
+        ScratchArrays scratch = ScratchArrays.get();
+        int mark = scratch.mark();
+        try {
+            getNoiseRaw(seed + salt, scale(x, scratch.take(out.length)), scale(y, scratch.take(out.length)), out);
+        } finally {
+            scratch.release(mark);
+        }
+    }
+    
+    @Override
+    public void noise(long seed, double[] x, double[] y, double[] z, double[] out) {
+        ScratchArrays scratch = ScratchArrays.get();
+        int mark = scratch.mark();
+        try {
+            getNoiseRaw(seed + salt, scale(x, scratch.take(out.length)), scale(y, scratch.take(out.length)),
+                        scale(z, scratch.take(out.length)), out);
+        } finally {
+            scratch.release(mark);
+        }
+    }
+    
+    private double[] scale(double[] in, double[] scaled) {
+        for(int i = 0; i < scaled.length; i++) {
+            scaled[i] = in[i] * frequency;
+        }
+        return scaled;
+    }
+    
     public abstract double getNoiseRaw(long seed, double x, double y);
     
     public abstract double getNoiseRaw(long seed, double x, double y, double z);
+    
+    /**
+     * Evaluate raw 2D noise for a batch of already-scaled coordinates.
+     * <p>
+     * Coordinate arrays passed to this method are owned by the caller's batch and may be modified by implementations.
+     */
+    public void getNoiseRaw(long seed, double[] x, double[] y, double[] out) {
+        for(int i = 0; i < out.length; i++) {
+            out[i] = getNoiseRaw(seed, x[i], y[i]);
+        }
+    }
+    
+    /**
+     * Evaluate raw 3D noise for a batch of already-scaled coordinates.
+     * <p>
+     * Coordinate arrays passed to this method are owned by the caller's batch and may be modified by implementations.
+     */
+    public void getNoiseRaw(long seed, double[] x, double[] y, double[] z, double[] out) {
+        for(int i = 0; i < out.length; i++) {
+            out[i] = getNoiseRaw(seed, x[i], y[i], z[i]);
+        }
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double[] gradient) {
+        double value = getGradientRaw(seed + salt, x * frequency, y * frequency, gradient);
+        gradient[0] *= frequency;
+        gradient[1] *= frequency;
+        return value;
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double z, double[] gradient) {
+        double value = getGradientRaw(seed + salt, x * frequency, y * frequency, z * frequency, gradient);
+        gradient[0] *= frequency;
+        gradient[1] *= frequency;
+        gradient[2] *= frequency;
+        return value;
+    }
+    
+    /**
+     * Evaluate raw 2D noise and its gradient with respect to the already-scaled coordinates.
+     * <p>
+     * The default implementation uses central differences; analytic implementations should override it.
+     */
+    public double getGradientRaw(long seed, double x, double y, double[] gradient) {
+        gradient[0] = (getNoiseRaw(seed, x + GRADIENT_EPSILON, y) - getNoiseRaw(seed, x - GRADIENT_EPSILON, y)) / (2 * GRADIENT_EPSILON);
+        gradient[1] = (getNoiseRaw(seed, x, y + GRADIENT_EPSILON) - getNoiseRaw(seed, x, y - GRADIENT_EPSILON)) / (2 * GRADIENT_EPSILON);
+        return getNoiseRaw(seed, x, y);
+    }
+    
+    /**
+     * Evaluate raw 3D noise and its gradient with respect to the already-scaled coordinates.
+     * <p>
+     * The default implementation uses central differences; analytic implementations should override it.
+     */
+    public double getGradientRaw(long seed, double x, double y, double z, double[] gradient) {
+        gradient[0] = (getNoiseRaw(seed, x + GRADIENT_EPSILON, y, z) - getNoiseRaw(seed, x - GRADIENT_EPSILON, y, z)) /
+                      (2 * GRADIENT_EPSILON);
+        gradient[1] = (getNoiseRaw(seed, x, y + GRADIENT_EPSILON, z) - getNoiseRaw(seed, x, y - GRADIENT_EPSILON, z)) /
+                      (2 * GRADIENT_EPSILON);
+        gradient[2] = (getNoiseRaw(seed, x, y, z + GRADIENT_EPSILON) - getNoiseRaw(seed, x, y, z - GRADIENT_EPSILON)) /
+                      (2 * GRADIENT_EPSILON);
+        return getNoiseRaw(seed, x, y, z);
+    }
+    
+    /**
+     * Binds this function to a seed, salting the seed once rather than on every sample.
+     */
+    @Override
+    public NoiseSampler bind(long seed) {
+        return new Bound(this, seed);
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        NoiseFunction that = (NoiseFunction) obj;
+        return Double.compare(frequency, that.frequency) == 0 &&
+               salt == that.salt;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass(), frequency, salt);
+    }
+    
+    private static final class Bound implements NoiseSampler {
+        private final NoiseFunction function;
+        private final long seed;
+        private final long saltedSeed;
+        private final double frequency;
+        
+        private Bound(NoiseFunction function, long seed) {
+            this.function = function;
+            this.seed = seed;
+            this.saltedSeed = seed + function.salt;
+            this.frequency = function.frequency;
+        }
+        
+        @Override
+        public double noise(long seed, double x, double y) {
+            return function.getNoiseRaw(saltedSeed, x * frequency, y * frequency);
+        }
+        
+        @Override
+        public double noise(long seed, double x, double y, double z) {
+            return function.getNoiseRaw(saltedSeed, x * frequency, y * frequency, z * frequency);
+        }
+        
+        @Override
+        public void noise(long seed, double[] x, double[] y, double[] out) {
+            function.noise(this.seed, x, y, out);
+        }
+        
+        @Override
+        public void noise(long seed, double[] x, double[] y, double[] z, double[] out) {
+            function.noise(this.seed, x, y, z, out);
+        }
+        
+        @Override
+        public double gradient(long seed, double x, double y, double[] gradient) {
+            return function.gradient(this.seed, x, y, gradient);
+        }
+        
+        @Override
+        public double gradient(long seed, double x, double y, double z, double[] gradient) {
+            return function.gradient(this.seed, x, y, z, gradient);
+        }
+        
+        @Override
+        public double getMinimum() {
+            return function.getMinimum();
+        }
+        
+        @Override
+        public double getMaximum() {
+            return function.getMaximum();
+        }
+        
+        @Override
+        public NoiseSampler bind(long seed) {
+            return this;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if(this == obj) return true;
+            if(obj == null || getClass() != obj.getClass()) return false;
+            Bound that = (Bound) obj;
+            return seed == that.seed &&
+                   function.equals(that.function);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(function, seed);
+        }
+    }
 }
@@ -7,6 +7,9 @@
 
 package com.dfsek.terra.addons.noise.samplers.noise.fractal;
 
+import java.util.Arrays;
+
+import com.dfsek.terra.addons.noise.samplers.ScratchArrays;
 import com.dfsek.terra.api.noise.NoiseSampler;
 
 
@@ -15,6 +18,16 @@ public class BrownianMotionSampler extends FractalNoiseFunction {
         super(input);
     }
     
+    @Override
+    protected double bound(boolean upper) {
+        double min = input.getMinimum();
+        double max = input.getMaximum();
+        if(weightedStrength == 0) return boundOctaves(min, max, false, upper);
+        // Weighting only ever shrinks amplitudes while the input stays within [-1, 1].
+        if(weightedStrength > 0 && weightedStrength <= 1 && min >= -1 && max <= 1) return boundOctaves(min, max, true, upper);
+        return upper ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+    }
+    
     @Override
     public double getNoiseRaw(long seed, double x, double y) {
         double sum = 0;
@@ -51,4 +64,140 @@ public class BrownianMotionSampler extends FractalNoiseFunction {
         
         return sum;
     }
+    
+    @Override
+    public void getNoiseRaw(long seed, double[] x, double[] y, double[] out) {
+        int length = out.length;
+        ScratchArrays scratch = ScratchArrays.get();
+        int mark = scratch.mark();
+        try {
+            double[] noise = scratch.take(length);
+            double[] amp = scratch.take(length);
+            Arrays.fill(amp, fractalBounding);
+            Arrays.fill(out, 0);
+            
+            for(int i = 0; i < octaves; i++) {
+                input.noise(seed++, x, y, noise);
+                for(int j = 0; j < length; j++) {
+                    double n = noise[j];
+                    out[j] += n * amp[j];
+                    amp[j] *= lerp(1.0, fastMin(n + 1, 2) * 0.5, weightedStrength);
+                    
+                    x[j] *= lacunarity;
+                    y[j] *= lacunarity;
+                    amp[j] *= gain;
+                }
+            }
+        } finally {
+            scratch.release(mark);
+        }
+    }
+    
+    @Override
+    public void getNoiseRaw(long seed, double[] x, double[] y, double[] z, double[] out) {
+        int length = out.length;
+        ScratchArrays scratch = ScratchArrays.get();
+        int mark = scratch.mark();
+        try {
+            double[] noise = scratch.take(length);
+            double[] amp = scratch.take(length);
+            Arrays.fill(amp, fractalBounding);
+            Arrays.fill(out, 0);
+            
+            for(int i = 0; i < octaves; i++) {
+                input.noise(seed++, x, y, z, noise);
+                for(int j = 0; j < length; j++) {
+                    double n = noise[j];
+                    out[j] += n * amp[j];
+                    amp[j] *= lerp(1.0, (n + 1) * 0.5, weightedStrength);
+                    
+                    x[j] *= lacunarity;
+                    y[j] *= lacunarity;
+                    z[j] *= lacunarity;
+                    amp[j] *= gain;
+                }
+            }
+        } finally {
+            scratch.release(mark);
+        }
+    }
+    
+    @Override
+    public double getGradientRaw(long seed, double x, double y, double[] gradient) {
+        double sum = 0;
+        double amp = fractalBounding;
+        double scale = 1;
+        double sumX = 0;
+        double sumY = 0;
+        double ampX = 0;
+        double ampY = 0;
+        
+        for(int i = 0; i < octaves; i++) {
+            double noise = input.gradient(seed++, x, y, gradient);
+            double noiseX = gradient[0] * scale;
+            double noiseY = gradient[1] * scale;
+            
+            sum += noise * amp;
+            sumX += noiseX * amp + noise * ampX;
+            sumY += noiseY * amp + noise * ampY;
+            
+            double weight = lerp(1.0, fastMin(noise + 1, 2) * 0.5, weightedStrength);
+            double weightDerivative = noise + 1 < 2 ? weightedStrength * 0.5 : 0;
+            ampX = (ampX * weight + amp * weightDerivative * noiseX) * gain;
+            ampY = (ampY * weight + amp * weightDerivative * noiseY) * gain;
+            amp *= weight;
+            
+            x *= lacunarity;
+            y *= lacunarity;
+            amp *= gain;
+            scale *= lacunarity;
+        }
+        
+        gradient[0] = sumX;
+        gradient[1] = sumY;
+        return sum;
+    }
+    
+    @Override
+    public double getGradientRaw(long seed, double x, double y, double z, double[] gradient) {
+        double sum = 0;
+        double amp = fractalBounding;
+        double scale = 1;
+        double sumX = 0;
+        double sumY = 0;
+        double sumZ = 0;
+        double ampX = 0;
+        double ampY = 0;
+        double ampZ = 0;
+        
+        for(int i = 0; i < octaves; i++) {
+            double noise = input.gradient(seed++, x, y, z, gradient);
+            double noiseX = gradient[0] * scale;
+            double noiseY = gradient[1] * scale;
+            double noiseZ = gradient[2] * scale;
+            
+            sum += noise * amp;
+            sumX += noiseX * amp + noise * ampX;
+            sumY += noiseY * amp + noise * ampY;
+            sumZ += noiseZ * amp + noise * ampZ;
+            
+            double weight = lerp(1.0, (noise + 1) * 0.5, weightedStrength);
+            double weightDerivative = weightedStrength * 0.5;
+            ampX = (ampX * weight + amp * weightDerivative * noiseX) * gain;
+            ampY = (ampY * weight + amp * weightDerivative * noiseY) * gain;
+            ampZ = (ampZ * weight + amp * weightDerivative * noiseZ) * gain;
+            amp *= weight;
+            
+            x *= lacunarity;
+            y *= lacunarity;
+            z *= lacunarity;
+            amp *= gain;
+            scale *= lacunarity;
+        }
+        
+        gradient[0] = sumX;
+        gradient[1] = sumY;
+        gradient[2] = sumZ;
+        return sum;
+    }
 }
@@ -7,6 +7,8 @@
 
 package com.dfsek.terra.addons.noise.samplers.noise.fractal;
 
+import java.util.Objects;
+
 import com.dfsek.terra.addons.noise.samplers.noise.NoiseFunction;
 import com.dfsek.terra.api.noise.NoiseSampler;
 
@@ -19,6 +21,10 @@ public abstract class FractalNoiseFunction extends NoiseFunction {
     protected double lacunarity = 2.0d;
     protected double weightedStrength = 0.0d;
     
+    private double minimum;
+    private double maximum;
+    private volatile boolean bounded = false;
+    
     public FractalNoiseFunction(NoiseSampler input) {
         this.input = input;
         frequency = 1;
@@ -35,9 +41,62 @@ public abstract class FractalNoiseFunction extends NoiseFunction {
         fractalBounding = 1 / ampFractal;
     }
     
+    /**
+     * Bound the output of this fractal. Unbounded unless overridden.
+     * <p>
+     * Bounds are computed once, on first use, and computed again if the octaves, gain or weighted strength change.
+     */
+    protected double bound(boolean upper) {
+        return upper ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+    }
+    
+    @Override
+    public double getMinimum() {
+        if(!bounded) computeBounds();
+        return minimum;
+    }
+    
+    @Override
+    public double getMaximum() {
+        if(!bounded) computeBounds();
+        return maximum;
+    }
+    
+    private void computeBounds() {
+        minimum = bound(false);
+        maximum = bound(true);
+        bounded = true;
+    }
+    
+    /**
+     * Bound the sum of every octave's term, scaled by that octave's amplitude.
+     *
+     * @param termMin  Lower bound of each octave's term
+     * @param termMax  Upper bound of each octave's term
+     * @param weighted Whether earlier octaves may scale later amplitudes by a factor in [0, 1]
+     * @param upper    Whether to compute the upper rather than the lower bound
+     *
+     * @return The bound, or the matching infinity if it cannot be determined
+     */
+    protected double boundOctaves(double termMin, double termMax, boolean weighted, boolean upper) {
+        double sum = 0;
+        double amp = fractalBounding;
+        for(int i = 0; i < octaves; i++) {
+            double a = amp * termMin;
+            double b = amp * termMax;
+            double term = upper ? Math.max(a, b) : Math.min(a, b);
+            if(weighted) term = upper ? Math.max(term, 0) : Math.min(term, 0); // the amplitude may shrink towards 0
+            sum += term;
+            amp *= gain;
+        }
+        if(Double.isNaN(sum)) return upper ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        return sum;
+    }
+    
     public void setGain(double gain) {
         this.gain = gain;
         calculateFractalBounding();
+        bounded = false;
     }
     
     public void setLacunarity(double lacunarity) {
@@ -47,9 +106,51 @@ public abstract class FractalNoiseFunction extends NoiseFunction {
     public void setOctaves(int octaves) {
         this.octaves = octaves;
         calculateFractalBounding();
+        bounded = false;
     }
     
     public void setWeightedStrength(double weightedStrength) {
         this.weightedStrength = weightedStrength;
+        bounded = false;
+    }
+    
+    public NoiseSampler getInput() {
+        return input;
+    }
+    
+    public double getFractalBounding() {
+        return fractalBounding;
+    }
+    
+    public int getOctaves() {
+        return octaves;
+    }
+    
+    public double getGain() {
+        return gain;
+    }
+    
+    public double getLacunarity() {
+        return lacunarity;
+    }
+    
+    public double getWeightedStrength() {
+        return weightedStrength;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(!super.equals(obj)) return false;
+        FractalNoiseFunction that = (FractalNoiseFunction) obj;
+        return input.equals(that.input) &&
+               octaves == that.octaves &&
+               Double.compare(gain, that.gain) == 0 &&
+               Double.compare(lacunarity, that.lacunarity) == 0 &&
+               Double.compare(weightedStrength, that.weightedStrength) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hash(input, octaves, gain, lacunarity, weightedStrength);
     }
 }
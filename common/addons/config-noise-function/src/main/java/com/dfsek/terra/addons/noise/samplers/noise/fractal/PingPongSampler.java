@@ -7,6 +7,10 @@
 
 package com.dfsek.terra.addons.noise.samplers.noise.fractal;
 
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.dfsek.terra.addons.noise.samplers.ScratchArrays;
 import com.dfsek.terra.api.noise.NoiseSampler;
 
 
@@ -63,4 +67,73 @@ public class PingPongSampler extends FractalNoiseFunction {
         
         return sum;
     }
+    
+    @Override
+    public void getNoiseRaw(long seed, double[] x, double[] y, double[] out) {
+        int length = out.length;
+        ScratchArrays scratch = ScratchArrays.get();
+        int mark = scratch.mark();
+        try {
+            double[] noise = scratch.take(length);
+            double[] amp = scratch.take(length);
+            Arrays.fill(amp, fractalBounding);
+            Arrays.fill(out, 0);
+            
+            for(int i = 0; i < octaves; i++) {
+                input.noise(seed++, x, y, noise);
+                for(int j = 0; j < length; j++) {
+                    double n = pingPong((noise[j] + 1) * pingPongStrength);
+                    out[j] += (n - 0.5) * 2 * amp[j];
+                    amp[j] *= lerp(1.0, n, weightedStrength);
+                    
+                    x[j] *= lacunarity;
+                    y[j] *= lacunarity;
+                    amp[j] *= gain;
+                }
+            }
+        } finally {
+            scratch.release(mark);
+        }
+    }
+    
+    @Override
+    public void getNoiseRaw(long seed, double[] x, double[] y, double[] z, double[] out) {
+        int length = out.length;
+        ScratchArrays scratch = ScratchArrays.get();
+        int mark = scratch.mark();
+        try {
+            double[] noise = scratch.take(length);
+            double[] amp = scratch.take(length);
+            Arrays.fill(amp, fractalBounding);
+            Arrays.fill(out, 0);
+            
+            for(int i = 0; i < octaves; i++) {
+                input.noise(seed++, x, y, z, noise);
+                for(int j = 0; j < length; j++) {
+                    double n = pingPong((noise[j] + 1) * pingPongStrength);
+                    out[j] += (n - 0.5) * 2 * amp[j];
+                    amp[j] *= lerp(1.0, n, weightedStrength);
+                    
+                    x[j] *= lacunarity;
+                    y[j] *= lacunarity;
+                    z[j] *= lacunarity;
+                    amp[j] *= gain;
+                }
+            }
+        } finally {
+            scratch.release(mark);
+        }
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(!super.equals(obj)) return false;
+        PingPongSampler that = (PingPongSampler) obj;
+        return Double.compare(pingPongStrength, that.pingPongStrength) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hash(pingPongStrength);
+    }
 }
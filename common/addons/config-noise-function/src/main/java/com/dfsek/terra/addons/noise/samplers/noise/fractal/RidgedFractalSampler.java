@@ -7,6 +7,9 @@
 
 package com.dfsek.terra.addons.noise.samplers.noise.fractal;
 
+import java.util.Arrays;
+
+import com.dfsek.terra.addons.noise.samplers.ScratchArrays;
 import com.dfsek.terra.api.noise.NoiseSampler;
 
 
@@ -16,6 +19,20 @@ public class RidgedFractalSampler extends FractalNoiseFunction {
         super(input);
     }
     
+    @Override
+    protected double bound(boolean upper) {
+        double min = input.getMinimum();
+        double max = input.getMaximum();
+        double largest = Math.max(Math.abs(min), Math.abs(max));
+        double smallest = min > 0 ? min : max < 0 ? -max : 0;
+        double termMin = 1 - 2 * largest;
+        double termMax = 1 - 2 * smallest;
+        if(weightedStrength == 0) return boundOctaves(termMin, termMax, false, upper);
+        // Weighting only ever shrinks amplitudes while 1 - weightedStrength * |noise| stays within [0, 1].
+        if(weightedStrength > 0 && weightedStrength * largest <= 1) return boundOctaves(termMin, termMax, true, upper);
+        return upper ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+    }
+    
     @Override
     public double getNoiseRaw(long seed, double x, double y) {
         double sum = 0;
@@ -52,4 +69,144 @@ public class RidgedFractalSampler extends FractalNoiseFunction {
         
         return sum;
     }
+    
+    @Override
+    public void getNoiseRaw(long seed, double[] x, double[] y, double[] out) {
+        int length = out.length;
+        ScratchArrays scratch = ScratchArrays.get();
+        int mark = scratch.mark();
+        try {
+            double[] noise = scratch.take(length);
+            double[] amp = scratch.take(length);
+            Arrays.fill(amp, fractalBounding);
+            Arrays.fill(out, 0);
+            
+            for(int i = 0; i < octaves; i++) {
+                input.noise(seed++, x, y, noise);
+                for(int j = 0; j < length; j++) {
+                    double n = fastAbs(noise[j]);
+                    out[j] += (n * -2 + 1) * amp[j];
+                    amp[j] *= lerp(1.0, 1 - n, weightedStrength);
+                    
+                    x[j] *= lacunarity;
+                    y[j] *= lacunarity;
+                    amp[j] *= gain;
+                }
+            }
+        } finally {
+            scratch.release(mark);
+        }
+    }
+    
+    @Override
+    public void getNoiseRaw(long seed, double[] x, double[] y, double[] z, double[] out) {
+        int length = out.length;
+        ScratchArrays scratch = ScratchArrays.get();
+        int mark = scratch.mark();
+        try {
+            double[] noise = scratch.take(length);
+            double[] amp = scratch.take(length);
+            Arrays.fill(amp, fractalBounding);
+            Arrays.fill(out, 0);
+            
+            for(int i = 0; i < octaves; i++) {
+                input.noise(seed++, x, y, z, noise);
+                for(int j = 0; j < length; j++) {
+                    double n = fastAbs(noise[j]);
+                    out[j] += (n * -2 + 1) * amp[j];
+                    amp[j] *= lerp(1.0, 1 - n, weightedStrength);
+                    
+                    x[j] *= lacunarity;
+                    y[j] *= lacunarity;
+                    z[j] *= lacunarity;
+                    amp[j] *= gain;
+                }
+            }
+        } finally {
+            scratch.release(mark);
+        }
+    }
+    
+    @Override
+    public double getGradientRaw(long seed, double x, double y, double[] gradient) {
+        double sum = 0;
+        double amp = fractalBounding;
+        double scale = 1;
+        double sumX = 0;
+        double sumY = 0;
+        double ampX = 0;
+        double ampY = 0;
+        
+        for(int i = 0; i < octaves; i++) {
+            double raw = input.gradient(seed++, x, y, gradient);
+            double noise = fastAbs(raw);
+            double sign = raw < 0 ? -scale : scale;
+            double noiseX = gradient[0] * sign;
+            double noiseY = gradient[1] * sign;
+            
+            sum += (noise * -2 + 1) * amp;
+            sumX += noiseX * -2 * amp + (noise * -2 + 1) * ampX;
+            sumY += noiseY * -2 * amp + (noise * -2 + 1) * ampY;
+            
+            double weight = lerp(1.0, 1 - noise, weightedStrength);
+            double weightDerivative = -weightedStrength;
+            ampX = (ampX * weight + amp * weightDerivative * noiseX) * gain;
+            ampY = (ampY * weight + amp * weightDerivative * noiseY) * gain;
+            amp *= weight;
+            
+            x *= lacunarity;
+            y *= lacunarity;
+            amp *= gain;
+            scale *= lacunarity;
+        }
+        
+        gradient[0] = sumX;
+        gradient[1] = sumY;
+        return sum;
+    }
+    
+    @Override
+    public double getGradientRaw(long seed, double x, double y, double z, double[] gradient) {
+        double sum = 0;
+        double amp = fractalBounding;
+        double scale = 1;
+        double sumX = 0;
+        double sumY = 0;
+        double sumZ = 0;
+        double ampX = 0;
+        double ampY = 0;
+        double ampZ = 0;
+        
+        for(int i = 0; i < octaves; i++) {
+            double raw = input.gradient(seed++, x, y, z, gradient);
+            double noise = fastAbs(raw);
+            double sign = raw < 0 ? -scale : scale;
+            double noiseX = gradient[0] * sign;
+            double noiseY = gradient[1] * sign;
+            double noiseZ = gradient[2] * sign;
+            
+            sum += (noise * -2 + 1) * amp;
+            sumX += noiseX * -2 * amp + (noise * -2 + 1) * ampX;
+            sumY += noiseY * -2 * amp + (noise * -2 + 1) * ampY;
+            sumZ += noiseZ * -2 * amp + (noise * -2 + 1) * ampZ;
+            
+            double weight = lerp(1.0, 1 - noise, weightedStrength);
+            double weightDerivative = -weightedStrength;
+            ampX = (ampX * weight + amp * weightDerivative * noiseX) * gain;
+            ampY = (ampY * weight + amp * weightDerivative * noiseY) * gain;
+            ampZ = (ampZ * weight + amp * weightDerivative * noiseZ) * gain;
+            amp *= weight;
+            
+            x *= lacunarity;
+            y *= lacunarity;
+            z *= lacunarity;
+            amp *= gain;
+            scale *= lacunarity;
+        }
+        
+        gradient[0] = sumX;
+        gradient[1] = sumY;
+        gradient[2] = sumZ;
+        return sum;
+    }
 }
@@ -18,6 +18,16 @@ public class PositiveWhiteNoiseSampler extends WhiteNoiseSampler {
         return (Double.longBitsToDouble((murmur64(seed) & 0x000fffffffffffffL) | POSITIVE_POW1) - 1.5) * 2;
     }
     
+    @Override
+    public double getMinimum() {
+        return 0;
+    }
+    
+    @Override
+    public double getMaximum() {
+        return 1;
+    }
+    
     @Override
     public double getNoiseRaw(long seed, double x, double y) {
         return (getNoiseUnmapped(seed, x, y) - 1);
@@ -11,6 +11,22 @@ package com.dfsek.terra.addons.noise.samplers.noise.simplex;
  * NoiseSampler implementation to provide Perlin Noise.
  */
 public class PerlinSampler extends SimplexStyleSampler {
+    /**
+     * Loose bound: no corner dot product can exceed the gradient length times the cell diagonal, and interpolation never
+     * leaves the range of the corners. That is about 2.02 in 2D and 2.37 in 3D after scaling.
+     */
+    private static final double BOUND = 2.4;
+    
+    @Override
+    public double getMinimum() {
+        return -BOUND;
+    }
+    
+    @Override
+    public double getMaximum() {
+        return BOUND;
+    }
+    
     @Override
     public double getNoiseRaw(long sl, double x, double y) {
         int seed = (int) sl;
@@ -71,4 +87,125 @@ public class PerlinSampler extends SimplexStyleSampler {
         
         return lerp(yf0, yf1, zs) * 0.964921414852142333984375;
     }
+    
+    @Override
+    public double getGradientRaw(long sl, double x, double y, double[] gradient) {
+        int seed = (int) sl;
+        int x0 = fastFloor(x);
+        int y0 = fastFloor(y);
+        
+        double xd0 = x - x0;
+        double yd0 = y - y0;
+        double xd1 = xd0 - 1;
+        double yd1 = yd0 - 1;
+        
+        double xs = interpQuintic(xd0);
+        double ys = interpQuintic(yd0);
+        double dxs = interpQuinticDerivative(xd0);
+        double dys = interpQuinticDerivative(yd0);
+        
+        x0 *= PRIME_X;
+        y0 *= PRIME_Y;
+        int x1 = x0 + PRIME_X;
+        int y1 = y0 + PRIME_Y;
+        
+        int g00 = gradIndex(seed, x0, y0);
+        int g10 = gradIndex(seed, x1, y0);
+        int g01 = gradIndex(seed, x0, y1);
+        int g11 = gradIndex(seed, x1, y1);
+        
+        double v00 = xd0 * GRADIENTS_2_D[g00] + yd0 * GRADIENTS_2_D[g00 | 1];
+        double v10 = xd1 * GRADIENTS_2_D[g10] + yd0 * GRADIENTS_2_D[g10 | 1];
+        double v01 = xd0 * GRADIENTS_2_D[g01] + yd1 * GRADIENTS_2_D[g01 | 1];
+        double v11 = xd1 * GRADIENTS_2_D[g11] + yd1 * GRADIENTS_2_D[g11 | 1];
+        
+        double xf0 = lerp(v00, v10, xs);
+        double xf1 = lerp(v01, v11, xs);
+        
+        gradient[0] = lerp(lerp(GRADIENTS_2_D[g00], GRADIENTS_2_D[g10], xs) + dxs * (v10 - v00),
+                           lerp(GRADIENTS_2_D[g01], GRADIENTS_2_D[g11], xs) + dxs * (v11 - v01), ys) * 1.4247691104677813;
+        gradient[1] = (lerp(lerp(GRADIENTS_2_D[g00 | 1], GRADIENTS_2_D[g10 | 1], xs),
+                            lerp(GRADIENTS_2_D[g01 | 1], GRADIENTS_2_D[g11 | 1], xs), ys) + dys * (xf1 - xf0)) * 1.4247691104677813;
+        return lerp(xf0, xf1, ys) * 1.4247691104677813;
+    }
+    
+    @Override
+    public double getGradientRaw(long sl, double x, double y, double z, double[] gradient) {
+        int seed = (int) sl;
+        int x0 = fastFloor(x);
+        int y0 = fastFloor(y);
+        int z0 = fastFloor(z);
+        
+        double xd0 = x - x0;
+        double yd0 = y - y0;
+        double zd0 = z - z0;
+        double xd1 = xd0 - 1;
+        double yd1 = yd0 - 1;
+        double zd1 = zd0 - 1;
+        
+        double xs = interpQuintic(xd0);
+        double ys = interpQuintic(yd0);
+        double zs = interpQuintic(zd0);
+        double dxs = interpQuinticDerivative(xd0);
+        double dys = interpQuinticDerivative(yd0);
+        double dzs = interpQuinticDerivative(zd0);
+        
+        x0 *= PRIME_X;
+        y0 *= PRIME_Y;
+        z0 *= PRIME_Z;
+        int x1 = x0 + PRIME_X;
+        int y1 = y0 + PRIME_Y;
+        int z1 = z0 + PRIME_Z;
+        
+        int g000 = gradIndex(seed, x0, y0, z0);
+        int g100 = gradIndex(seed, x1, y0, z0);
+        int g010 = gradIndex(seed, x0, y1, z0);
+        int g110 = gradIndex(seed, x1, y1, z0);
+        int g001 = gradIndex(seed, x0, y0, z1);
+        int g101 = gradIndex(seed, x1, y0, z1);
+        int g011 = gradIndex(seed, x0, y1, z1);
+        int g111 = gradIndex(seed, x1, y1, z1);
+        
+        double v000 = dot(g000, xd0, yd0, zd0);
+        double v100 = dot(g100, xd1, yd0, zd0);
+        double v010 = dot(g010, xd0, yd1, zd0);
+        double v110 = dot(g110, xd1, yd1, zd0);
+        double v001 = dot(g001, xd0, yd0, zd1);
+        double v101 = dot(g101, xd1, yd0, zd1);
+        double v011 = dot(g011, xd0, yd1, zd1);
+        double v111 = dot(g111, xd1, yd1, zd1);
+        
+        double xf00 = lerp(v000, v100, xs);
+        double xf10 = lerp(v010, v110, xs);
+        double xf01 = lerp(v001, v101, xs);
+        double xf11 = lerp(v011, v111, xs);
+        
+        double yf0 = lerp(xf00, xf10, ys);
+        double yf1 = lerp(xf01, xf11, ys);
+        
+        // Partial derivatives of each interpolation step; the gradient vector at each corner is the derivative of its dot product.
+        double dx00 = lerp(GRADIENTS_3D[g000], GRADIENTS_3D[g100], xs) + dxs * (v100 - v000);
+        double dx10 = lerp(GRADIENTS_3D[g010], GRADIENTS_3D[g110], xs) + dxs * (v110 - v010);
+        double dx01 = lerp(GRADIENTS_3D[g001], GRADIENTS_3D[g101], xs) + dxs * (v101 - v001);
+        double dx11 = lerp(GRADIENTS_3D[g011], GRADIENTS_3D[g111], xs) + dxs * (v111 - v011);
+        
+        double dy0 = lerp(lerp(GRADIENTS_3D[g000 | 1], GRADIENTS_3D[g100 | 1], xs),
+                          lerp(GRADIENTS_3D[g010 | 1], GRADIENTS_3D[g110 | 1], xs), ys) + dys * (xf10 - xf00);
+        double dy1 = lerp(lerp(GRADIENTS_3D[g001 | 1], GRADIENTS_3D[g101 | 1], xs),
+                          lerp(GRADIENTS_3D[g011 | 1], GRADIENTS_3D[g111 | 1], xs), ys) + dys * (xf11 - xf01);
+        
+        double dz0 = lerp(lerp(GRADIENTS_3D[g000 | 2], GRADIENTS_3D[g100 | 2], xs),
+                          lerp(GRADIENTS_3D[g010 | 2], GRADIENTS_3D[g110 | 2], xs), ys);
+        double dz1 = lerp(lerp(GRADIENTS_3D[g001 | 2], GRADIENTS_3D[g101 | 2], xs),
+                          lerp(GRADIENTS_3D[g011 | 2], GRADIENTS_3D[g111 | 2], xs), ys);
+        
+        gradient[0] = lerp(lerp(dx00, dx10, ys), lerp(dx01, dx11, ys), zs) * 0.964921414852142333984375;
+        gradient[1] = lerp(dy0, dy1, zs) * 0.964921414852142333984375;
+        gradient[2] = (lerp(dz0, dz1, zs) + dzs * (yf1 - yf0)) * 0.964921414852142333984375;
+        return lerp(yf0, yf1, zs) * 0.964921414852142333984375;
+    }
+    
+    private static double dot(int index, double xd, double yd, double zd) {
+        return xd * GRADIENTS_3D[index] + yd * GRADIENTS_3D[index | 1] + zd * GRADIENTS_3D[index | 2];
+    }
 }
@@ -30,7 +30,7 @@ public class SimplexSampler extends SimplexStyleSampler {
     private static final int Z_PRIME = 6971;
     
     
-    private static double gradCoord3D(int seed, int x, int y, int z, double xd, double yd, double zd) {
+    private static Double3 grad3D(int seed, int x, int y, int z) {
         int hash = seed;
         hash ^= X_PRIME * x;
         hash ^= Y_PRIME * y;
@@ -39,12 +39,10 @@ public class SimplexSampler extends SimplexStyleSampler {
         hash = hash * hash * hash * 60493;
         hash = (hash >> 13) ^ hash;
         
-        Double3 g = GRAD_3D[hash & 15];
-        
-        return xd * g.x + yd * g.y + zd * g.z;
+        return GRAD_3D[hash & 15];
     }
     
-    private static double gradCoord2D(int seed, int x, int y, double xd, double yd) {
+    private static Double2 grad2D(int seed, int x, int y) {
         int hash = seed;
         hash ^= X_PRIME * x;
         hash ^= Y_PRIME * y;
@@ -52,11 +50,58 @@ public class SimplexSampler extends SimplexStyleSampler {
         hash = hash * hash * hash * 60493;
         hash = (hash >> 13) ^ hash;
         
-        Double2 g = GRAD_2D[hash & 7];
+        return GRAD_2D[hash & 7];
+    }
+    
+    private static double gradCoord3D(int seed, int x, int y, int z, double xd, double yd, double zd) {
+        Double3 g = grad3D(seed, x, y, z);
+        
+        return xd * g.x + yd * g.y + zd * g.z;
+    }
+    
+    private static double gradCoord2D(int seed, int x, int y, double xd, double yd) {
+        Double2 g = grad2D(seed, x, y);
         
         return xd * g.x + yd * g.y;
     }
     
+    /**
+     * Computes the contribution of a single simplex corner, adding its partial derivatives to {@code gradient}.
+     */
+    private static double corner2D(int seed, int i, int j, double xd, double yd, double[] gradient) {
+        double t = 0.5 - xd * xd - yd * yd;
+        if(t < 0) return 0;
+        
+        Double2 g = grad2D(seed, i, j);
+        double dot = xd * g.x + yd * g.y;
+        double t2 = t * t;
+        double t4 = t2 * t2;
+        double dt = -8 * t2 * t * dot;
+        
+        gradient[0] += dt * xd + t4 * g.x;
+        gradient[1] += dt * yd + t4 * g.y;
+        return t4 * dot;
+    }
+    
+    /**
+     * Computes the contribution of a single simplex corner, adding its partial derivatives to {@code gradient}.
+     */
+    private static double corner3D(int seed, int i, int j, int k, double xd, double yd, double zd, double[] gradient) {
+        double t = 0.6 - xd * xd - yd * yd - zd * zd;
+        if(t < 0) return 0;
+        
+        Double3 g = grad3D(seed, i, j, k);
+        double dot = xd * g.x + yd * g.y + zd * g.z;
+        double t2 = t * t;
+        double t4 = t2 * t2;
+        double dt = -8 * t2 * t * dot;
+        
+        gradient[0] += dt * xd + t4 * g.x;
+        gradient[1] += dt * yd + t4 * g.y;
+        gradient[2] += dt * zd + t4 * g.z;
+        return t4 * dot;
+    }
+    
     @Override
     public double getNoiseRaw(long sl, double x, double y) {
         int seed = (int) sl;
@@ -227,6 +272,117 @@ public class SimplexSampler extends SimplexStyleSampler {
         return 32 * (n0 + n1 + n2 + n3);
     }
     
+    @Override
+    public double getGradientRaw(long sl, double x, double y, double[] gradient) {
+        int seed = (int) sl;
+        double t = (x + y) * F2;
+        int i = fastFloor(x + t);
+        int j = fastFloor(y + t);
+        
+        t = (i + j) * G2;
+        double x0 = x - (i - t);
+        double y0 = y - (j - t);
+        
+        int i1, j1;
+        if(x0 > y0) {
+            i1 = 1;
+            j1 = 0;
+        } else {
+            i1 = 0;
+            j1 = 1;
+        }
+        
+        gradient[0] = 0;
+        gradient[1] = 0;
+        
+        double n0 = corner2D(seed, i, j, x0, y0, gradient);
+        double n1 = corner2D(seed, i + i1, j + j1, x0 - i1 + G2, y0 - j1 + G2, gradient);
+        double n2 = corner2D(seed, i + 1, j + 1, x0 - 1 + F2, y0 - 1 + F2, gradient);
+        
+        gradient[0] *= 50;
+        gradient[1] *= 50;
+        return 50 * (n0 + n1 + n2);
+    }
+    
+    @Override
+    public double getGradientRaw(long sl, double x, double y, double z, double[] gradient) {
+        int seed = (int) sl;
+        double t = (x + y + z) * F3;
+        int i = fastFloor(x + t);
+        int j = fastFloor(y + t);
+        int k = fastFloor(z + t);
+        
+        t = (i + j + k) * G3;
+        double x0 = x - (i - t);
+        double y0 = y - (j - t);
+        double z0 = z - (k - t);
+        
+        int i1, j1, k1;
+        int i2, j2, k2;
+        
+        if(x0 >= y0) {
+            if(y0 >= z0) {
+                i1 = 1;
+                j1 = 0;
+                k1 = 0;
+                i2 = 1;
+                j2 = 1;
+                k2 = 0;
+            } else if(x0 >= z0) {
+                i1 = 1;
+                j1 = 0;
+                k1 = 0;
+                i2 = 1;
+                j2 = 0;
+                k2 = 1;
+            } else {
+                i1 = 0;
+                j1 = 0;
+                k1 = 1;
+                i2 = 1;
+                j2 = 0;
+                k2 = 1;
+            }
+        } else {
+            if(y0 < z0) {
+                i1 = 0;
+                j1 = 0;
+                k1 = 1;
+                i2 = 0;
+                j2 = 1;
+                k2 = 1;
+            } else if(x0 < z0) {
+                i1 = 0;
+                j1 = 1;
+                k1 = 0;
+                i2 = 0;
+                j2 = 1;
+                k2 = 1;
+            } else {
+                i1 = 0;
+                j1 = 1;
+                k1 = 0;
+                i2 = 1;
+                j2 = 1;
+                k2 = 0;
+            }
+        }
+        
+        gradient[0] = 0;
+        gradient[1] = 0;
+        gradient[2] = 0;
+        
+        double n0 = corner3D(seed, i, j, k, x0, y0, z0, gradient);
+        double n1 = corner3D(seed, i + i1, j + j1, k + k1, x0 - i1 + G3, y0 - j1 + G3, z0 - k1 + G3, gradient);
+        double n2 = corner3D(seed, i + i2, j + j2, k + k2, x0 - i2 + F3, y0 - j2 + F3, z0 - k2 + F3, gradient);
+        double n3 = corner3D(seed, i + 1, j + 1, k + 1, x0 + G33, y0 + G33, z0 + G33, gradient);
+        
+        gradient[0] *= 32;
+        gradient[1] *= 32;
+        gradient[2] *= 32;
+        return 32 * (n0 + n1 + n2 + n3);
+    }
+    
     private static class Double2 {
         public final double x, y;
         
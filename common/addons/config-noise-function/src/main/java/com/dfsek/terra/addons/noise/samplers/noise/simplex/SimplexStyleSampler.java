@@ -79,6 +79,24 @@ public abstract class SimplexStyleSampler extends NoiseFunction {
             1, 1, 0, 0, 0, -1, 1, 0, -1, 1, 0, 0, 0, -1, -1, 0
     };
     
+    /**
+     * @return The index of the x component of the gradient at a 2D lattice point in {@link #GRADIENTS_2_D}.
+     */
+    protected static int gradIndex(int seed, int xPrimed, int yPrimed) {
+        int hash = hash(seed, xPrimed, yPrimed);
+        hash ^= hash >> 15;
+        return hash & 127 << 1;
+    }
+    
+    /**
+     * @return The index of the x component of the gradient at a 3D lattice point in {@link #GRADIENTS_3D}.
+     */
+    protected static int gradIndex(int seed, int xPrimed, int yPrimed, int zPrimed) {
+        int hash = hash(seed, xPrimed, yPrimed, zPrimed);
+        hash ^= hash >> 15;
+        return hash & 63 << 2;
+    }
+    
     protected static double gradCoord(int seed, int xPrimed, int yPrimed, double xd, double yd) {
         int hash = hash(seed, xPrimed, yPrimed);
         hash ^= hash >> 15;
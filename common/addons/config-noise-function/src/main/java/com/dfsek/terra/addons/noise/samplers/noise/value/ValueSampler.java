@@ -56,4 +56,87 @@ public class ValueSampler extends ValueStyleNoise {
         
         return lerp(yf0, yf1, zs);
     }
+    
+    @Override
+    public double getMinimum() {
+        return -1;
+    }
+    
+    @Override
+    public double getMaximum() {
+        return 1;
+    }
+    
+    @Override
+    public double getGradientRaw(long sl, double x, double y, double[] gradient) {
+        int seed = (int) sl;
+        int x0 = fastFloor(x);
+        int y0 = fastFloor(y);
+        
+        double xd = x - x0;
+        double yd = y - y0;
+        double xs = interpHermite(xd);
+        double ys = interpHermite(yd);
+        
+        x0 *= PRIME_X;
+        y0 *= PRIME_Y;
+        int x1 = x0 + PRIME_X;
+        int y1 = y0 + PRIME_Y;
+        
+        double v00 = valCoord(seed, x0, y0);
+        double v10 = valCoord(seed, x1, y0);
+        double v01 = valCoord(seed, x0, y1);
+        double v11 = valCoord(seed, x1, y1);
+        
+        double xf0 = lerp(v00, v10, xs);
+        double xf1 = lerp(v01, v11, xs);
+        
+        gradient[0] = interpHermiteDerivative(xd) * lerp(v10 - v00, v11 - v01, ys);
+        gradient[1] = interpHermiteDerivative(yd) * (xf1 - xf0);
+        return lerp(xf0, xf1, ys);
+    }
+    
+    @Override
+    public double getGradientRaw(long sl, double x, double y, double z, double[] gradient) {
+        int seed = (int) sl;
+        int x0 = fastFloor(x);
+        int y0 = fastFloor(y);
+        int z0 = fastFloor(z);
+        
+        double xd = x - x0;
+        double yd = y - y0;
+        double zd = z - z0;
+        double xs = interpHermite(xd);
+        double ys = interpHermite(yd);
+        double zs = interpHermite(zd);
+        
+        x0 *= PRIME_X;
+        y0 *= PRIME_Y;
+        z0 *= PRIME_Z;
+        int x1 = x0 + PRIME_X;
+        int y1 = y0 + PRIME_Y;
+        int z1 = z0 + PRIME_Z;
+        
+        double v000 = valCoord(seed, x0, y0, z0);
+        double v100 = valCoord(seed, x1, y0, z0);
+        double v010 = valCoord(seed, x0, y1, z0);
+        double v110 = valCoord(seed, x1, y1, z0);
+        double v001 = valCoord(seed, x0, y0, z1);
+        double v101 = valCoord(seed, x1, y0, z1);
+        double v011 = valCoord(seed, x0, y1, z1);
+        double v111 = valCoord(seed, x1, y1, z1);
+        
+        double xf00 = lerp(v000, v100, xs);
+        double xf10 = lerp(v010, v110, xs);
+        double xf01 = lerp(v001, v101, xs);
+        double xf11 = lerp(v011, v111, xs);
+        
+        double yf0 = lerp(xf00, xf10, ys);
+        double yf1 = lerp(xf01, xf11, ys);
+        
+        gradient[0] = interpHermiteDerivative(xd) * lerp(lerp(v100 - v000, v110 - v010, ys), lerp(v101 - v001, v111 - v011, ys), zs);
+        gradient[1] = interpHermiteDerivative(yd) * lerp(xf10 - xf00, xf11 - xf01, zs);
+        gradient[2] = interpHermiteDerivative(zd) * (yf1 - yf0);
+        return lerp(yf0, yf1, zs);
+    }
 }
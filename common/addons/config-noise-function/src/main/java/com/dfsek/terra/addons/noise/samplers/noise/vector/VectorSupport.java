@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.noise.samplers.noise.vector;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.Supplier;
+
+import com.dfsek.terra.addons.noise.samplers.noise.NoiseFunction;
+
+
+/**
+ * Detects whether the incubating Vector API is usable in this JVM, and creates the vectorized samplers.
+ * <p>
+ * The vectorized samplers are compiled separately from the rest of the addon, so that only they need the incubating module.
+ * This class must not reference any {@code jdk.incubator.vector} types, so that it can be loaded when the module is absent.
+ */
+public final class VectorSupport {
+    private static final String MODULE = "jdk.incubator.vector";
+    
+    private static final String SAMPLERS = "com.dfsek.terra.addons.noise.samplers.noise.value.";
+    
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule(MODULE).isPresent();
+    
+    private VectorSupport() {
+    
+    }
+    
+    /**
+     * @return Whether vectorized samplers can be used. The JVM must be started with {@code --add-modules jdk.incubator.vector}.
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+    
+    /**
+     * @return Supplier of vectorized {@code VALUE} samplers. Must only be called if the Vector API is {@link #isAvailable()
+     * available}.
+     */
+    public static Supplier<NoiseFunction> value() {
+        return supplier(SAMPLERS + "VectorValueSampler");
+    }
+    
+    /**
+     * @return Supplier of vectorized {@code VALUE_CUBIC} samplers. Must only be called if the Vector API is {@link #isAvailable()
+     * available}.
+     */
+    public static Supplier<NoiseFunction> valueCubic() {
+        return supplier(SAMPLERS + "VectorValueCubicSampler");
+    }
+    
+    private static Supplier<NoiseFunction> supplier(String name) {
+        if(!AVAILABLE) throw new IllegalStateException("The " + MODULE + " module is not available");
+        Constructor<? extends NoiseFunction> constructor;
+        try {
+            constructor = Class.forName(name).asSubclass(NoiseFunction.class).getConstructor();
+        } catch(ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to load vectorized sampler " + name, e);
+        }
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch(InvocationTargetException e) {
+                throw new IllegalStateException("Failed to create vectorized sampler " + name, e.getCause());
+            } catch(ReflectiveOperationException e) {
+                throw new IllegalStateException("Failed to create vectorized sampler " + name, e);
+            }
+        };
+    }
+}
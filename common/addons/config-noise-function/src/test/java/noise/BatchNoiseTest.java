@@ -0,0 +1,194 @@
+package noise;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import com.dfsek.terra.addons.noise.normalizer.ClampNormalizer;
+import com.dfsek.terra.addons.noise.normalizer.LinearNormalizer;
+import com.dfsek.terra.addons.noise.normalizer.NormalNormalizer;
+import com.dfsek.terra.addons.noise.normalizer.PosterizationNormalizer;
+import com.dfsek.terra.addons.noise.normalizer.ProbabilityNormalizer;
+import com.dfsek.terra.addons.noise.normalizer.ScaleNormalizer;
+import com.dfsek.terra.addons.noise.samplers.DomainWarpedSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.AdditionSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.DivisionSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.MaxSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.MinSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.MultiplicationSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.SubtractionSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.CellularSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.ConstantSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.NoiseFunction;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.BrownianMotionSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.FractalNoiseFunction;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.PingPongSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.RidgedFractalSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.random.WhiteNoiseSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.OpenSimplex2SSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.PerlinSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.value.ValueCubicSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.value.ValueSampler;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Batched sampling has to give exactly what sampling each point on its own gives.
+ */
+public class BatchNoiseTest {
+    // Batches share scratch arrays by length, so lengths are mixed, including one longer than any that is kept.
+    private static final int[] LENGTHS = { 1, 7, 64, 7, 2000, 64 };
+    
+    private static void assertBatchMatchesScalar(String name, NoiseSampler sampler) {
+        Random random = new Random(2403);
+        for(int length : LENGTHS) {
+            double[] x = new double[length];
+            double[] y = new double[length];
+            double[] z = new double[length];
+            for(int i = 0; i < length; i++) {
+                x[i] = (random.nextDouble() - 0.5) * 10000;
+                y[i] = (random.nextDouble() - 0.5) * 500;
+                z[i] = (random.nextDouble() - 0.5) * 10000;
+            }
+            double[] xCopy = x.clone();
+            double[] yCopy = y.clone();
+            double[] zCopy = z.clone();
+            
+            for(long seed : new long[]{ 0, -7, 123456789 }) {
+                double[] out = new double[length];
+                sampler.noise(seed, x, z, out);
+                for(int i = 0; i < length; i++) {
+                    assertEquals(sampler.noise(seed, x[i], z[i]), out[i], 0, name + " 2D, " + length + " points, at " + i);
+                }
+                
+                sampler.noise(seed, x, y, z, out);
+                for(int i = 0; i < length; i++) {
+                    assertEquals(sampler.noise(seed, x[i], y[i], z[i]), out[i], 0, name + " 3D, " + length + " points, at " + i);
+                }
+            }
+            
+            // Coordinates belong to the caller.
+            for(int i = 0; i < length; i++) {
+                assertEquals(xCopy[i], x[i], 0, name);
+                assertEquals(yCopy[i], y[i], 0, name);
+                assertEquals(zCopy[i], z[i], 0, name);
+            }
+        }
+    }
+    
+    private static <T extends NoiseFunction> T function(T function) {
+        function.setFrequency(0.013);
+        function.setSalt(3);
+        return function;
+    }
+    
+    private static <T extends FractalNoiseFunction> T fractal(T fractal) {
+        function(fractal);
+        fractal.setOctaves(4);
+        fractal.setWeightedStrength(0.6);
+        return fractal;
+    }
+    
+    private static NoiseSampler simplex() {
+        return function(new OpenSimplex2Sampler());
+    }
+    
+    @Test
+    public void noiseFunctions() {
+        assertBatchMatchesScalar("OpenSimplex2", simplex());
+        assertBatchMatchesScalar("OpenSimplex2S", function(new OpenSimplex2SSampler()));
+        assertBatchMatchesScalar("Perlin", function(new PerlinSampler()));
+        assertBatchMatchesScalar("Value", function(new ValueSampler()));
+        assertBatchMatchesScalar("ValueCubic", function(new ValueCubicSampler()));
+        assertBatchMatchesScalar("WhiteNoise", function(new WhiteNoiseSampler()));
+        assertBatchMatchesScalar("Constant", new ConstantSampler(0.25));
+        for(CellularSampler.ReturnType returnType : CellularSampler.ReturnType.values()) {
+            CellularSampler cellular = function(new CellularSampler());
+            cellular.setReturnType(returnType);
+            cellular.setNoiseLookup(simplex());
+            assertBatchMatchesScalar("Cellular " + returnType, cellular);
+        }
+    }
+    
+    @Test
+    public void fractals() {
+        assertBatchMatchesScalar("BrownianMotion", fractal(new BrownianMotionSampler(simplex())));
+        assertBatchMatchesScalar("RidgedFractal", fractal(new RidgedFractalSampler(simplex())));
+        PingPongSampler pingPong = fractal(new PingPongSampler(simplex()));
+        pingPong.setPingPongStrength(1.7);
+        assertBatchMatchesScalar("PingPong", pingPong);
+        
+        // Nested fractals take scratch arrays on top of each other's.
+        assertBatchMatchesScalar("RidgedFractal of BrownianMotion",
+                                 fractal(new RidgedFractalSampler(fractal(new BrownianMotionSampler(simplex())))));
+    }
+    
+    @Test
+    public void arithmetic() {
+        NoiseSampler left = fractal(new BrownianMotionSampler(simplex()));
+        NoiseSampler right = function(new ValueCubicSampler());
+        assertBatchMatchesScalar("Addition", new AdditionSampler(left, right));
+        assertBatchMatchesScalar("Subtraction", new SubtractionSampler(left, right));
+        assertBatchMatchesScalar("Multiplication", new MultiplicationSampler(left, right));
+        assertBatchMatchesScalar("Division", new DivisionSampler(left, new AdditionSampler(right, new ConstantSampler(3))));
+        assertBatchMatchesScalar("Max", new MaxSampler(left, right));
+        assertBatchMatchesScalar("Min", new MinSampler(left, new MultiplicationSampler(left, right)));
+    }
+    
+    @Test
+    public void domainWarp() {
+        assertBatchMatchesScalar("DomainWarped", new DomainWarpedSampler(simplex(), fractal(new PingPongSampler(simplex())), 20));
+        assertBatchMatchesScalar("DomainWarped fractal",
+                                 new DomainWarpedSampler(fractal(new BrownianMotionSampler(simplex())), simplex(), 35));
+    }
+    
+    @Test
+    public void normalizers() {
+        NoiseSampler input = fractal(new BrownianMotionSampler(simplex()));
+        assertBatchMatchesScalar("Linear", new LinearNormalizer(input, -0.5, 0.5));
+        assertBatchMatchesScalar("Clamp", new ClampNormalizer(input, -0.2, 0.3));
+        assertBatchMatchesScalar("Normal", new NormalNormalizer(input, 64, 0, 0.3));
+        assertBatchMatchesScalar("Posterization", new PosterizationNormalizer(input, 5));
+        assertBatchMatchesScalar("Probability", new ProbabilityNormalizer(input));
+        assertBatchMatchesScalar("Scale", new ScaleNormalizer(input, 2.5));
+    }
+    
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(
+                Thread.currentThread().getId());
+    }
+    
+    /*
+     * Once a thread has sampled batches of a size, sampling more of them reuses its scratch arrays.
+     */
+    @Test
+    public void batchesReuseScratchArrays() {
+        NoiseSampler sampler = new LinearNormalizer(
+                new AdditionSampler(new DomainWarpedSampler(fractal(new BrownianMotionSampler(simplex())), simplex(), 20),
+                                    fractal(new RidgedFractalSampler(function(new ValueSampler())))), -1, 1);
+        double[] x = new double[256];
+        double[] y = new double[256];
+        double[] z = new double[256];
+        double[] out = new double[256];
+        for(int i = 0; i < 256; i++) {
+            x[i] = i * 3.7;
+            y[i] = i * 0.3;
+            z[i] = i * -1.9;
+        }
+        sampler.noise(0, x, z, out); // warm up
+        sampler.noise(0, x, y, z, out);
+        
+        long before = allocatedBytes();
+        for(int seed = 0; seed < 100; seed++) {
+            sampler.noise(seed, x, z, out);
+            sampler.noise(seed, x, y, z, out);
+        }
+        long allocated = allocatedBytes() - before;
+        assertTrue(allocated < 1024, allocated + " bytes allocated for 200 batches");
+    }
+}
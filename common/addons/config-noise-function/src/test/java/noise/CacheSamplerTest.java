@@ -0,0 +1,45 @@
+package noise;
+
+import org.junit.jupiter.api.Test;
+
+import com.dfsek.terra.addons.noise.samplers.CacheSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.OpenSimplex2Sampler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class CacheSamplerTest {
+    @Test
+    public void cachedValuesMatch() {
+        OpenSimplex2Sampler simplex = new OpenSimplex2Sampler();
+        CacheSampler cache = new CacheSampler(simplex, 4096, true);
+        
+        for(int pass = 0; pass < 2; pass++) {
+            for(int i = 0; i < 32; i++) {
+                assertEquals(simplex.noise(5, i * 1.5, -i), cache.noise(5, i * 1.5, -i), 0);
+                assertEquals(simplex.noise(5, i * 1.5, 64, -i), cache.noise(5, i * 1.5, 64, -i), 0);
+            }
+        }
+        
+        // The first pass misses every point and the second hits every one.
+        assertEquals(64, cache.getMisses());
+        assertEquals(64, cache.getHits());
+        
+        assertEquals(simplex.noise(6, 0, 0), cache.noise(6, 0, 0), 0); // seed is part of the key
+        assertEquals(65, cache.getMisses());
+    }
+    
+    @Test
+    public void repeatedLookupsHit() {
+        CacheSampler cache = new CacheSampler(new OpenSimplex2Sampler(), 1, false);
+        for(int i = 0; i < 10; i++) {
+            cache.noise(5, 12.5, -3);
+        }
+        assertEquals(1, cache.getMisses());
+        assertEquals(9, cache.getHits());
+        
+        cache.noise(5, 12.5, 64, -3); // 3D samples aren't cached
+        assertEquals(1, cache.getMisses());
+        assertEquals(9, cache.getHits());
+    }
+}
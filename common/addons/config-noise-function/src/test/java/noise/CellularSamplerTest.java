@@ -0,0 +1,88 @@
+package noise;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dfsek.terra.addons.noise.samplers.noise.CellularSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.CellularSampler.DistanceFunction;
+import com.dfsek.terra.addons.noise.samplers.noise.CellularSampler.ReturnType;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class CellularSamplerTest {
+    private static CellularSampler cellular(DistanceFunction distanceFunction, ReturnType returnType, NoiseSampler lookup) {
+        CellularSampler sampler = new CellularSampler();
+        sampler.setFrequency(0.05);
+        sampler.setDistanceFunction(distanceFunction);
+        sampler.setReturnType(returnType);
+        sampler.setNoiseLookup(lookup);
+        return sampler;
+    }
+    
+    @Test
+    public void gridMatchesSinglePoints() {
+        int size = 24;
+        for(DistanceFunction distanceFunction : DistanceFunction.values()) {
+            for(ReturnType returnType : ReturnType.values()) {
+                CellularSampler sampler = cellular(distanceFunction, returnType, new OpenSimplex2Sampler());
+                
+                double[] grid2 = new double[size * size];
+                sampler.noiseGrid(4, -100.5, 37.25, 1.5, size, size, grid2);
+                double[] grid3 = new double[size * 4 * size];
+                sampler.noiseGrid(4, -100.5, -8, 37.25, 1.5, 4, size, 4, size, grid3);
+                
+                for(int x = 0; x < size; x++) {
+                    for(int z = 0; z < size; z++) {
+                        assertEquals(sampler.noise(4, -100.5 + x * 1.5, 37.25 + z * 1.5), grid2[x * size + z], 0,
+                                     distanceFunction + "/" + returnType);
+                        for(int y = 0; y < 4; y++) {
+                            assertEquals(sampler.noise(4, -100.5 + x * 1.5, -8 + y * 4, 37.25 + z * 1.5),
+                                         grid3[(x * size + z) * 4 + y], 0, distanceFunction + "/" + returnType);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void lookupsAreSharedWithinCells() {
+        AtomicInteger lookups = new AtomicInteger();
+        OpenSimplex2Sampler simplex = new OpenSimplex2Sampler();
+        NoiseSampler counting = new NoiseSampler() {
+            @Override
+            public double noise(long seed, double x, double y) {
+                lookups.incrementAndGet();
+                return simplex.noise(seed, x, y);
+            }
+            
+            @Override
+            public double noise(long seed, double x, double y, double z) {
+                lookups.incrementAndGet();
+                return simplex.noise(seed, x, y, z);
+            }
+        };
+        
+        CellularSampler sampler = cellular(DistanceFunction.Euclidean, ReturnType.NoiseLookup, counting);
+        CellularSampler reversed = cellular(DistanceFunction.Euclidean, ReturnType.NoiseLookup, simplex);
+        double[] values = new double[64 * 64];
+        for(int x = 0; x < 64; x++) {
+            for(int z = 0; z < 64; z++) {
+                values[x * 64 + z] = sampler.noise(9, x, z);
+            }
+        }
+        assertTrue(lookups.get() < 64 * 64 / 8, lookups.get() + " lookups for " + 64 * 64 + " samples");
+        
+        for(int x = 63; x >= 0; x--) {
+            for(int z = 63; z >= 0; z--) {
+                assertEquals(values[x * 64 + z], reversed.noise(9, x, z), 0);
+            }
+        }
+        assertTrue(sampler.noise(10, 0, 0) != sampler.noise(9, 0, 0)); // seed is part of the key
+    }
+}
@@ -0,0 +1,73 @@
+package noise;
+
+import com.dfsek.paralithic.eval.tokenizer.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import com.dfsek.terra.addons.noise.paralithic.noise.NoiseFunction2;
+import com.dfsek.terra.addons.noise.paralithic.noise.NoiseFunction3;
+import com.dfsek.terra.addons.noise.samplers.noise.ExpressionFunction;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class ExpressionAllocationTest {
+    private static final int SAMPLES = 200_000;
+    
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(
+                Thread.currentThread().getId());
+    }
+    
+    private static double sample(NoiseSampler sampler) {
+        double sum = 0;
+        for(int i = 0; i < SAMPLES; i++) {
+            sum += sampler.noise(i, i * 0.5, i * 0.25);
+            sum += sampler.noise(i, i * 0.5, 3, i * 0.25);
+        }
+        return sum;
+    }
+    
+    private static void assertAllocationFree(NoiseSampler sampler) {
+        assertAllocatesAtMost(sampler, 0);
+    }
+    
+    /*
+     * Allows the given number of bytes per sample on top of a small constant slack.
+     */
+    private static void assertAllocatesAtMost(NoiseSampler sampler, int bytesPerSample) {
+        sample(sampler); // warm up
+        long before = allocatedBytes();
+        double sum = sample(sampler);
+        long allocated = allocatedBytes() - before;
+        assertTrue(allocated < SAMPLES + 2L * SAMPLES * bytesPerSample,
+                   allocated + " bytes allocated for " + 2 * SAMPLES + " samples (" + sum + ")");
+    }
+    
+    @Test
+    public void expressionEvaluationDoesNotAllocate() throws ParseException {
+        ExpressionFunction function = new ExpressionFunction(Map.of(), "x * a + y - z / 2", Map.of("a", 2.0));
+        assertAllocationFree(function);
+        assertAllocationFree(function.bind(42));
+    }
+    
+    /*
+     * Paralithic builds an argument array for every function call it makes, which isn't Terra's to remove. Everything else,
+     * including the nested expression evaluated through a noise function, has to reuse the per-thread frames.
+     */
+    @Test
+    public void noiseFunctionCallsOnlyAllocateArguments() throws ParseException {
+        ExpressionFunction inner = new ExpressionFunction(Map.of(), "x * y - z", Map.of());
+        ExpressionFunction function = new ExpressionFunction(Map.of("inner", new NoiseFunction2(inner),
+                                                                    "inner3", new NoiseFunction3(inner),
+                                                                    "simplex", new NoiseFunction2(new OpenSimplex2Sampler())),
+                                                             "inner(x, z) + inner3(x, y, z) * simplex(z, x)", Map.of());
+        int arguments = 2 * 32 + 40; // two 2-element arrays and one 3-element array
+        assertAllocatesAtMost(function, arguments);
+        assertAllocatesAtMost(function.bind(42), arguments);
+    }
+}
@@ -0,0 +1,64 @@
+package noise;
+
+import org.junit.jupiter.api.Test;
+
+import com.dfsek.terra.addons.noise.normalizer.LinearNormalizer;
+import com.dfsek.terra.addons.noise.samplers.DomainWarpedSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.MultiplicationSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.BrownianMotionSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.RidgedFractalSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.PerlinSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.SimplexSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.value.ValueSampler;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class GradientTest {
+    private static final double STEP = 1.0E-5;
+    
+    private static void assertGradient(NoiseSampler sampler) {
+        double[] gradient = new double[3];
+        for(int i = 0; i < 64; i++) {
+            double x = i * 3.17 - 40.123;
+            double y = i * 1.31 + 7.456;
+            double z = i * -2.71 + 0.789;
+            
+            assertEquals(sampler.noise(3, x, y), sampler.gradient(3, x, y, gradient), 1.0E-12);
+            assertEquals((sampler.noise(3, x + STEP, y) - sampler.noise(3, x - STEP, y)) / (2 * STEP), gradient[0], 1.0E-4);
+            assertEquals((sampler.noise(3, x, y + STEP) - sampler.noise(3, x, y - STEP)) / (2 * STEP), gradient[1], 1.0E-4);
+            
+            assertEquals(sampler.noise(3, x, y, z), sampler.gradient(3, x, y, z, gradient), 1.0E-12);
+            assertEquals((sampler.noise(3, x + STEP, y, z) - sampler.noise(3, x - STEP, y, z)) / (2 * STEP), gradient[0], 1.0E-4);
+            assertEquals((sampler.noise(3, x, y + STEP, z) - sampler.noise(3, x, y - STEP, z)) / (2 * STEP), gradient[1], 1.0E-4);
+            assertEquals((sampler.noise(3, x, y, z + STEP) - sampler.noise(3, x, y, z - STEP)) / (2 * STEP), gradient[2], 1.0E-4);
+        }
+    }
+    
+    @Test
+    public void analyticGradientsMatchFiniteDifferences() {
+        ValueSampler value = new ValueSampler();
+        value.setFrequency(0.05);
+        PerlinSampler perlin = new PerlinSampler();
+        perlin.setFrequency(0.05);
+        SimplexSampler simplex = new SimplexSampler();
+        simplex.setFrequency(0.05);
+        
+        assertGradient(value);
+        assertGradient(perlin);
+        assertGradient(simplex);
+        
+        BrownianMotionSampler brownian = new BrownianMotionSampler(perlin);
+        brownian.setWeightedStrength(0.5);
+        assertGradient(brownian);
+        
+        RidgedFractalSampler ridged = new RidgedFractalSampler(simplex);
+        ridged.setWeightedStrength(0.5);
+        assertGradient(ridged);
+        
+        assertGradient(new LinearNormalizer(new MultiplicationSampler(value, simplex), -2, 3));
+        assertGradient(new DomainWarpedSampler(perlin, new OpenSimplex2Sampler(), 4));
+    }
+}
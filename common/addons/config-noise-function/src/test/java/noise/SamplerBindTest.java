@@ -0,0 +1,47 @@
+package noise;
+
+import com.dfsek.paralithic.eval.tokenizer.ParseException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import com.dfsek.terra.addons.noise.normalizer.LinearNormalizer;
+import com.dfsek.terra.addons.noise.samplers.DomainWarpedSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.AdditionSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.ExpressionFunction;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.BrownianMotionSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.terra.addons.noise.samplers.noise.value.ValueSampler;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+public class SamplerBindTest {
+    @Test
+    public void boundSamplersMatchUnbound() throws ParseException {
+        OpenSimplex2Sampler simplex = new OpenSimplex2Sampler();
+        simplex.setSalt(5);
+        simplex.setFrequency(0.03);
+        
+        BrownianMotionSampler fbm = new BrownianMotionSampler(new ValueSampler());
+        fbm.setSalt(2);
+        
+        ExpressionFunction expression = new ExpressionFunction(Map.of(), "x * 0.5 - y + z", Map.of());
+        
+        NoiseSampler tree = new LinearNormalizer(new AdditionSampler(new DomainWarpedSampler(simplex, fbm, 8), expression), -3, 3);
+        
+        long seed = 12345;
+        NoiseSampler bound = tree.bind(seed);
+        for(int i = 0; i < 256; i++) {
+            double x = i * 1.37 - 100;
+            double z = i * -0.71;
+            assertEquals(tree.noise(seed, x, z), bound.noise(99, x, z), 0); // the bound sampler ignores the seed it is passed
+            assertEquals(tree.noise(seed, x, i, z), bound.noise(99, x, i, z), 0);
+        }
+        
+        assertSame(bound, bound.bind(7));
+        assertEquals(tree.bind(seed), bound);
+    }
+}
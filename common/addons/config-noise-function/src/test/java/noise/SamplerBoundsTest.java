@@ -0,0 +1,113 @@
+package noise;
+
+import org.junit.jupiter.api.Test;
+
+import com.dfsek.terra.addons.noise.normalizer.ClampNormalizer;
+import com.dfsek.terra.addons.noise.normalizer.LinearNormalizer;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.AdditionSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.DivisionSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.MultiplicationSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.ConstantSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.BrownianMotionSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.RidgedFractalSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.PerlinSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.value.ValueSampler;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class SamplerBoundsTest {
+    private static void assertWithinBounds(NoiseSampler sampler) {
+        double min = sampler.getMinimum();
+        double max = sampler.getMaximum();
+        for(int i = 0; i < 4096; i++) {
+            double x = i * 0.731 - 1000;
+            double z = i * -1.197;
+            double value2 = sampler.noise(7, x, z);
+            double value3 = sampler.noise(7, x, i * 0.173, z);
+            assertTrue(value2 >= min && value2 <= max, value2 + " outside of [" + min + ", " + max + "]");
+            assertTrue(value3 >= min && value3 <= max, value3 + " outside of [" + min + ", " + max + "]");
+        }
+    }
+    
+    @Test
+    public void samplersStayWithinBounds() {
+        ValueSampler value = new ValueSampler();
+        value.setFrequency(0.05);
+        PerlinSampler perlin = new PerlinSampler();
+        perlin.setFrequency(0.05);
+        
+        BrownianMotionSampler brownian = new BrownianMotionSampler(value);
+        brownian.setWeightedStrength(0.5);
+        RidgedFractalSampler ridged = new RidgedFractalSampler(perlin);
+        
+        assertWithinBounds(value);
+        assertWithinBounds(perlin);
+        assertWithinBounds(brownian);
+        assertWithinBounds(ridged);
+        assertWithinBounds(new LinearNormalizer(new MultiplicationSampler(brownian, ridged), -2, 3));
+        assertWithinBounds(new DivisionSampler(value, new AdditionSampler(new ConstantSampler(3), perlin)));
+    }
+    
+    @Test
+    public void intervalArithmetic() {
+        ValueSampler value = new ValueSampler();
+        NoiseSampler sum = new AdditionSampler(value, new ConstantSampler(2));
+        assertEquals(1, sum.getMinimum(), 0);
+        assertEquals(3, sum.getMaximum(), 0);
+        
+        NoiseSampler clamped = new ClampNormalizer(new MultiplicationSampler(sum, new OpenSimplex2Sampler()), -0.5, 0.5);
+        assertEquals(-0.5, clamped.getMinimum(), 0); // unbounded input is still clamped
+        assertEquals(0.5, clamped.getMaximum(), 0);
+        
+        NoiseSampler divided = new DivisionSampler(sum, value); // divisor may be 0
+        assertEquals(Double.NEGATIVE_INFINITY, divided.getMinimum(), 0);
+        assertEquals(Double.POSITIVE_INFINITY, divided.getMaximum(), 0);
+        
+        assertEquals(0, NoiseSampler.zero().getMaximum(), 0);
+    }
+    
+    @Test
+    public void boundsAreComputedOnce() {
+        CountingSampler leaf = new CountingSampler();
+        NoiseSampler sampler = leaf;
+        for(int i = 0; i < 30; i++) {
+            BrownianMotionSampler fbm = new BrownianMotionSampler(new LinearNormalizer(sampler, -2, 2));
+            sampler = new DivisionSampler(new MultiplicationSampler(fbm, fbm), new ConstantSampler(2));
+        }
+        for(int i = 0; i < 100; i++) {
+            sampler.getMinimum();
+            sampler.getMaximum();
+        }
+        assertEquals(2, leaf.count); // its minimum and maximum, queried once each
+    }
+    
+    private static final class CountingSampler implements NoiseSampler {
+        private int count;
+        
+        @Override
+        public double noise(long seed, double x, double y) {
+            return 0;
+        }
+        
+        @Override
+        public double noise(long seed, double x, double y, double z) {
+            return 0;
+        }
+        
+        @Override
+        public double getMinimum() {
+            count++;
+            return -1;
+        }
+        
+        @Override
+        public double getMaximum() {
+            count++;
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package noise;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import com.dfsek.terra.addons.noise.normalizer.ClampNormalizer;
+import com.dfsek.terra.addons.noise.normalizer.LinearNormalizer;
+import com.dfsek.terra.addons.noise.paralithic.compiler.SamplerCompiler;
+import com.dfsek.terra.addons.noise.samplers.CompiledSampler;
+import com.dfsek.terra.addons.noise.samplers.DomainWarpedSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.AdditionSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.MaxSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.CellularSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.ConstantSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.BrownianMotionSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.RidgedFractalSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class SamplerCompilerTest {
+    private static NoiseSampler tree() {
+        OpenSimplex2Sampler simplex = new OpenSimplex2Sampler();
+        simplex.setFrequency(0.01);
+        simplex.setSalt(3);
+        
+        BrownianMotionSampler fbm = new BrownianMotionSampler(simplex);
+        fbm.setOctaves(4);
+        
+        RidgedFractalSampler ridged = new RidgedFractalSampler(new OpenSimplex2Sampler());
+        ridged.setOctaves(3);
+        ridged.setSalt(7);
+        
+        CellularSampler cellular = new CellularSampler(); // not inlined, compiled as a leaf call
+        
+        NoiseSampler warped = new DomainWarpedSampler(new AdditionSampler(fbm, cellular), simplex, 20);
+        NoiseSampler shifted = new AdditionSampler(ridged, new ConstantSampler(-0.1));
+        return new ClampNormalizer(new MaxSampler(new LinearNormalizer(warped, -2, 2), shifted), -0.75, 0.9);
+    }
+    
+    @Test
+    public void compiledMatchesInterpreted() throws Exception {
+        NoiseSampler interpreted = tree();
+        NoiseSampler compiled = SamplerCompiler.compile(interpreted);
+        assertTrue(compiled instanceof CompiledSampler);
+        
+        Random random = new Random(2403);
+        for(int i = 0; i < 2000; i++) {
+            long seed = random.nextLong();
+            double x = (random.nextDouble() - 0.5) * 100000;
+            double y = (random.nextDouble() - 0.5) * 1000;
+            double z = (random.nextDouble() - 0.5) * 100000;
+            assertEquals(interpreted.noise(seed, x, z), compiled.noise(seed, x, z), 1.0E-9);
+            assertEquals(interpreted.noise(seed, x, y, z), compiled.noise(seed, x, y, z), 1.0E-9);
+        }
+    }
+    
+    @Test
+    public void warpIsEvaluatedOncePerAxis() throws Exception {
+        BrownianMotionSampler fbm = new BrownianMotionSampler(new OpenSimplex2Sampler());
+        fbm.setOctaves(6);
+        CountingSampler warp = new CountingSampler(new OpenSimplex2Sampler());
+        NoiseSampler interpreted = new DomainWarpedSampler(fbm, warp, 20);
+        NoiseSampler compiled = SamplerCompiler.compile(interpreted);
+        assertTrue(compiled instanceof CompiledSampler);
+        
+        warp.count = 0;
+        compiled.noise(42, 1021.5, -310.25);
+        assertEquals(2, warp.count);
+        
+        warp.count = 0;
+        compiled.noise(42, 1021.5, 64, -310.25);
+        assertEquals(3, warp.count);
+    }
+    
+    @Test
+    public void nestedWarpsAreCompiled() throws Exception {
+        BrownianMotionSampler fbm = new BrownianMotionSampler(new OpenSimplex2Sampler());
+        fbm.setOctaves(4);
+        NoiseSampler interpreted = fbm;
+        for(int i = 0; i < 12; i++) {
+            BrownianMotionSampler warp = new BrownianMotionSampler(new OpenSimplex2Sampler());
+            warp.setOctaves(2);
+            interpreted = new DomainWarpedSampler(interpreted, warp, 5);
+        }
+        NoiseSampler compiled = SamplerCompiler.compile(interpreted);
+        assertTrue(compiled instanceof CompiledSampler);
+        
+        Random random = new Random(2403);
+        for(int i = 0; i < 20; i++) {
+            long seed = random.nextLong();
+            double x = (random.nextDouble() - 0.5) * 100000;
+            double z = (random.nextDouble() - 0.5) * 100000;
+            assertEquals(interpreted.noise(seed, x, z), compiled.noise(seed, x, z), 1.0E-9);
+        }
+    }
+    
+    @Test
+    public void leavesAreNotCompiled() throws Exception {
+        NoiseSampler leaf = new OpenSimplex2Sampler();
+        assertSame(leaf, SamplerCompiler.compile(leaf));
+    }
+    
+    private static final class CountingSampler implements NoiseSampler {
+        private final NoiseSampler delegate;
+        private int count;
+        
+        private CountingSampler(NoiseSampler delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public double noise(long seed, double x, double y) {
+            count++;
+            return delegate.noise(seed, x, y);
+        }
+        
+        @Override
+        public double noise(long seed, double x, double y, double z) {
+            count++;
+            return delegate.noise(seed, x, y, z);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package noise;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.dfsek.terra.addons.noise.config.DimensionApplicableNoiseSampler;
+import com.dfsek.terra.addons.noise.config.templates.noise.ExpressionFunctionTemplate;
+import com.dfsek.terra.addons.noise.normalizer.LinearNormalizer;
+import com.dfsek.terra.addons.noise.samplers.DomainWarpedSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.AdditionSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.SubtractionSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.CellularSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.fractal.BrownianMotionSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+public class SamplerEqualityTest {
+    private static NoiseSampler tree(double frequency, NoiseSampler extra) {
+        OpenSimplex2Sampler simplex = new OpenSimplex2Sampler();
+        simplex.setFrequency(frequency);
+        BrownianMotionSampler fbm = new BrownianMotionSampler(simplex);
+        fbm.setOctaves(5);
+        return new LinearNormalizer(new DomainWarpedSampler(new AdditionSampler(fbm, extra), new CellularSampler(), 4), -1.5, 1.5);
+    }
+    
+    private static void set(Object object, Class<?> type, String field, Object value) throws ReflectiveOperationException {
+        Field f = type.getDeclaredField(field);
+        f.setAccessible(true);
+        f.set(object, value);
+    }
+    
+    /*
+     * Loads an EXPRESSION sampler the way the config loader would, with a fresh copy of every sampler it references.
+     */
+    private static NoiseSampler expression(String source, double a) throws ReflectiveOperationException {
+        DimensionApplicableNoiseSampler simplex = new DimensionApplicableNoiseSampler();
+        set(simplex, DimensionApplicableNoiseSampler.class, "dimensions", 2);
+        set(simplex, DimensionApplicableNoiseSampler.class, "sampler", new OpenSimplex2Sampler());
+        LinkedHashMap<String, DimensionApplicableNoiseSampler> samplers = new LinkedHashMap<>();
+        samplers.put("simplex", simplex);
+        
+        ExpressionFunctionTemplate template = new ExpressionFunctionTemplate(Map.of(), Map.of());
+        set(template, ExpressionFunctionTemplate.class, "expression", source);
+        set(template, ExpressionFunctionTemplate.class, "vars", new HashMap<>(Map.of("a", a)));
+        set(template, ExpressionFunctionTemplate.class, "samplers", samplers);
+        return template.get();
+    }
+    
+    @Test
+    public void equalExpressionsInternToOneInstance() throws ReflectiveOperationException {
+        NoiseSampler a = expression("simplex(x, z) * a - y", 2);
+        NoiseSampler b = expression("simplex(x, z) * a - y", 2);
+        assertNotSame(a, b);
+        
+        // As BiomeNoiseInterner does
+        Map<NoiseSampler, NoiseSampler> interned = new HashMap<>();
+        interned.putIfAbsent(a, a);
+        assertSame(a, interned.computeIfAbsent(b, sampler -> sampler));
+        assertEquals(a.bind(3), b.bind(3));
+        
+        assertNotEquals(a, expression("simplex(x, z) * a + y", 2));
+        assertNotEquals(a, expression("simplex(x, z) * a - y", 3));
+    }
+    
+    @Test
+    public void structurallyEqualTreesAreEqual() {
+        NoiseSampler a = tree(0.01, new CellularSampler());
+        NoiseSampler b = tree(0.01, new CellularSampler());
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(NoiseSampler.zero(), NoiseSampler.zero());
+    }
+    
+    @Test
+    public void differentTreesAreNotEqual() {
+        assertNotEquals(tree(0.01, new CellularSampler()), tree(0.02, new CellularSampler()));
+        assertNotEquals(tree(0.01, new CellularSampler()), tree(0.01, new OpenSimplex2Sampler()));
+        assertNotEquals(new AdditionSampler(NoiseSampler.zero(), NoiseSampler.zero()),
+                        new SubtractionSampler(NoiseSampler.zero(), NoiseSampler.zero()));
+    }
+}
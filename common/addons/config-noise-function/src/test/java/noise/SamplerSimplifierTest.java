@@ -0,0 +1,53 @@
+package noise;
+
+import org.junit.jupiter.api.Test;
+
+import com.dfsek.terra.addons.noise.config.SamplerSimplifier;
+import com.dfsek.terra.addons.noise.normalizer.LinearNormalizer;
+import com.dfsek.terra.addons.noise.samplers.DomainWarpedSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.AdditionSampler;
+import com.dfsek.terra.addons.noise.samplers.arithmetic.MultiplicationSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.ConstantSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.terra.api.noise.NoiseSampler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class SamplerSimplifierTest {
+    @Test
+    public void identities() {
+        SamplerSimplifier simplifier = new SamplerSimplifier();
+        NoiseSampler noise = new OpenSimplex2Sampler();
+        
+        assertSame(noise, simplifier.simplify(new AdditionSampler(new ConstantSampler(0), noise)));
+        assertSame(noise, simplifier.simplify(new MultiplicationSampler(noise, new ConstantSampler(1))));
+        assertSame(noise, simplifier.simplify(new DomainWarpedSampler(noise, new OpenSimplex2Sampler(), 0)));
+        assertEquals(3, simplifier.getRewrites());
+    }
+    
+    @Test
+    public void constantFolding() {
+        SamplerSimplifier simplifier = new SamplerSimplifier();
+        NoiseSampler folded = simplifier.simplify(new LinearNormalizer(
+                simplifier.simplify(new AdditionSampler(new ConstantSampler(2), new ConstantSampler(3))), 0, 10));
+        assertTrue(folded instanceof ConstantSampler);
+        assertEquals(0, folded.noise(0, 0, 0), 0);
+    }
+    
+    @Test
+    public void linearMerge() {
+        SamplerSimplifier simplifier = new SamplerSimplifier();
+        NoiseSampler noise = new OpenSimplex2Sampler();
+        NoiseSampler nested = new LinearNormalizer(new LinearNormalizer(noise, -0.7, 0.9), -3, 5);
+        NoiseSampler merged = simplifier.simplify(nested);
+        
+        assertTrue(merged instanceof LinearNormalizer);
+        assertSame(noise, ((LinearNormalizer) merged).getSampler());
+        for(int i = 0; i < 1000; i++) {
+            assertEquals(nested.noise(42, i * 3.1, i * -1.7), merged.noise(42, i * 3.1, i * -1.7), 1.0E-12);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package noise;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import com.dfsek.terra.addons.noise.samplers.noise.NoiseFunction;
+import com.dfsek.terra.addons.noise.samplers.noise.value.ValueCubicSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.value.ValueSampler;
+import com.dfsek.terra.addons.noise.samplers.noise.vector.VectorSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class VectorNoiseTest {
+    private static final int POINTS = 4099; // not a multiple of any vector length, so the scalar tail is exercised too
+    
+    private static void assertIdentical(NoiseFunction scalar, NoiseFunction vector) {
+        scalar.setFrequency(0.0137);
+        vector.setFrequency(0.0137);
+        scalar.setSalt(12);
+        vector.setSalt(12);
+        
+        Random random = new Random(2403);
+        double[] x = new double[POINTS];
+        double[] y = new double[POINTS];
+        double[] z = new double[POINTS];
+        for(int i = 0; i < POINTS; i++) {
+            x[i] = (random.nextDouble() - 0.5) * 100000;
+            y[i] = (random.nextDouble() - 0.5) * 1000;
+            z[i] = (random.nextDouble() - 0.5) * 100000;
+        }
+        
+        for(long seed : new long[]{ 0, -1, 123456789, Long.MAX_VALUE }) {
+            double[] out = new double[POINTS];
+            vector.noise(seed, x, z, out);
+            for(int i = 0; i < POINTS; i++) {
+                assertEquals(scalar.noise(seed, x[i], z[i]), out[i], 0);
+            }
+            
+            vector.noise(seed, x, y, z, out);
+            for(int i = 0; i < POINTS; i++) {
+                assertEquals(scalar.noise(seed, x[i], y[i], z[i]), out[i], 0);
+            }
+        }
+    }
+    
+    @Test
+    public void value() {
+        assertIdentical(new ValueSampler(), VectorSupport.value().get());
+    }
+    
+    @Test
+    public void valueCubic() {
+        assertIdentical(new ValueCubicSampler(), VectorSupport.valueCubic().get());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.noise.samplers.noise.value;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+
+import com.dfsek.terra.addons.noise.samplers.noise.vector.VectorMath;
+
+import static com.dfsek.terra.addons.noise.samplers.noise.vector.VectorMath.DOUBLES;
+import static com.dfsek.terra.addons.noise.samplers.noise.vector.VectorMath.INTS;
+
+
+/**
+ * {@link ValueCubicSampler} which evaluates batches several lanes at a time using the Vector API.
+ * <p>
+ * Output is bit-for-bit identical to the scalar implementation.
+ */
+public class VectorValueCubicSampler extends ValueCubicSampler {
+    private static DoubleVector row(IntVector seed, IntVector x0, IntVector x1, IntVector x2, IntVector x3, IntVector y,
+                                    DoubleVector xs) {
+        return VectorMath.cubicLerp(VectorMath.valCoord(seed, x0, y), VectorMath.valCoord(seed, x1, y),
+                                    VectorMath.valCoord(seed, x2, y), VectorMath.valCoord(seed, x3, y), xs);
+    }
+    
+    private static DoubleVector row(IntVector seed, IntVector x0, IntVector x1, IntVector x2, IntVector x3, IntVector y, IntVector z,
+                                    DoubleVector xs) {
+        return VectorMath.cubicLerp(VectorMath.valCoord(seed, x0, y, z), VectorMath.valCoord(seed, x1, y, z),
+                                    VectorMath.valCoord(seed, x2, y, z), VectorMath.valCoord(seed, x3, y, z), xs);
+    }
+    
+    private static DoubleVector layer(IntVector seed, IntVector x0, IntVector x1, IntVector x2, IntVector x3, IntVector y0,
+                                      IntVector y1, IntVector y2, IntVector y3, IntVector z, DoubleVector xs, DoubleVector ys) {
+        return VectorMath.cubicLerp(row(seed, x0, x1, x2, x3, y0, z, xs), row(seed, x0, x1, x2, x3, y1, z, xs),
+                                    row(seed, x0, x1, x2, x3, y2, z, xs), row(seed, x0, x1, x2, x3, y3, z, xs), ys);
+    }
+    
+    @Override
+    public void getNoiseRaw(long sl, double[] x, double[] y, double[] out) {
+        IntVector seed = IntVector.broadcast(INTS, (int) sl);
+        int[] xFloor = VectorMath.fastFloor(x, out.length);
+        int[] yFloor = VectorMath.fastFloor(y, out.length);
+        int bound = DOUBLES.loopBound(out.length);
+        int i = 0;
+        for(; i < bound; i += DOUBLES.length()) {
+            IntVector x1 = IntVector.fromArray(INTS, xFloor, i);
+            IntVector y1 = IntVector.fromArray(INTS, yFloor, i);
+            
+            DoubleVector xs = DoubleVector.fromArray(DOUBLES, x, i).sub(VectorMath.toDouble(x1));
+            DoubleVector ys = DoubleVector.fromArray(DOUBLES, y, i).sub(VectorMath.toDouble(y1));
+            
+            x1 = x1.mul(PRIME_X);
+            y1 = y1.mul(PRIME_Y);
+            IntVector x0 = x1.sub(PRIME_X);
+            IntVector y0 = y1.sub(PRIME_Y);
+            IntVector x2 = x1.add(PRIME_X);
+            IntVector y2 = y1.add(PRIME_Y);
+            IntVector x3 = x1.add(PRIME_X << 1);
+            IntVector y3 = y1.add(PRIME_Y << 1);
+            
+            VectorMath.cubicLerp(row(seed, x0, x1, x2, x3, y0, xs), row(seed, x0, x1, x2, x3, y1, xs),
+                                 row(seed, x0, x1, x2, x3, y2, xs), row(seed, x0, x1, x2, x3, y3, xs), ys)
+                      .mul(1 / (1.5 * 1.5))
+                      .intoArray(out, i);
+        }
+        for(; i < out.length; i++) {
+            out[i] = getNoiseRaw(sl, x[i], y[i]);
+        }
+    }
+    
+    @Override
+    public void getNoiseRaw(long sl, double[] x, double[] y, double[] z, double[] out) {
+        IntVector seed = IntVector.broadcast(INTS, (int) sl);
+        int[] xFloor = VectorMath.fastFloor(x, out.length);
+        int[] yFloor = VectorMath.fastFloor(y, out.length);
+        int[] zFloor = VectorMath.fastFloor(z, out.length);
+        int bound = DOUBLES.loopBound(out.length);
+        int i = 0;
+        for(; i < bound; i += DOUBLES.length()) {
+            IntVector x1 = IntVector.fromArray(INTS, xFloor, i);
+            IntVector y1 = IntVector.fromArray(INTS, yFloor, i);
+            IntVector z1 = IntVector.fromArray(INTS, zFloor, i);
+            
+            DoubleVector xs = DoubleVector.fromArray(DOUBLES, x, i).sub(VectorMath.toDouble(x1));
+            DoubleVector ys = DoubleVector.fromArray(DOUBLES, y, i).sub(VectorMath.toDouble(y1));
+            DoubleVector zs = DoubleVector.fromArray(DOUBLES, z, i).sub(VectorMath.toDouble(z1));
+            
+            x1 = x1.mul(PRIME_X);
+            y1 = y1.mul(PRIME_Y);
+            z1 = z1.mul(PRIME_Z);
+            IntVector x0 = x1.sub(PRIME_X);
+            IntVector y0 = y1.sub(PRIME_Y);
+            IntVector z0 = z1.sub(PRIME_Z);
+            IntVector x2 = x1.add(PRIME_X);
+            IntVector y2 = y1.add(PRIME_Y);
+            IntVector z2 = z1.add(PRIME_Z);
+            IntVector x3 = x1.add(PRIME_X << 1);
+            IntVector y3 = y1.add(PRIME_Y << 1);
+            IntVector z3 = z1.add(PRIME_Z << 1);
+            
+            VectorMath.cubicLerp(layer(seed, x0, x1, x2, x3, y0, y1, y2, y3, z0, xs, ys),
+                                 layer(seed, x0, x1, x2, x3, y0, y1, y2, y3, z1, xs, ys),
+                                 layer(seed, x0, x1, x2, x3, y0, y1, y2, y3, z2, xs, ys),
+                                 layer(seed, x0, x1, x2, x3, y0, y1, y2, y3, z3, xs, ys), zs)
+                      .mul(1 / (1.5 * 1.5 * 1.5))
+                      .intoArray(out, i);
+        }
+        for(; i < out.length; i++) {
+            out[i] = getNoiseRaw(sl, x[i], y[i], z[i]);
+        }
+    }
+}
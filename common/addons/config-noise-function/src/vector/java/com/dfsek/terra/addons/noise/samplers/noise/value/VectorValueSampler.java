@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.noise.samplers.noise.value;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+
+import com.dfsek.terra.addons.noise.samplers.noise.vector.VectorMath;
+
+import static com.dfsek.terra.addons.noise.samplers.noise.vector.VectorMath.DOUBLES;
+import static com.dfsek.terra.addons.noise.samplers.noise.vector.VectorMath.INTS;
+
+
+/**
+ * {@link ValueSampler} which evaluates batches several lanes at a time using the Vector API.
+ * <p>
+ * Output is bit-for-bit identical to the scalar implementation.
+ */
+public class VectorValueSampler extends ValueSampler {
+    @Override
+    public void getNoiseRaw(long sl, double[] x, double[] y, double[] out) {
+        IntVector seed = IntVector.broadcast(INTS, (int) sl);
+        int[] xFloor = VectorMath.fastFloor(x, out.length);
+        int[] yFloor = VectorMath.fastFloor(y, out.length);
+        int bound = DOUBLES.loopBound(out.length);
+        int i = 0;
+        for(; i < bound; i += DOUBLES.length()) {
+            DoubleVector xv = DoubleVector.fromArray(DOUBLES, x, i);
+            DoubleVector yv = DoubleVector.fromArray(DOUBLES, y, i);
+            
+            IntVector x0 = IntVector.fromArray(INTS, xFloor, i);
+            IntVector y0 = IntVector.fromArray(INTS, yFloor, i);
+            
+            DoubleVector xs = VectorMath.interpHermite(xv.sub(VectorMath.toDouble(x0)));
+            DoubleVector ys = VectorMath.interpHermite(yv.sub(VectorMath.toDouble(y0)));
+            
+            x0 = x0.mul(PRIME_X);
+            y0 = y0.mul(PRIME_Y);
+            IntVector x1 = x0.add(PRIME_X);
+            IntVector y1 = y0.add(PRIME_Y);
+            
+            DoubleVector xf0 = VectorMath.lerp(VectorMath.valCoord(seed, x0, y0), VectorMath.valCoord(seed, x1, y0), xs);
+            DoubleVector xf1 = VectorMath.lerp(VectorMath.valCoord(seed, x0, y1), VectorMath.valCoord(seed, x1, y1), xs);
+            
+            VectorMath.lerp(xf0, xf1, ys).intoArray(out, i);
+        }
+        for(; i < out.length; i++) {
+            out[i] = getNoiseRaw(sl, x[i], y[i]);
+        }
+    }
+    
+    @Override
+    public void getNoiseRaw(long sl, double[] x, double[] y, double[] z, double[] out) {
+        IntVector seed = IntVector.broadcast(INTS, (int) sl);
+        int[] xFloor = VectorMath.fastFloor(x, out.length);
+        int[] yFloor = VectorMath.fastFloor(y, out.length);
+        int[] zFloor = VectorMath.fastFloor(z, out.length);
+        int bound = DOUBLES.loopBound(out.length);
+        int i = 0;
+        for(; i < bound; i += DOUBLES.length()) {
+            DoubleVector xv = DoubleVector.fromArray(DOUBLES, x, i);
+            DoubleVector yv = DoubleVector.fromArray(DOUBLES, y, i);
+            DoubleVector zv = DoubleVector.fromArray(DOUBLES, z, i);
+            
+            IntVector x0 = IntVector.fromArray(INTS, xFloor, i);
+            IntVector y0 = IntVector.fromArray(INTS, yFloor, i);
+            IntVector z0 = IntVector.fromArray(INTS, zFloor, i);
+            
+            DoubleVector xs = VectorMath.interpHermite(xv.sub(VectorMath.toDouble(x0)));
+            DoubleVector ys = VectorMath.interpHermite(yv.sub(VectorMath.toDouble(y0)));
+            DoubleVector zs = VectorMath.interpHermite(zv.sub(VectorMath.toDouble(z0)));
+            
+            x0 = x0.mul(PRIME_X);
+            y0 = y0.mul(PRIME_Y);
+            z0 = z0.mul(PRIME_Z);
+            IntVector x1 = x0.add(PRIME_X);
+            IntVector y1 = y0.add(PRIME_Y);
+            IntVector z1 = z0.add(PRIME_Z);
+            
+            DoubleVector xf00 = VectorMath.lerp(VectorMath.valCoord(seed, x0, y0, z0), VectorMath.valCoord(seed, x1, y0, z0), xs);
+            DoubleVector xf10 = VectorMath.lerp(VectorMath.valCoord(seed, x0, y1, z0), VectorMath.valCoord(seed, x1, y1, z0), xs);
+            DoubleVector xf01 = VectorMath.lerp(VectorMath.valCoord(seed, x0, y0, z1), VectorMath.valCoord(seed, x1, y0, z1), xs);
+            DoubleVector xf11 = VectorMath.lerp(VectorMath.valCoord(seed, x0, y1, z1), VectorMath.valCoord(seed, x1, y1, z1), xs);
+            
+            DoubleVector yf0 = VectorMath.lerp(xf00, xf10, ys);
+            DoubleVector yf1 = VectorMath.lerp(xf01, xf11, ys);
+            
+            VectorMath.lerp(yf0, yf1, zs).intoArray(out, i);
+        }
+        for(; i < out.length; i++) {
+            out[i] = getNoiseRaw(sl, x[i], y[i], z[i]);
+        }
+    }
+}
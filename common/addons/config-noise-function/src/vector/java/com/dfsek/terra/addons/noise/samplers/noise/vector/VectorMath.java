@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra Core Addons are licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in this module's root directory.
+ */
+
+package com.dfsek.terra.addons.noise.samplers.noise.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+
+/**
+ * Lane-wise equivalents of the scalar helpers in {@link com.dfsek.terra.addons.noise.samplers.noise.NoiseFunction} and
+ * {@link com.dfsek.terra.addons.noise.samplers.noise.value.ValueStyleNoise}.
+ * <p>
+ * Coordinates are processed in {@link #DOUBLES} lanes, and lattice hashing in {@link #INTS}, which has the same lane count at half
+ * the width. Int lanes overflow exactly like Java ints, so results match the scalar implementations bit-for-bit.
+ */
+public final class VectorMath {
+    public static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    public static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class,
+                                                                       VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+    
+    private VectorMath() {
+    
+    }
+    
+    /**
+     * Floors every coordinate in a batch, as {@code fastFloor} does.
+     * <p>
+     * This is done ahead of the vector loop because double to int lane conversion is not intrinsified on all platforms.
+     */
+    public static int[] fastFloor(double[] in, int length) {
+        int[] floored = new int[length];
+        for(int i = 0; i < length; i++) {
+            double f = in[i];
+            floored[i] = f >= 0 ? (int) f : (int) f - 1;
+        }
+        return floored;
+    }
+    
+    public static DoubleVector toDouble(IntVector v) {
+        return (DoubleVector) v.convertShape(VectorOperators.I2D, DOUBLES, 0);
+    }
+    
+    public static IntVector hash(IntVector seed, IntVector xPrimed, IntVector yPrimed) {
+        return seed.lanewise(VectorOperators.XOR, xPrimed).lanewise(VectorOperators.XOR, yPrimed).mul(0x27d4eb2d);
+    }
+    
+    public static IntVector hash(IntVector seed, IntVector xPrimed, IntVector yPrimed, IntVector zPrimed) {
+        return seed.lanewise(VectorOperators.XOR, xPrimed)
+                   .lanewise(VectorOperators.XOR, yPrimed)
+                   .lanewise(VectorOperators.XOR, zPrimed)
+                   .mul(0x27d4eb2d);
+    }
+    
+    public static DoubleVector valCoord(IntVector seed, IntVector xPrimed, IntVector yPrimed) {
+        return valCoord(hash(seed, xPrimed, yPrimed));
+    }
+    
+    public static DoubleVector valCoord(IntVector seed, IntVector xPrimed, IntVector yPrimed, IntVector zPrimed) {
+        return valCoord(hash(seed, xPrimed, yPrimed, zPrimed));
+    }
+    
+    private static DoubleVector valCoord(IntVector hash) {
+        hash = hash.mul(hash);
+        hash = hash.lanewise(VectorOperators.XOR, hash.lanewise(VectorOperators.LSHL, 19));
+        return toDouble(hash).mul(1 / 2147483648.0);
+    }
+    
+    public static DoubleVector lerp(DoubleVector a, DoubleVector b, DoubleVector t) {
+        return a.add(t.mul(b.sub(a)));
+    }
+    
+    public static DoubleVector cubicLerp(DoubleVector a, DoubleVector b, DoubleVector c, DoubleVector d, DoubleVector t) {
+        DoubleVector p = d.sub(c).sub(a.sub(b));
+        return t.mul(t).mul(t).mul(p).add(t.mul(t).mul(a.sub(b).sub(p))).add(t.mul(c.sub(a))).add(b);
+    }
+    
+    public static DoubleVector interpHermite(DoubleVector t) {
+        return t.mul(t).mul(DoubleVector.broadcast(DOUBLES, 3).sub(t.mul(2)));
+    }
+}
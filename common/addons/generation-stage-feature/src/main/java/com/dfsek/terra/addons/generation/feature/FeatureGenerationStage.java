@@ -15,6 +15,7 @@ import com.dfsek.terra.api.Platform;
 import com.dfsek.terra.api.registry.key.StringIdentifiable;
 import com.dfsek.terra.api.util.Rotation;
 import com.dfsek.terra.api.util.vector.Vector3Int;
+import com.dfsek.terra.api.world.biome.Biome;
 import com.dfsek.terra.api.world.WritableWorld;
 import com.dfsek.terra.api.world.chunk.generation.ProtoWorld;
 import com.dfsek.terra.api.world.chunk.generation.stage.GenerationStage;
@@ -41,6 +42,8 @@ public class FeatureGenerationStage implements GenerationStage, StringIdentifiab
         int cx = world.centerChunkX() << 4;
         int cz = world.centerChunkZ() << 4;
         long seed = world.getSeed();
+        Biome[] biomes = new Biome[256];
+        world.getBiomeProvider().getBiomes(cx, 0, cz, 16, 16, seed, biomes);
         for(int x = 0; x < 16; x++) {
             for(int z = 0; z < 16; z++) {
                 int tx = cx + x;
@@ -48,9 +51,8 @@ public class FeatureGenerationStage implements GenerationStage, StringIdentifiab
                 Column<WritableWorld> column = world.column(tx, tz);
                 long coordinateSeed = (seed * 31 + tx) * 31 + tz;
                 
-                world.getBiomeProvider()
-                     .getBiome(tx, 0, tz, seed)
-                     .getContext()
+                Biome biome = biomes[x * 16 + z];
+                biome.getContext()
                      .get(BiomeFeatures.class)
                      .getFeatures()
                      .getOrDefault(this, Collections.emptyList())
@@ -30,4 +30,15 @@ public interface PluginConfig {
     int getMaxRecursion();
     
     int getProviderCache();
+    
+    int getPipelineCache();
+    
+    /**
+     * @return Seconds after which unused biome pipeline tiles are evicted, or 0 to evict by size only.
+     */
+    int getPipelineCacheExpiry();
+    
+    boolean isPipelinePrefetch();
+    
+    boolean isVectorizeNoise();
 }
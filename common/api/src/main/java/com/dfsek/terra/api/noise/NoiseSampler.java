@@ -7,6 +7,7 @@
 
 package com.dfsek.terra.api.noise;
 
+import java.util.Arrays;
 
 import com.dfsek.terra.api.util.vector.Vector2;
 import com.dfsek.terra.api.util.vector.Vector2Int;
@@ -15,6 +16,11 @@ import com.dfsek.terra.api.util.vector.Vector3Int;
 
 
 public interface NoiseSampler {
+    /**
+     * Step used by the default finite-difference gradient implementations.
+     */
+    double GRADIENT_EPSILON = 1.0E-4;
+    
     static NoiseSampler zero() {
         return new NoiseSampler() {
             @Override
@@ -26,6 +32,56 @@ public interface NoiseSampler {
             public double noise(long seed, double x, double y, double z) {
                 return 0;
             }
+            
+            @Override
+            public void noise(long seed, double[] x, double[] y, double[] out) {
+                Arrays.fill(out, 0);
+            }
+            
+            @Override
+            public void noise(long seed, double[] x, double[] y, double[] z, double[] out) {
+                Arrays.fill(out, 0);
+            }
+            
+            @Override
+            public double gradient(long seed, double x, double y, double[] gradient) {
+                gradient[0] = 0;
+                gradient[1] = 0;
+                return 0;
+            }
+            
+            @Override
+            public double gradient(long seed, double x, double y, double z, double[] gradient) {
+                gradient[0] = 0;
+                gradient[1] = 0;
+                gradient[2] = 0;
+                return 0;
+            }
+            
+            @Override
+            public double getMinimum() {
+                return 0;
+            }
+            
+            @Override
+            public double getMaximum() {
+                return 0;
+            }
+            
+            @Override
+            public NoiseSampler bind(long seed) {
+                return this;
+            }
+            
+            @Override
+            public boolean equals(Object obj) {
+                return obj != null && obj.getClass() == getClass(); // all zero samplers are interchangeable
+            }
+            
+            @Override
+            public int hashCode() {
+                return 0;
+            }
         };
     }
     
@@ -57,4 +113,193 @@ public interface NoiseSampler {
     default double noise(long seed, int x, int y, int z) {
         return noise(seed, (double) x, y, z);
     }
+    
+    /**
+     * Evaluate 2D noise at many points at once.
+     * <p>
+     * Implementations may override this to evaluate whole batches per node rather than once per point. Results must be identical
+     * to calling {@link #noise(long, double, double)} for each point.
+     *
+     * @param seed Seed
+     * @param x    X coordinates
+     * @param y    Y coordinates
+     * @param out  Array to write results into. {@code out.length} points are evaluated. Must not be one of the coordinate arrays.
+     */
+    default void noise(long seed, double[] x, double[] y, double[] out) {
+        for(int i = 0; i < out.length; i++) {
+            out[i] = noise(seed, x[i], y[i]);
+        }
+    }
+    
+    /**
+     * Evaluate 3D noise at many points at once.
+     * <p>
+     * Implementations may override this to evaluate whole batches per node rather than once per point. Results must be identical
+     * to calling {@link #noise(long, double, double, double)} for each point.
+     *
+     * @param seed Seed
+     * @param x    X coordinates
+     * @param y    Y coordinates
+     * @param z    Z coordinates
+     * @param out  Array to write results into. {@code out.length} points are evaluated. Must not be one of the coordinate arrays.
+     */
+    default void noise(long seed, double[] x, double[] y, double[] z, double[] out) {
+        for(int i = 0; i < out.length; i++) {
+            out[i] = noise(seed, x[i], y[i], z[i]);
+        }
+    }
+    
+    /**
+     * Fill a regular 2D grid with noise.
+     * <p>
+     * The value at grid point {@code (xi, zi)} is written to {@code out[xi * sizeZ + zi]}.
+     *
+     * @param seed  Seed
+     * @param x     X origin of the grid
+     * @param z     Z origin of the grid
+     * @param step  Distance between grid points
+     * @param sizeX Number of points along the X axis
+     * @param sizeZ Number of points along the Z axis
+     * @param out   Array of at least {@code sizeX * sizeZ} to write results into
+     */
+    default void noiseGrid(long seed, double x, double z, double step, int sizeX, int sizeZ, double[] out) {
+        int size = sizeX * sizeZ;
+        double[] xs = new double[size];
+        double[] zs = new double[size];
+        for(int xi = 0; xi < sizeX; xi++) {
+            for(int zi = 0; zi < sizeZ; zi++) {
+                int index = xi * sizeZ + zi;
+                xs[index] = x + xi * step;
+                zs[index] = z + zi * step;
+            }
+        }
+        if(out.length == size) {
+            noise(seed, xs, zs, out);
+        } else {
+            double[] results = new double[size];
+            noise(seed, xs, zs, results);
+            System.arraycopy(results, 0, out, 0, size);
+        }
+    }
+    
+    /**
+     * Fill a regular 3D grid with noise.
+     * <p>
+     * The value at grid point {@code (xi, yi, zi)} is written to {@code out[(xi * sizeZ + zi) * sizeY + yi]}, so each vertical
+     * column is contiguous.
+     *
+     * @param seed           Seed
+     * @param x              X origin of the grid
+     * @param y              Y origin of the grid
+     * @param z              Z origin of the grid
+     * @param horizontalStep Distance between grid points on the X and Z axes
+     * @param verticalStep   Distance between grid points on the Y axis
+     * @param sizeX          Number of points along the X axis
+     * @param sizeY          Number of points along the Y axis
+     * @param sizeZ          Number of points along the Z axis
+     * @param out            Array of at least {@code sizeX * sizeY * sizeZ} to write results into
+     */
+    default void noiseGrid(long seed, double x, double y, double z, double horizontalStep, double verticalStep,
+                           int sizeX, int sizeY, int sizeZ, double[] out) {
+        int size = sizeX * sizeY * sizeZ;
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        double[] zs = new double[size];
+        for(int xi = 0; xi < sizeX; xi++) {
+            for(int zi = 0; zi < sizeZ; zi++) {
+                for(int yi = 0; yi < sizeY; yi++) {
+                    int index = (xi * sizeZ + zi) * sizeY + yi;
+                    xs[index] = x + xi * horizontalStep;
+                    ys[index] = y + yi * verticalStep;
+                    zs[index] = z + zi * horizontalStep;
+                }
+            }
+        }
+        if(out.length == size) {
+            noise(seed, xs, ys, zs, out);
+        } else {
+            double[] results = new double[size];
+            noise(seed, xs, ys, zs, results);
+            System.arraycopy(results, 0, out, 0, size);
+        }
+    }
+    
+    /**
+     * Sample 2D noise along with its gradient.
+     * <p>
+     * The default implementation estimates the gradient with central differences. Samplers that can differentiate
+     * themselves analytically should override this.
+     *
+     * @param seed     Seed
+     * @param x        X coordinate
+     * @param y        Y coordinate
+     * @param gradient Array of length at least 2, into which the partial derivatives along X and Y are written
+     *
+     * @return The noise value at the coordinates
+     */
+    default double gradient(long seed, double x, double y, double[] gradient) {
+        gradient[0] = (noise(seed, x + GRADIENT_EPSILON, y) - noise(seed, x - GRADIENT_EPSILON, y)) / (2 * GRADIENT_EPSILON);
+        gradient[1] = (noise(seed, x, y + GRADIENT_EPSILON) - noise(seed, x, y - GRADIENT_EPSILON)) / (2 * GRADIENT_EPSILON);
+        return noise(seed, x, y);
+    }
+    
+    /**
+     * Sample 3D noise along with its gradient.
+     * <p>
+     * The default implementation estimates the gradient with central differences. Samplers that can differentiate
+     * themselves analytically should override this.
+     *
+     * @param seed     Seed
+     * @param x        X coordinate
+     * @param y        Y coordinate
+     * @param z        Z coordinate
+     * @param gradient Array of length at least 3, into which the partial derivatives along X, Y and Z are written
+     *
+     * @return The noise value at the coordinates
+     */
+    default double gradient(long seed, double x, double y, double z, double[] gradient) {
+        gradient[0] = (noise(seed, x + GRADIENT_EPSILON, y, z) - noise(seed, x - GRADIENT_EPSILON, y, z)) / (2 * GRADIENT_EPSILON);
+        gradient[1] = (noise(seed, x, y + GRADIENT_EPSILON, z) - noise(seed, x, y - GRADIENT_EPSILON, z)) / (2 * GRADIENT_EPSILON);
+        gradient[2] = (noise(seed, x, y, z + GRADIENT_EPSILON) - noise(seed, x, y, z - GRADIENT_EPSILON)) / (2 * GRADIENT_EPSILON);
+        return noise(seed, x, y, z);
+    }
+    
+    /**
+     * Get a lower bound of every value this sampler can return, for any seed and coordinates.
+     * <p>
+     * Bounds are conservative; they need not be tight, but a sampler must never return a value outside of them. Consumers use
+     * them to skip evaluation wherever the bounds alone decide the outcome. The default is unbounded.
+     *
+     * @return Lower bound of this sampler
+     */
+    default double getMinimum() {
+        return Double.NEGATIVE_INFINITY;
+    }
+    
+    /**
+     * Get an upper bound of every value this sampler can return, for any seed and coordinates.
+     *
+     * @return Upper bound of this sampler
+     *
+     * @see #getMinimum()
+     */
+    default double getMaximum() {
+        return Double.POSITIVE_INFINITY;
+    }
+    
+    /**
+     * Specialise this sampler for a single seed.
+     * <p>
+     * The returned sampler ignores the seed passed to it and always samples exactly as this sampler would with {@code seed}.
+     * Samplers with per-seed state (salted seeds, expression contexts, ...) compute it once here rather than on every call, so
+     * callers that always use one seed, such as a world's generator, should bind once and reuse the result. Binding an already
+     * bound sampler has no effect.
+     *
+     * @param seed Seed to bind to
+     *
+     * @return Sampler bound to the seed
+     */
+    default NoiseSampler bind(long seed) {
+        return new SeedBoundSampler(this, seed);
+    }
 }
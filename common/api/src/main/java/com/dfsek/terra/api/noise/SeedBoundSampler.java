@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020-2021 Polyhedral Development
+ *
+ * The Terra API is licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in the common/api directory.
+ */
+
+package com.dfsek.terra.api.noise;
+
+import java.util.Objects;
+
+
+/**
+ * Fallback returned by {@link NoiseSampler#bind(long)} for samplers with no per-seed state of their own.
+ */
+final class SeedBoundSampler implements NoiseSampler {
+    private final NoiseSampler sampler;
+    private final long seed;
+    
+    SeedBoundSampler(NoiseSampler sampler, long seed) {
+        this.sampler = sampler;
+        this.seed = seed;
+    }
+    
+    @Override
+    public double noise(long seed, double x, double y) {
+        return sampler.noise(this.seed, x, y);
+    }
+    
+    @Override
+    public double noise(long seed, double x, double y, double z) {
+        return sampler.noise(this.seed, x, y, z);
+    }
+    
+    @Override
+    public void noise(long seed, double[] x, double[] y, double[] out) {
+        sampler.noise(this.seed, x, y, out);
+    }
+    
+    @Override
+    public void noise(long seed, double[] x, double[] y, double[] z, double[] out) {
+        sampler.noise(this.seed, x, y, z, out);
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double[] gradient) {
+        return sampler.gradient(this.seed, x, y, gradient);
+    }
+    
+    @Override
+    public double gradient(long seed, double x, double y, double z, double[] gradient) {
+        return sampler.gradient(this.seed, x, y, z, gradient);
+    }
+    
+    @Override
+    public double getMinimum() {
+        return sampler.getMinimum();
+    }
+    
+    @Override
+    public double getMaximum() {
+        return sampler.getMaximum();
+    }
+    
+    @Override
+    public NoiseSampler bind(long seed) {
+        return this;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        SeedBoundSampler that = (SeedBoundSampler) obj;
+        return seed == that.seed &&
+               sampler.equals(that.sampler);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(sampler, seed);
+    }
+}
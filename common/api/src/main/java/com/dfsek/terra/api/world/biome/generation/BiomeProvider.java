@@ -62,6 +62,27 @@ public interface BiomeProvider {
         return getBiome(vector3.getX(), vector3.getY(), vector3.getZ(), seed);
     }
     
+    /**
+     * Get the biomes of an area at a single height. Providers that can produce areas more cheaply than single points should
+     * override this.
+     *
+     * @param x     X coordinate of the corner of the area with the lowest coordinates
+     * @param y     Y coordinate of the area
+     * @param z     Z coordinate of the corner of the area with the lowest coordinates
+     * @param width Size of the area along the x axis
+     * @param depth Size of the area along the z axis
+     * @param seed  World seed
+     * @param out   Array of length at least {@code width * depth} to write the biomes into; the biome at {@code (x + i, z + j)}
+     *              is written to index {@code i * depth + j}.
+     */
+    default void getBiomes(int x, int y, int z, int width, int depth, long seed, Biome[] out) {
+        for(int i = 0; i < width; i++) {
+            for(int j = 0; j < depth; j++) {
+                out[i * depth + j] = getBiome(x + i, y, z + j, seed);
+            }
+        }
+    }
+    
     /**
      * Get all biomes this {@link BiomeProvider} is capable of generating in the world.
      * <p>
@@ -77,6 +98,16 @@ public interface BiomeProvider {
         return StreamSupport.stream(getBiomes().spliterator(), false);
     }
     
+    /**
+     * Whether biomes from this provider depend only on x and z. Callers may then look biomes up once per column.
+     *
+     * @return {@code true} if {@link #getBiome(int, int, int, long)} never depends on y.
+     */
+    @Contract(pure = true)
+    default boolean isYInvariant() {
+        return false;
+    }
+    
     default BiomeProvider caching(int minY, int maxY) {
         return new CachingBiomeProvider(this, minY, maxY);
     }
@@ -84,4 +115,11 @@ public interface BiomeProvider {
     default BiomeProvider caching(WorldProperties worldProperties) {
         return caching(worldProperties.getMinHeight(), worldProperties.getMaxHeight());
     }
+    
+    /**
+     * Creates a caching provider for generating a chunk, which caches the area around the chunk more efficiently.
+     */
+    default BiomeProvider caching(WorldProperties worldProperties, int chunkX, int chunkZ) {
+        return new CachingBiomeProvider(this, worldProperties.getMinHeight(), worldProperties.getMaxHeight(), chunkX, chunkZ);
+    }
 }
@@ -4,25 +4,57 @@ import com.dfsek.terra.api.Handle;
 import com.dfsek.terra.api.util.MathUtil;
 import com.dfsek.terra.api.world.biome.Biome;
 
-import java.util.HashMap;
-import java.util.Map;
-
 
 /**
  * A biome provider implementation that lazily evaluates biomes, and caches them.
  * <p>
+ * Columns within a window around a chunk are kept in flat arrays; columns outside of it go into a map keyed by their
+ * coordinates. Providers that are {@link BiomeProvider#isYInvariant() y-invariant} are cached once per column, others once per
+ * block.
+ * <p>
  * This is for use in chunk generators, it makes the assumption that <b>the seed remains the same for the duration of its use!</b>
+ * It may be shared between threads.
  */
 public class CachingBiomeProvider implements BiomeProvider, Handle {
+    /**
+     * Number of columns kept in the window on every side of its chunk.
+     */
+    private static final int WINDOW_PADDING = 16;
+    private static final int WINDOW_SIZE = 16 + 2 * WINDOW_PADDING;
+    
     private final BiomeProvider delegate;
     private final int minY;
     private final int maxY;
-    private final Map<Long, Biome[]> cache = new HashMap<>();
+    private final boolean yInvariant;
+    
+    private final int xOrigin;
+    private final int zOrigin;
+    /*
+     * Window columns, at x * WINDOW_SIZE + z relative to the origin: Biome for y-invariant providers, Biome[] indexed by
+     * y - minY otherwise. Null if there's no window.
+     */
+    private final Object[] window;
+    
+    private final ColumnMap columns = new ColumnMap();
     
     protected CachingBiomeProvider(BiomeProvider delegate, int minY, int maxY) {
         this.delegate = delegate;
         this.minY = minY;
         this.maxY = maxY;
+        this.yInvariant = delegate.isYInvariant();
+        this.xOrigin = 0;
+        this.zOrigin = 0;
+        this.window = null;
+    }
+    
+    protected CachingBiomeProvider(BiomeProvider delegate, int minY, int maxY, int chunkX, int chunkZ) {
+        this.delegate = delegate;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.yInvariant = delegate.isYInvariant();
+        this.xOrigin = (chunkX << 4) - WINDOW_PADDING;
+        this.zOrigin = (chunkZ << 4) - WINDOW_PADDING;
+        this.window = new Object[WINDOW_SIZE * WINDOW_SIZE];
     }
     
     @Override
@@ -33,16 +65,144 @@ public class CachingBiomeProvider implements BiomeProvider, Handle {
     @Override
     public Biome getBiome(int x, int y, int z, long seed) {
         if(y >= maxY || y < minY) throw new IllegalArgumentException("Y out of range: " + y + " (min: " + minY + ", max: " + maxY + ")");
-        Biome[] biomes = cache.computeIfAbsent(MathUtil.squash(x, z), key -> new Biome[maxY - minY]);
+        
+        int wx = x - xOrigin;
+        int wz = z - zOrigin;
+        if(window != null && wx >= 0 && wz >= 0 && wx < WINDOW_SIZE && wz < WINDOW_SIZE) {
+            // Races only ever store the same biomes, so the window needs no synchronization.
+            int index = wx * WINDOW_SIZE + wz;
+            if(yInvariant) {
+                Biome biome = (Biome) window[index];
+                if(biome == null) {
+                    biome = delegate.getBiome(x, y, z, seed);
+                    window[index] = biome;
+                }
+                return biome;
+            }
+            Biome[] column = (Biome[]) window[index];
+            if(column == null) {
+                column = new Biome[maxY - minY];
+                window[index] = column;
+            }
+            return getBiome(column, x, y, z, seed);
+        }
+        
+        long key = MathUtil.squash(x, z);
+        synchronized(columns) {
+            if(yInvariant) {
+                Biome biome = (Biome) columns.get(key);
+                if(biome == null) {
+                    biome = delegate.getBiome(x, y, z, seed);
+                    columns.put(key, biome);
+                }
+                return biome;
+            }
+            Biome[] column = (Biome[]) columns.get(key);
+            if(column == null) {
+                column = new Biome[maxY - minY];
+                columns.put(key, column);
+            }
+            return getBiome(column, x, y, z, seed);
+        }
+    }
+    
+    private Biome getBiome(Biome[] column, int x, int y, int z, long seed) {
         int yi = y - minY;
-        if(biomes[yi] == null) {
-            biomes[yi] = delegate.getBiome(x, y, z, seed);
+        Biome biome = column[yi];
+        if(biome == null) {
+            biome = delegate.getBiome(x, y, z, seed);
+            column[yi] = biome;
+        }
+        return biome;
+    }
+    
+    /**
+     * Areas of a y-invariant provider within the window are read from the window if they are fully cached, and otherwise looked up
+     * from the delegate at once.
+     */
+    @Override
+    public void getBiomes(int x, int y, int z, int width, int depth, long seed, Biome[] out) {
+        int wx = x - xOrigin;
+        int wz = z - zOrigin;
+        if(!yInvariant || window == null || wx < 0 || wz < 0 || wx + width > WINDOW_SIZE || wz + depth > WINDOW_SIZE) {
+            BiomeProvider.super.getBiomes(x, y, z, width, depth, seed, out);
+            return;
+        }
+        if(y >= maxY || y < minY) throw new IllegalArgumentException("Y out of range: " + y + " (min: " + minY + ", max: " + maxY + ")");
+        
+        int count = width * depth;
+        int cached = 0;
+        while(cached < count) {
+            Biome biome = (Biome) window[(wx + cached / depth) * WINDOW_SIZE + wz + cached % depth];
+            if(biome == null) break;
+            out[cached++] = biome;
+        }
+        if(cached == count) return;
+        
+        delegate.getBiomes(x, y, z, width, depth, seed, out);
+        for(int i = 0; i < count; i++) {
+            window[(wx + i / depth) * WINDOW_SIZE + wz + i % depth] = out[i];
         }
-        return biomes[yi];
     }
     
     @Override
     public Iterable<Biome> getBiomes() {
         return delegate.getBiomes();
     }
+    
+    @Override
+    public boolean isYInvariant() {
+        return yInvariant;
+    }
+    
+    /*
+     * Open-addressing map from squashed column coordinates to cached columns, avoiding boxed keys.
+     */
+    private static final class ColumnMap {
+        private long[] keys = new long[16];
+        private Object[] values = new Object[16];
+        private int size;
+        
+        private static int hash(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return (int) key;
+        }
+        
+        private Object get(long key) {
+            int mask = keys.length - 1;
+            for(int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+                if(keys[i] == key) return values[i];
+            }
+            return null;
+        }
+        
+        private void put(long key, Object value) {
+            if(2 * (size + 1) > keys.length) grow();
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while(values[i] != null) {
+                if(keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+        }
+        
+        private void grow() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Object[oldValues.length * 2];
+            size = 0;
+            for(int i = 0; i < oldKeys.length; i++) {
+                if(oldValues[i] != null) put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
 }
@@ -9,6 +9,8 @@ package com.dfsek.terra.api.world.chunk.generation;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.function.Predicate;
+
 import com.dfsek.terra.api.block.state.BlockState;
 import com.dfsek.terra.api.util.vector.Vector3;
 import com.dfsek.terra.api.util.vector.Vector3Int;
@@ -31,5 +33,38 @@ public interface ChunkGenerator {
         return getBlock(world, vector3.getX(), vector3.getY(), vector3.getZ(), biomeProvider);
     }
     
+    /**
+     * Gets the height of a column, as used for heightmaps: one above the highest block matching a predicate.
+     * <p>
+     * The default implementation walks down the column with {@link #getBlock(WorldProperties, int, int, int, BiomeProvider)},
+     * through a caching biome provider; generators that can locate their surface directly should override it.
+     *
+     * @param predicate Predicate blocks are counted by
+     *
+     * @return One above the highest matching block, or the minimum height of the world if no block matches.
+     */
+    default int getHeight(WorldProperties world, int x, int z, BiomeProvider biomeProvider, Predicate<BlockState> predicate) {
+        BiomeProvider cached = biomeProvider.caching(world);
+        for(int y = world.getMaxHeight() - 1; y >= world.getMinHeight(); y--) {
+            if(predicate.test(getBlock(world, x, y, z, cached))) return y + 1;
+        }
+        return world.getMinHeight();
+    }
+    
+    /**
+     * Gets every block of a column at once. Prefer this to calling
+     * {@link #getBlock(WorldProperties, int, int, int, BiomeProvider)} for each block, which may have to evaluate the column above
+     * the block every time.
+     *
+     * @param column Array of length at least {@code world.getMaxHeight() - world.getMinHeight()} to write the column into,
+     *               starting at the minimum height of the world.
+     */
+    default void getColumn(WorldProperties world, int x, int z, BiomeProvider biomeProvider, BlockState[] column) {
+        BiomeProvider cached = biomeProvider.caching(world);
+        for(int y = world.getMaxHeight() - 1; y >= world.getMinHeight(); y--) {
+            column[y - world.getMinHeight()] = getBlock(world, x, y, z, cached);
+        }
+    }
+    
     Palette getPalette(int x, int y, int z, WorldProperties world, BiomeProvider biomeProvider);
 }
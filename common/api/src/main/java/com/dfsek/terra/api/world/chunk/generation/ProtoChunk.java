@@ -8,6 +8,9 @@
 package com.dfsek.terra.api.world.chunk.generation;
 
 
+import org.jetbrains.annotations.NotNull;
+
+import com.dfsek.terra.api.block.state.BlockState;
 import com.dfsek.terra.api.world.chunk.ChunkAccess;
 
 
@@ -20,4 +23,24 @@ public interface ProtoChunk extends ChunkAccess {
      * @return the maximum height
      */
     int getMaxHeight();
+    
+    /**
+     * Set a vertical run of blocks in a column to the same state.
+     * <p>
+     * Leaves the chunk in the same state as calling {@link #setBlock(int, int, int, BlockState)} for every block in the run,
+     * including its heightmaps, but platforms may write whole runs at once. Platforms only take such a fast path while the
+     * chunk is still being generated, before lighting; afterwards every block is set individually so that light is updated.
+     * Parts of the run outside of the chunk's bounds are ignored.
+     *
+     * @param x          the x location in the chunk from 0-15 inclusive
+     * @param z          the z location in the chunk from 0-15 inclusive
+     * @param yMin       the bottom of the run, inclusive
+     * @param yMax       the top of the run, exclusive
+     * @param blockState the type to set the blocks to
+     */
+    default void setBlocks(int x, int z, int yMin, int yMax, @NotNull BlockState blockState) {
+        for(int y = yMin; y < yMax; y++) {
+            setBlock(x, y, z, blockState);
+        }
+    }
 }
@@ -0,0 +1,136 @@
+package biome;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import com.dfsek.terra.api.properties.Context;
+import com.dfsek.terra.api.world.biome.Biome;
+import com.dfsek.terra.api.world.biome.PlatformBiome;
+import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
+import com.dfsek.terra.api.world.info.WorldProperties;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+public class CachingBiomeProviderTest {
+    private static final List<Biome> BIOMES = List.of(new TestBiome("A"), new TestBiome("B"), new TestBiome("C"), new TestBiome("D"));
+    
+    private static final WorldProperties WORLD = new WorldProperties() {
+        @Override
+        public long getSeed() {
+            return 3;
+        }
+        
+        @Override
+        public int getMaxHeight() {
+            return 320;
+        }
+        
+        @Override
+        public int getMinHeight() {
+            return -64;
+        }
+        
+        @Override
+        public Object getHandle() {
+            return null;
+        }
+    };
+    
+    private static BiomeProvider delegate(boolean yInvariant) {
+        return new BiomeProvider() {
+            @Override
+            public Biome getBiome(int x, int y, int z, long seed) {
+                int hash = x * 31 + z * 17 + (int) seed + (yInvariant ? 0 : y / 16);
+                return BIOMES.get(Math.floorMod(hash, BIOMES.size()));
+            }
+            
+            @Override
+            public Iterable<Biome> getBiomes() {
+                return BIOMES;
+            }
+            
+            @Override
+            public boolean isYInvariant() {
+                return yInvariant;
+            }
+        };
+    }
+    
+    private static void assertArea(BiomeProvider expected, BiomeProvider provider, int x, int y, int z, int width, int depth) {
+        Biome[] out = new Biome[width * depth];
+        provider.getBiomes(x, y, z, width, depth, WORLD.getSeed(), out);
+        for(int i = 0; i < width; i++) {
+            for(int j = 0; j < depth; j++) {
+                assertSame(expected.getBiome(x + i, y, z + j, WORLD.getSeed()), out[i * depth + j],
+                           "area " + x + ", " + z + " at " + (x + i) + ", " + y + ", " + (z + j));
+            }
+        }
+    }
+    
+    /*
+     * Chunk 1, -1 has a window from x = 0 to 47 and z = -32 to 15.
+     */
+    private static void assertMatchesDelegate(boolean yInvariant) {
+        BiomeProvider delegate = delegate(yInvariant);
+        BiomeProvider caching = delegate.caching(WORLD, 1, -1);
+        
+        assertArea(delegate, caching, 16, 0, -16, 16, 16); // the chunk itself, nothing cached yet
+        assertArea(delegate, caching, 16, 0, -16, 16, 16); // the same, fully cached
+        assertArea(delegate, caching, 8, 0, -24, 32, 32); // partly cached
+        assertArea(delegate, caching, 0, 0, -32, 48, 48); // the whole window
+        assertArea(delegate, caching, 40, 0, 8, 16, 16); // reaching out of the window
+        assertArea(delegate, caching, 200, 0, -300, 8, 8); // entirely outside of the window
+        assertArea(delegate, caching, 200, 0, -300, 8, 8); // outside of the window, cached
+        assertArea(delegate, caching, 16, 100, -16, 16, 16); // another height
+        
+        for(int x = -20; x < 70; x += 3) {
+            for(int z = -50; z < 40; z += 3) {
+                assertSame(delegate.getBiome(x, 17, z, WORLD.getSeed()), caching.getBiome(x, 17, z, WORLD.getSeed()));
+            }
+        }
+        
+        BiomeProvider windowless = delegate.caching(WORLD);
+        assertArea(delegate, windowless, -5, 0, -5, 20, 20);
+        assertArea(delegate, windowless, -5, 0, -5, 20, 20);
+    }
+    
+    @Test
+    public void yInvariantMatchesDelegate() {
+        assertMatchesDelegate(true);
+    }
+    
+    @Test
+    public void yVariantMatchesDelegate() {
+        assertMatchesDelegate(false);
+    }
+    
+    private record TestBiome(String id) implements Biome {
+        @Override
+        public String getID() {
+            return id;
+        }
+        
+        @Override
+        public PlatformBiome getPlatformBiome() {
+            return null;
+        }
+        
+        @Override
+        public int getColor() {
+            return 0;
+        }
+        
+        @Override
+        public Set<String> getTags() {
+            return Set.of();
+        }
+        
+        @Override
+        public Context getContext() {
+            return new Context();
+        }
+    }
+}
@@ -67,6 +67,18 @@ public class PluginConfigImpl implements ConfigTemplate, PluginConfig {
     @Default
     private int providerCache = 32;
     
+    @Value("cache.biome-pipeline.size")
+    @Default
+    private int pipelineCache = 1024;
+    
+    @Value("cache.biome-pipeline.expire-after-access")
+    @Default
+    private int pipelineCacheExpiry = 0;
+    
+    @Value("cache.biome-pipeline.prefetch")
+    @Default
+    private boolean pipelinePrefetch = false;
+    
     @Value("dump-default")
     @Default
     private boolean dumpDefaultData = true;
@@ -75,6 +87,10 @@ public class PluginConfigImpl implements ConfigTemplate, PluginConfig {
     @Default
     private int maxRecursion = 1000;
     
+    @Value("noise.vectorize")
+    @Default
+    private boolean vectorizeNoise = false;
+    
     @Override
     public void load(Platform platform) {
         logger.info("Loading config values from config.yml");
@@ -137,4 +153,24 @@ public class PluginConfigImpl implements ConfigTemplate, PluginConfig {
     public int getProviderCache() {
         return providerCache;
     }
+    
+    @Override
+    public int getPipelineCache() {
+        return pipelineCache;
+    }
+    
+    @Override
+    public int getPipelineCacheExpiry() {
+        return pipelineCacheExpiry;
+    }
+    
+    @Override
+    public boolean isPipelinePrefetch() {
+        return pipelinePrefetch;
+    }
+    
+    @Override
+    public boolean isVectorizeNoise() {
+        return vectorizeNoise;
+    }
 }
@@ -50,6 +50,11 @@ public class BukkitProtoChunk implements ProtoChunk {
     }
     
     
+    @Override
+    public void setBlocks(int x, int z, int yMin, int yMax, @NotNull BlockState blockState) {
+        delegate.setRegion(x, yMin, z, x + 1, yMax, z + 1, ((BukkitBlockState) blockState).getHandle());
+    }
+    
     @Override
     public @NotNull BlockState getBlock(int x, int y, int z) {
         return BukkitBlockState.newInstance(delegate.getBlockData(x, y, z));
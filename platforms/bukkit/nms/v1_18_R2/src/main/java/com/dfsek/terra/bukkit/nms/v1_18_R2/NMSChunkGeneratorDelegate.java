@@ -2,7 +2,6 @@ package com.dfsek.terra.bukkit.nms.v1_18_R2;
 
 import com.dfsek.terra.api.config.ConfigPack;
 import com.dfsek.terra.api.util.generic.Lazy;
-import com.dfsek.terra.api.world.biome.generation.BiomeProvider;
 import com.dfsek.terra.api.world.info.WorldProperties;
 
 import com.mojang.datafixers.util.Pair;
@@ -101,10 +100,10 @@ public class NMSChunkGeneratorDelegate extends ChunkGenerator {
     public @NotNull NoiseColumn getBaseColumn(int x, int z, LevelHeightAccessor height) {
         BlockState[] array = new BlockState[height.getHeight()];
         WorldProperties properties = new NMSWorldProperties(seed, height);
-        BiomeProvider biomeProvider = pack.getBiomeProvider().caching(properties);
-        for(int y = properties.getMaxHeight() - 1; y >= properties.getMinHeight(); y--) {
-            array[y - properties.getMinHeight()] = ((CraftBlockData) delegate.getBlock(properties, x, y, z, biomeProvider)
-                                                                             .getHandle()).getState();
+        com.dfsek.terra.api.block.state.BlockState[] column = new com.dfsek.terra.api.block.state.BlockState[array.length];
+        delegate.getColumn(properties, x, z, pack.getBiomeProvider(), column);
+        for(int i = 0; i < column.length; i++) {
+            array[i] = ((CraftBlockData) column[i].getHandle()).getState();
         }
         return new NoiseColumn(getMinY(), array);
     }
@@ -137,13 +136,8 @@ public class NMSChunkGeneratorDelegate extends ChunkGenerator {
     @Override
     public int getBaseHeight(int x, int z, Heightmap.@NotNull Types heightmap, @NotNull LevelHeightAccessor world) {
         WorldProperties properties = new NMSWorldProperties(seed, world);
-        int y = properties.getMaxHeight();
-        BiomeProvider biomeProvider = pack.getBiomeProvider().caching(properties);
-        while(y >= getMinY() && !heightmap.isOpaque().test(
-                ((CraftBlockData) delegate.getBlock(properties, x, y - 1, z, biomeProvider).getHandle()).getState())) {
-            y--;
-        }
-        return y;
+        return delegate.getHeight(properties, x, z, pack.getBiomeProvider(),
+                                  state -> heightmap.isOpaque().test(((CraftBlockData) state.getHandle()).getState()));
     }
     
     @Nullable
@@ -85,7 +85,8 @@ public class CLIWorld implements ServerWorld, NBTSerializable<Stream<Pair<Vector
                     try {
                         int num = amount.getAndIncrement();
                         CLIChunk chunk = getChunkAt(finalX, finalZ);
-                        chunkGenerator.generateChunkData(chunk, this, pack.getBiomeProvider().caching(this), finalX, finalZ);
+                        chunkGenerator.generateChunkData(chunk, this, pack.getBiomeProvider().caching(this, finalX, finalZ), finalX,
+                                                         finalZ);
                         CLIProtoWorld protoWorld = new CLIProtoWorld(this, finalX, finalZ);
                         pack.getStages().forEach(stage -> stage.populate(protoWorld));
                         if(num % 240 == 239) {
@@ -2,6 +2,8 @@ package com.dfsek.terra.cli.world.chunk;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
+
 import com.dfsek.terra.api.block.state.BlockState;
 import com.dfsek.terra.api.world.ServerWorld;
 import com.dfsek.terra.api.world.chunk.Chunk;
@@ -40,6 +42,13 @@ public class CLIChunk implements Chunk, ProtoChunk, NBTSerializable<net.querz.mc
         blocks[x][z][y - minHeight] = (CLIBlockState) data;
     }
     
+    @Override
+    public void setBlocks(int x, int z, int yMin, int yMax, @NotNull BlockState blockState) {
+        int bottom = Math.max(yMin, minHeight);
+        int top = Math.min(yMax, maxHeight);
+        if(top > bottom) Arrays.fill(blocks[x][z], bottom - minHeight, top - minHeight, (CLIBlockState) blockState);
+    }
+    
     @Override
     public @NotNull CLIBlockState getBlock(int x, int y, int z) {
         CLIBlockState blockState = blocks[x][z][y - minHeight];
@@ -125,7 +125,7 @@ public class FabricChunkGeneratorWrapper extends net.minecraft.world.gen.chunk.C
                                                   StructureAccessor structureAccessor, Chunk chunk) {
         return CompletableFuture.supplyAsync(() -> {
             ProtoWorld world = (ProtoWorld) ((StructureAccessorAccessor) structureAccessor).getWorld();
-            BiomeProvider biomeProvider = pack.getBiomeProvider().caching(world);
+            BiomeProvider biomeProvider = pack.getBiomeProvider().caching(world, chunk.getPos().x, chunk.getPos().z);
             delegate.generateChunkData((ProtoChunk) chunk, world, biomeProvider, chunk.getPos().x, chunk.getPos().z);
         
             PreLoadCompatibilityOptions compatibilityOptions = pack.getContext().get(PreLoadCompatibilityOptions.class);
@@ -186,23 +186,19 @@ public class FabricChunkGeneratorWrapper extends net.minecraft.world.gen.chunk.C
     
     @Override
     public int getHeight(int x, int z, Type heightmap, HeightLimitView height, NoiseConfig noiseConfig) {
-        int y = height.getTopY();
         WorldProperties properties = FabricAdapter.adapt(height, noiseConfig.getLegacyWorldSeed());
-        BiomeProvider biomeProvider = pack.getBiomeProvider().caching(properties);
-        while(y >= getMinimumY() && !heightmap.getBlockPredicate().test(
-                (BlockState) delegate.getBlock(properties, x, y - 1, z, biomeProvider))) {
-            y--;
-        }
-        return y;
+        return delegate.getHeight(properties, x, z, pack.getBiomeProvider(),
+                                  state -> heightmap.getBlockPredicate().test((BlockState) state));
     }
     
     @Override
     public VerticalBlockSample getColumnSample(int x, int z, HeightLimitView height, NoiseConfig noiseConfig) {
-        BlockState[] array = new BlockState[height.getHeight()];
         WorldProperties properties = FabricAdapter.adapt(height, noiseConfig.getLegacyWorldSeed());
-        BiomeProvider biomeProvider = pack.getBiomeProvider().caching(properties);
-        for(int y = height.getTopY() - 1; y >= height.getBottomY(); y--) {
-            array[y - height.getBottomY()] = (BlockState) delegate.getBlock(properties, x, y, z, biomeProvider);
+        com.dfsek.terra.api.block.state.BlockState[] column = new com.dfsek.terra.api.block.state.BlockState[height.getHeight()];
+        delegate.getColumn(properties, x, z, pack.getBiomeProvider(), column);
+        BlockState[] array = new BlockState[column.length];
+        for(int i = 0; i < column.length; i++) {
+            array[i] = (BlockState) column[i];
         }
         return new VerticalBlockSample(height.getBottomY(), array);
     }
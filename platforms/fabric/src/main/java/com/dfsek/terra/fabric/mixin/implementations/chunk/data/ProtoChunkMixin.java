@@ -18,6 +18,9 @@
 package com.dfsek.terra.fabric.mixin.implementations.chunk.data;
 
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.ChunkStatus;
 import org.jetbrains.annotations.NotNull;
 import org.spongepowered.asm.mixin.Implements;
 import org.spongepowered.asm.mixin.Interface;
@@ -39,6 +42,47 @@ public abstract class ProtoChunkMixin {
                                                                         false);
     }
     
+    public void terra$setBlocks(int x, int z, int yMin, int yMax, @NotNull BlockState blockState) {
+        net.minecraft.world.chunk.Chunk chunk = (net.minecraft.world.chunk.Chunk) (Object) this;
+        net.minecraft.block.BlockState state = (net.minecraft.block.BlockState) blockState;
+        int bottom = Math.max(yMin, chunk.getBottomY());
+        int top = Math.min(yMax, chunk.getTopY());
+        if(top <= bottom) return;
+        
+        // Once a chunk has reached FEATURES, every block change needs its own light check. Before that, only light sources
+        // and emptied sections need bookkeeping per block.
+        if(chunk.getStatus().isAtLeast(ChunkStatus.FEATURES) || state.isAir() || state.getLuminance() > 0) {
+            for(int y = bottom; y < top; y++) {
+                terra$setBlock(x, y, z, blockState);
+            }
+            return;
+        }
+        
+        // Write straight into the sections, one section at a time, the same way vanilla fills chunks during NOISE.
+        int y = bottom;
+        while(y < top - 1) {
+            ChunkSection section = chunk.getSection(chunk.getSectionIndex(y));
+            int sectionTop = Math.min((y & ~15) + 16, top - 1);
+            for(; y < sectionTop; y++) {
+                section.setBlockState(x, y & 15, z, state, false);
+            }
+        }
+        // The top block goes through setBlockState, which creates any missing heightmaps and raises those the state counts
+        // towards to the top of the run.
+        terra$setBlock(x, top - 1, z, blockState);
+        
+        // Heightmaps the state doesn't count towards may have had their surface inside the run; tracking the old surface
+        // block makes them scan down to the new one.
+        for(Heightmap.Type type : chunk.getStatus().getHeightmapTypes()) {
+            if(type.getBlockPredicate().test(state)) continue;
+            Heightmap heightmap = chunk.getHeightmap(type);
+            int surface = heightmap.get(x, z) - 1;
+            if(surface >= bottom && surface < top - 1) {
+                heightmap.trackUpdate(x, surface, z, state);
+            }
+        }
+    }
+    
     public @NotNull BlockState terra$getBlock(int x, int y, int z) {
         return (BlockState) getBlockState(new BlockPos(x, y, z));
     }